@@ -0,0 +1,91 @@
+package org.jamel.dbf.benchmark;
+
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.utils.DateDecoder;
+import org.jamel.dbf.utils.DbfUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Decoding of DATE values of a ledger (a few hundred distinct days): calendar compared to
+ * arithmetic decoding into the supported date types.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class DateDecodeBenchmark {
+
+    private static final int VALUES = 1024;
+
+    private final byte[] values = new byte[VALUES * 8];
+    private final DateDecoder cached = new DateDecoder(true);
+    private final DateDecoder uncached = new DateDecoder(false);
+
+    @Setup
+    public void setUp() {
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < VALUES; i++) {
+            String date = start.plusDays(i / 4).toString().replace("-", "");
+            System.arraycopy(date.getBytes(), 0, values, i * 8, 8);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void calendar(Blackhole blackhole) {
+        for (int offset = 0; offset < values.length; offset += 8) {
+            int year = DbfUtils.parseInt(values, offset, offset + 4);
+            int month = DbfUtils.parseInt(values, offset + 4, offset + 6);
+            int day = DbfUtils.parseInt(values, offset + 6, offset + 8);
+            blackhole.consume(new GregorianCalendar(year, month - 1, day).getTime());
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void epochDay(Blackhole blackhole) {
+        for (int offset = 0; offset < values.length; offset += 8) {
+            blackhole.consume(DbfUtils.parseEpochDay(values, offset));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void localDate(Blackhole blackhole) {
+        for (int offset = 0; offset < values.length; offset += 8) {
+            blackhole.consume(cached.toLocalDate(DbfUtils.parseEpochDay(values, offset)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void date(Blackhole blackhole) {
+        for (int offset = 0; offset < values.length; offset += 8) {
+            blackhole.consume(cached.toDate(DbfUtils.parseEpochDay(values, offset)));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void dateUncached(Blackhole blackhole) {
+        for (int offset = 0; offset < values.length; offset += 8) {
+            blackhole.consume(uncached.toDate(DbfUtils.parseEpochDay(values, offset)));
+        }
+    }
+}
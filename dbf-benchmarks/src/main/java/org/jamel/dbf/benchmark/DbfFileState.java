@@ -0,0 +1,50 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+
+/**
+ * Generated dbf file shared by all threads of a benchmark.
+ */
+@State(Scope.Benchmark)
+public class DbfFileState {
+
+    @Param({"100000"})
+    public int rows;
+
+    @Param({"40"})
+    public int columns;
+
+    @Param({"CNNFDL"})
+    public String typeMix;
+
+    @Param({"0.0"})
+    public double deletedRatio;
+
+    public File file;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        file = File.createTempFile("dbf-benchmark", ".dbf");
+        new DbfGenerator()
+                .rows(rows)
+                .columns(columns)
+                .typeMix(typeMix)
+                .deletedRatio(deletedRatio)
+                .generate(file);
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Generates synthetic dbf files for benchmarks. Output depends only on the settings
+ * and the seed, so the same settings always give the same file.
+ * Types of the columns are taken from the type mix in round robin order, e.g.
+ * mix "CNND" with 6 columns gives C, N, N, D, C, N.
+ */
+public class DbfGenerator {
+
+    private static final byte[] ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ abcdefghijklmnopqrstuvwxyz0123456789".getBytes();
+
+    private int rows = 100000;
+    private int columns = 20;
+    private String typeMix = "CNNFDL";
+    private double deletedRatio;
+    private long seed = 42;
+
+    public DbfGenerator rows(int rows) {
+        this.rows = rows;
+        return this;
+    }
+
+    public DbfGenerator columns(int columns) {
+        this.columns = columns;
+        return this;
+    }
+
+    /**
+     * @param typeMix dbf types of the columns, each one of C, N, F, D, L
+     */
+    public DbfGenerator typeMix(String typeMix) {
+        for (char type : typeMix.toCharArray()) {
+            if ("CNFDL".indexOf(type) < 0) {
+                throw new IllegalArgumentException("Unsupported type: " + type);
+            }
+        }
+        this.typeMix = typeMix;
+        return this;
+    }
+
+    /**
+     * @param deletedRatio part of the records marked as deleted, from 0 to 1
+     */
+    public DbfGenerator deletedRatio(double deletedRatio) {
+        this.deletedRatio = deletedRatio;
+        return this;
+    }
+
+    public DbfGenerator seed(long seed) {
+        this.seed = seed;
+        return this;
+    }
+
+    public char type(int column) {
+        return typeMix.charAt(column % typeMix.length());
+    }
+
+    public int length(int column) {
+        switch (type(column)) {
+            case 'C': return 20;
+            case 'N': return 12;
+            case 'F': return 10;
+            case 'D': return 8;
+            default: return 1;
+        }
+    }
+
+    public int decimalCount(int column) {
+        switch (type(column)) {
+            case 'N': return 2;
+            case 'F': return 3;
+            default: return 0;
+        }
+    }
+
+    public int recordLength() {
+        int length = 1;
+        for (int i = 0; i < columns; i++) {
+            length += length(i);
+        }
+        return length;
+    }
+
+    public File generate(File file) throws IOException {
+        try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file), 1 << 16)) {
+            writeHeader(out);
+
+            Random random = new Random(seed);
+            byte[] record = new byte[recordLength()];
+            for (int i = 0; i < rows; i++) {
+                Arrays.fill(record, (byte) ' ');
+                if (random.nextDouble() < deletedRatio) {
+                    record[0] = '*';
+                }
+                int offset = 1;
+                for (int column = 0; column < columns; column++) {
+                    writeValue(random, column, record, offset);
+                    offset += length(column);
+                }
+                out.write(record);
+            }
+            out.write(0x1a);
+        }
+        return file;
+    }
+
+    private void writeHeader(OutputStream out) throws IOException {
+        byte[] header = new byte[32];
+        header[0] = 0x03;
+        header[1] = 114;
+        header[2] = 1;
+        header[3] = 1;
+        writeLittleEndian(header, 4, rows, 4);
+        writeLittleEndian(header, 8, 32 * (columns + 1) + 1, 2);
+        writeLittleEndian(header, 10, recordLength(), 2);
+        out.write(header);
+
+        for (int column = 0; column < columns; column++) {
+            byte[] field = new byte[32];
+            byte[] name = ("F" + column).getBytes();
+            System.arraycopy(name, 0, field, 0, name.length);
+            field[11] = (byte) type(column);
+            field[16] = (byte) length(column);
+            field[17] = (byte) decimalCount(column);
+            out.write(field);
+        }
+        out.write(0x0d);
+    }
+
+    private void writeValue(Random random, int column, byte[] record, int offset) {
+        int length = length(column);
+        switch (type(column)) {
+            case 'C':
+                int valueLength = 1 + random.nextInt(length);
+                for (int i = 0; i < valueLength; i++) {
+                    record[offset + i] = ALPHABET[random.nextInt(ALPHABET.length)];
+                }
+                break;
+            case 'N':
+            case 'F':
+                int decimals = decimalCount(column);
+                // leave space for sign and decimal point
+                int bound = (int) Math.min(1000000000L, (long) Math.pow(10, length - 2));
+                long unscaled = random.nextInt(2 * bound) - (long) bound;
+                writeDecimal(unscaled, decimals, record, offset, length);
+                break;
+            case 'D':
+                int date = (1990 + random.nextInt(30)) * 10000 + (1 + random.nextInt(12)) * 100 + 1 + random.nextInt(28);
+                writeRightAligned(String.valueOf(date).getBytes(), record, offset, length);
+                break;
+            default:
+                record[offset] = random.nextBoolean() ? (byte) 'T' : (byte) 'F';
+                break;
+        }
+    }
+
+    private static void writeDecimal(long unscaled, int decimals, byte[] record, int offset, int length) {
+        StringBuilder sb = new StringBuilder(length).append(Math.abs(unscaled));
+        while (sb.length() <= decimals) sb.insert(0, '0');
+        sb.insert(sb.length() - decimals, '.');
+        if (unscaled < 0) sb.insert(0, '-');
+        writeRightAligned(sb.toString().getBytes(), record, offset, length);
+    }
+
+    private static void writeRightAligned(byte[] value, byte[] record, int offset, int length) {
+        System.arraycopy(value, 0, record, offset + length - value.length, value.length);
+    }
+
+    private static void writeLittleEndian(byte[] buf, int offset, int value, int size) {
+        for (int i = 0; i < size; i++) {
+            buf[offset + i] = (byte) (value >>> (8 * i));
+        }
+    }
+}
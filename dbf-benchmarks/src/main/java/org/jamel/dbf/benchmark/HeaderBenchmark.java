@@ -0,0 +1,57 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.structure.DbfHeader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Parsing of the header with the given number of fields.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class HeaderBenchmark {
+
+    @Param({"10", "100", "255"})
+    public int columns;
+
+    private byte[] header;
+
+    @Setup(Level.Trial)
+    public void generate() throws IOException {
+        File file = File.createTempFile("dbf-benchmark", ".dbf");
+        try {
+            new DbfGenerator().rows(0).columns(columns).generate(file);
+            byte[] content = Files.readAllBytes(file.toPath());
+            header = Arrays.copyOf(content, content.length - 1);
+        } finally {
+            file.delete();
+        }
+    }
+
+    @Benchmark
+    public DbfHeader read() {
+        return DbfHeader.read(new DataInputStream(new ByteArrayInputStream(header)));
+    }
+}
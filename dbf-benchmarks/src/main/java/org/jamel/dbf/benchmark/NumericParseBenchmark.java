@@ -0,0 +1,69 @@
+package org.jamel.dbf.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.utils.DbfUtils;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Parsing of N(12,2) values: the way it was done through String and the byte level parser.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class NumericParseBenchmark {
+
+    private static final int VALUES = 1024;
+    private static final int LENGTH = 12;
+
+    private byte[] values;
+
+    @Setup(Level.Trial)
+    public void generate() {
+        Random random = new Random(42);
+        StringBuilder sb = new StringBuilder();
+        for (int i = 0; i < VALUES; i++) {
+            String value = String.format("%.2f", (random.nextInt(2000000000) - 1000000000L) / 100.0);
+            for (int j = value.length(); j < LENGTH; j++) sb.append(' ');
+            sb.append(value);
+        }
+        values = sb.toString().getBytes();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void stringParse(Blackhole blackhole) {
+        for (int from = 0; from < values.length; from += LENGTH) {
+            byte[] buf = new byte[LENGTH];
+            System.arraycopy(values, from, buf, 0, LENGTH);
+            byte[] numericBuf = DbfUtils.trimLeftSpaces(buf);
+            boolean processable = numericBuf.length > 0 && !DbfUtils.contains(numericBuf, (byte) '?');
+            blackhole.consume(processable ? Double.valueOf(new String(numericBuf)) : null);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(VALUES)
+    public void byteParse(Blackhole blackhole) {
+        for (int from = 0; from < values.length; from += LENGTH) {
+            int to = from + LENGTH;
+            blackhole.consume(DbfUtils.isNullNumber(values, from, to) ? 0 : DbfUtils.parseDouble(values, from, to));
+        }
+    }
+}
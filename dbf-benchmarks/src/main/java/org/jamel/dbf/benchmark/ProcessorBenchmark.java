@@ -0,0 +1,85 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.DbfRecordBatch;
+import org.jamel.dbf.processor.DbfBatchProcessor;
+import org.jamel.dbf.processor.DbfProcessor;
+import org.jamel.dbf.processor.DbfRowMapper;
+import org.jamel.dbf.processor.DbfRowProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * High level operations of {@link DbfProcessor}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ProcessorBenchmark {
+
+    private static final DbfRowMapper<Object[]> IDENTITY = new DbfRowMapper<Object[]>() {
+        @Override
+        public Object[] mapRow(Object[] row) {
+            return row;
+        }
+    };
+
+    @Benchmark
+    public List<Object[]> loadData(DbfFileState state) {
+        return DbfProcessor.loadData(state.file, IDENTITY);
+    }
+
+    @Benchmark
+    public List<Object[]> loadDataParallel(DbfFileState state) {
+        return DbfProcessor.loadDataParallel(state.file, IDENTITY, true);
+    }
+
+    @Benchmark
+    public void processDbf(DbfFileState state, final Blackhole blackhole) {
+        DbfProcessor.processDbf(state.file, new DbfRowProcessor() {
+            @Override
+            public void processRow(Object[] row) {
+                blackhole.consume(row);
+            }
+        });
+    }
+
+    @Benchmark
+    public void processDbfInBatches(DbfFileState state, final Blackhole blackhole) {
+        DbfProcessor.processDbfInBatches(state.file, 1000, new DbfBatchProcessor() {
+            @Override
+            public void processBatch(DbfRecordBatch batch) {
+                for (Object[] row : batch) {
+                    blackhole.consume(row);
+                }
+            }
+        });
+    }
+
+    @Benchmark
+    public long writeToTxtFile(DbfFileState state) throws IOException {
+        File txt = File.createTempFile("dbf-benchmark", ".txt");
+        try {
+            DbfProcessor.writeToTxtFile(state.file, txt, Charset.forName("US-ASCII"));
+            return txt.length();
+        } finally {
+            txt.delete();
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.jamel.dbf.benchmark;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.DbfRandomAccessReader;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.DbfRecordCache;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Lookups of random records by several threads: a reader opened for each lookup
+ * compared to one shared reader with positional reads, and lookups of a few hot
+ * records through the shared reader compared to the record cache.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Threads(4)
+@Fork(1)
+public class RandomAccessBenchmark {
+
+    /** Number of records which are looked up over and over */
+    private static final int HOT_RECORDS = 1000;
+
+    private DbfRandomAccessReader shared;
+    private DbfRecordCache cache;
+
+    @Setup(Level.Trial)
+    public void open(DbfFileState state) {
+        shared = new DbfRandomAccessReader(state.file);
+        cache = new DbfRecordCache(shared, 2 * HOT_RECORDS);
+    }
+
+    @TearDown(Level.Trial)
+    public void close() {
+        shared.close();
+    }
+
+    @Benchmark
+    public Object[] readerPerLookup(DbfFileState state) {
+        try (DbfReader reader = new DbfReader(state.file)) {
+            reader.seekToRecord(ThreadLocalRandom.current().nextInt(state.rows));
+            return reader.nextRecord();
+        }
+    }
+
+    @Benchmark
+    public Object[] sharedReader(DbfFileState state) {
+        return shared.readRecord(ThreadLocalRandom.current().nextInt(state.rows));
+    }
+
+    @Benchmark
+    public Object[] hotRecords() {
+        return shared.readRecord(ThreadLocalRandom.current().nextInt(HOT_RECORDS));
+    }
+
+    @Benchmark
+    public Object[] hotRecordsCached() {
+        return cache.readRecord(ThreadLocalRandom.current().nextInt(HOT_RECORDS));
+    }
+}
@@ -0,0 +1,109 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jamel.dbf.DbfReader;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full scan of a generated file from slow storage: serial stream reader compared to
+ * the pipelined reader which reads the channel ahead in a background thread.
+ * Storage is simulated by a channel with limited bandwidth.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReadAheadBenchmark {
+
+    /** Bandwidth of the storage in megabytes per second */
+    @Param({"100"})
+    public int bandwidth;
+
+    @Param({"1048576"})
+    public int bufferSize;
+
+    @Param({"4"})
+    public int depth;
+
+    private ReadableByteChannel open(DbfFileState state) throws IOException {
+        return new SlowChannel(new RandomAccessFile(state.file, "r").getChannel(), bandwidth * 1024L * 1024L);
+    }
+
+    @Benchmark
+    public void stream(DbfFileState state, Blackhole blackhole) throws IOException {
+        try (DbfReader reader = new DbfReader(Channels.newInputStream(open(state)))) {
+            scan(reader, blackhole);
+        }
+    }
+
+    @Benchmark
+    public void readAhead(DbfFileState state, Blackhole blackhole) throws IOException {
+        try (DbfReader reader = new DbfReader(open(state), bufferSize, depth)) {
+            scan(reader, blackhole);
+        }
+    }
+
+    private static void scan(DbfReader reader, Blackhole blackhole) {
+        Object[] record;
+        while ((record = reader.nextRecord()) != null) {
+            blackhole.consume(record);
+        }
+    }
+
+    /**
+     * Returns at most 64 KB per read and waits for the time the storage would need to transfer them.
+     */
+    private static class SlowChannel implements ReadableByteChannel {
+        private static final int MAX_READ = 64 * 1024;
+
+        private final FileChannel file;
+        private final long bytesPerSecond;
+
+        SlowChannel(FileChannel file, long bytesPerSecond) {
+            this.file = file;
+            this.bytesPerSecond = bytesPerSecond;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            ByteBuffer slice = dst.slice();
+            slice.limit(Math.min(MAX_READ, slice.remaining()));
+            int n = file.read(slice);
+            if (n > 0) {
+                dst.position(dst.position() + n);
+                LockSupport.parkNanos(n * TimeUnit.SECONDS.toNanos(1) / bytesPerSecond);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.DbfCursor;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.structure.DbfRow;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Full scan of a generated file through the different reader APIs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ReaderBenchmark {
+
+    /** STREAM - InputStream, FILE - RandomAccessFile, MAPPED - memory mapped file */
+    @Param({"STREAM", "FILE", "MAPPED"})
+    public String mode;
+
+    private DbfReader open(DbfFileState state) throws IOException {
+        switch (mode) {
+            case "STREAM": return new DbfReader(new FileInputStream(state.file));
+            case "FILE": return new DbfReader(state.file);
+            case "MAPPED": return new DbfReader(state.file, true);
+            default: throw new IllegalArgumentException(mode);
+        }
+    }
+
+    @Benchmark
+    public void nextRecord(DbfFileState state, Blackhole blackhole) throws IOException {
+        try (DbfReader reader = open(state)) {
+            Object[] record;
+            while ((record = reader.nextRecord()) != null) {
+                blackhole.consume(record);
+            }
+        }
+    }
+
+    @Benchmark
+    public void nextRowGetters(DbfFileState state, Blackhole blackhole) throws IOException {
+        try (DbfReader reader = open(state)) {
+            DbfHeader header = reader.getHeader();
+            DbfRow row;
+            while ((row = reader.nextRow()) != null) {
+                for (int i = 0; i < header.getFieldsCount(); i++) {
+                    DbfField field = header.getField(i);
+                    switch (field.getDataType()) {
+                        case CHAR: blackhole.consume(row.getString(field.getName())); break;
+                        case DATE: blackhole.consume(row.getDate(field.getName())); break;
+                        case LOGICAL: blackhole.consume(row.getBoolean(field.getName())); break;
+                        default: blackhole.consume(row.getDouble(field.getName())); break;
+                    }
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    public void cursor(DbfFileState state, Blackhole blackhole) throws IOException {
+        try (DbfReader reader = open(state)) {
+            DbfHeader header = reader.getHeader();
+            DbfCursor cursor = reader.cursor();
+            byte[] buf = new byte[256];
+            while (cursor.next()) {
+                for (int i = 0; i < header.getFieldsCount(); i++) {
+                    switch (header.getField(i).getDataType()) {
+                        case CHAR: blackhole.consume(cursor.getBytes(i, buf)); break;
+                        case DATE: blackhole.consume(cursor.getEpochDay(i)); break;
+                        case LOGICAL: blackhole.consume(cursor.getBoolean(i)); break;
+                        default: blackhole.consume(cursor.getDouble(i)); break;
+                    }
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,61 @@
+package org.jamel.dbf.benchmark;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.utils.DbfUtils;
+import org.jamel.dbf.utils.StringDecoder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Decoding of a padded CHAR value: trimmed copy with new String compared to {@link StringDecoder}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class StringDecodeBenchmark {
+
+    @Param({"Smith John", "Иванов Иван"})
+    public String value;
+
+    private final Charset charset = Charset.forName("windows-1251");
+    private byte[] field;
+    private StringDecoder decoder;
+
+    @Setup
+    public void setUp() {
+        byte[] bytes = value.getBytes(charset);
+        field = Arrays.copyOf(bytes, 40);
+        Arrays.fill(field, bytes.length, field.length, (byte) ' ');
+        decoder = new StringDecoder(charset);
+    }
+
+    @Benchmark
+    public String newString() {
+        return new String(DbfUtils.trimLeftSpaces(field), charset);
+    }
+
+    @Benchmark
+    public String decoder() {
+        return decoder.decodeTrimmed(field, 0, field.length);
+    }
+
+    @Benchmark
+    public String staticDecode() {
+        return StringDecoder.decode(field, 0, DbfUtils.trimmedLength(field, 0, field.length), charset);
+    }
+}
@@ -0,0 +1,70 @@
+package org.jamel.dbf.benchmark;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.DbfTable;
+import org.jamel.dbf.processor.DbfProcessor;
+import org.jamel.dbf.processor.DbfRowMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Loading of {@link DbfTable} and scans of loaded data compared to rows loaded by {@link DbfProcessor}.
+ * Column F1 is NUMERIC with the default type mix.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class TableBenchmark {
+
+    private static final DbfRowMapper<Object[]> IDENTITY = new DbfRowMapper<Object[]>() {
+        @Override
+        public Object[] mapRow(Object[] row) {
+            return row;
+        }
+    };
+
+    private DbfTable table;
+    private List<Object[]> rows;
+
+    @Setup(Level.Trial)
+    public void load(DbfFileState state) {
+        table = DbfTable.load(state.file);
+        rows = DbfProcessor.loadData(state.file, IDENTITY);
+    }
+
+    @Benchmark
+    public DbfTable loadTable(DbfFileState state) {
+        return DbfTable.load(state.file);
+    }
+
+    @Benchmark
+    public double sumTable() {
+        return table.sum(1);
+    }
+
+    @Benchmark
+    public double sumRows() {
+        double sum = 0;
+        for (Object[] row : rows) {
+            Number value = (Number) row[1];
+            if (value != null) {
+                sum += value.doubleValue();
+            }
+        }
+        return sum;
+    }
+}
@@ -0,0 +1,70 @@
+package org.jamel.dbf.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.DbfWriter;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Writing of records with CHAR, NUMERIC, FLOAT, DATE and LOGICAL values.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class WriterBenchmark {
+
+    @Param({"1000000"})
+    public int rows;
+
+    private File file;
+    private final LocalDate date = LocalDate.of(2014, 1, 1);
+
+    @Setup(Level.Trial)
+    public void createFile() throws IOException {
+        file = File.createTempFile("dbf-benchmark", ".dbf");
+    }
+
+    @TearDown(Level.Trial)
+    public void delete() {
+        if (!file.delete()) {
+            file.deleteOnExit();
+        }
+    }
+
+    @Benchmark
+    public int writeRecord() {
+        try (DbfWriter writer = new DbfWriter(file, Arrays.asList(
+                DbfField.create("NAME", DbfDataType.CHAR, 20),
+                DbfField.create("COUNT", DbfDataType.NUMERIC, 10),
+                DbfField.create("PRICE", DbfDataType.NUMERIC, 12, 2),
+                DbfField.create("RATE", DbfDataType.FLOAT, 10, 3),
+                DbfField.create("CREATED", DbfDataType.DATE, 8),
+                DbfField.create("ACTIVE", DbfDataType.LOGICAL, 1)))) {
+            for (int i = 0; i < rows; i++) {
+                writer.writeRecord("name", i, i / 100.0, i / 1000.0, date, i % 2 == 0);
+            }
+            return writer.getRecordCount();
+        }
+    }
+}
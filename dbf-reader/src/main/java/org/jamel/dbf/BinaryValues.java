@@ -0,0 +1,106 @@
+package org.jamel.dbf;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.utils.DbfUtils;
+
+/**
+ * Decodes values of binary fields straight from the record buffer. Values of Visual FoxPro
+ * are little-endian, values of dBASE 7 are big-endian with the sign bit flipped, and dBASE 7
+ * doubles of negative numbers have all bits inverted, so that the bytes sort like the numbers.
+ */
+/* package */ final class BinaryValues {
+
+    /** Returned by {@link #readEpochMillis} for blank date times */
+    static final long BLANK = Long.MIN_VALUE;
+    /** Implied decimal places of CURRENCY values */
+    static final int CURRENCY_SCALE = 4;
+
+    private static final long MILLIS_PER_DAY = 86400000L;
+    /** Julian day of 1970-01-01 */
+    private static final int EPOCH_JULIAN_DAY = 2440588;
+    private static final int BLANK_JULIAN_DAY = 0x20202020;
+
+    private BinaryValues() {
+    }
+
+    static boolean isBinaryNumber(DbfDataType type) {
+        switch (type) {
+            case INTEGER:
+            case AUTOINCREMENT:
+            case CURRENCY:
+            case DOUBLE:
+            case DBASE_DOUBLE:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * @return value of INTEGER or AUTOINCREMENT field.
+     */
+    static int readInt(DbfField field, byte[] buf, int offset) {
+        return field.isBigEndian()
+                ? DbfUtils.readBigEndianInt(buf, offset) ^ Integer.MIN_VALUE
+                : DbfUtils.readLittleEndianInt(buf, offset);
+    }
+
+    /**
+     * @return value of INTEGER, AUTOINCREMENT or CURRENCY field, CURRENCY value is multiplied
+     * by 10<sup>4</sup>.
+     */
+    static long readLong(DbfField field, byte[] buf, int offset) {
+        return field.getDataType() == DbfDataType.CURRENCY
+                ? DbfUtils.readLittleEndianLong(buf, offset)
+                : readInt(field, buf, offset);
+    }
+
+    /**
+     * @return value of binary numeric field.
+     */
+    static double readDouble(DbfField field, byte[] buf, int offset) {
+        switch (field.getDataType()) {
+            case DOUBLE:
+            case DBASE_DOUBLE:
+                return field.isBigEndian()
+                        ? readSortableDouble(buf, offset)
+                        : Double.longBitsToDouble(DbfUtils.readLittleEndianLong(buf, offset));
+            case CURRENCY:
+                return readLong(field, buf, offset) / 10000.0;
+            default:
+                return readInt(field, buf, offset);
+        }
+    }
+
+    private static double readSortableDouble(byte[] buf, int offset) {
+        long bits = DbfUtils.readBigEndianLong(buf, offset);
+        return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+    }
+
+    /**
+     * @return value of DATE_TIME or TIMESTAMP field as milliseconds since 1970-01-01T00:00
+     * of the local time scale, {@link #BLANK} if the value is blank.
+     */
+    static long readEpochMillis(DbfField field, byte[] buf, int offset) {
+        if (field.getDataType() == DbfDataType.TIMESTAMP) {
+            if (DbfUtils.readBigEndianLong(buf, offset) == 0) {
+                return BLANK;
+            }
+            return (long) readSortableDouble(buf, offset) - EPOCH_JULIAN_DAY * MILLIS_PER_DAY;
+        }
+        int julianDay = DbfUtils.readLittleEndianInt(buf, offset);
+        if (julianDay == 0 || julianDay == BLANK_JULIAN_DAY) {
+            return BLANK;
+        }
+        return (julianDay - EPOCH_JULIAN_DAY) * MILLIS_PER_DAY + DbfUtils.readLittleEndianInt(buf, offset + 4);
+    }
+
+    static LocalDateTime toLocalDateTime(long epochMillis) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(epochMillis, 1000),
+                (int) Math.floorMod(epochMillis, 1000) * 1000000, ZoneOffset.UTC);
+    }
+}
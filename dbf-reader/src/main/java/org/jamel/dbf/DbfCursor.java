@@ -0,0 +1,353 @@
+package org.jamel.dbf;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.memo.DbfMemoFile;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.utils.DbfUtils;
+
+/**
+ * Cursor over the records of a Dbf file with ResultSet-like typed accessors.
+ * Values are parsed on access directly from the bytes of the current record,
+ * so moving over records and reading primitive values does not allocate objects.
+ * The cursor shares the position with the {@link DbfReader} it was created by.
+ * This class is not thread safe.
+ *
+ * <pre>
+ * DbfCursor cursor = reader.cursor();
+ * while (cursor.next()) {
+ *     total += cursor.getDouble(3);
+ * }
+ * </pre>
+ */
+public class DbfCursor {
+
+    private final DbfReader reader;
+    private final DbfHeader header;
+    private final byte[] record;
+    private boolean onRecord;
+
+    /* package */ DbfCursor(DbfReader reader) {
+        this.reader = reader;
+        this.header = reader.getHeader();
+        this.record = reader.getRecordBuffer();
+    }
+
+    /**
+     * Moves the cursor to the next not deleted record.
+     *
+     * @return {@code true} if the cursor is positioned on a record,
+     * {@code false} if there are no more records.
+     */
+    public boolean next() {
+        try {
+            onRecord = reader.readRecord();
+            return onRecord;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read next record form Dbf file", e);
+        }
+    }
+
+    /**
+     * @return Dbf header info.
+     */
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return zero-based index of the current record in the file, which can be
+     * passed to {@link DbfReader#seekToRecord(long)}.
+     */
+    public int getRecordIndex() {
+        if (!onRecord) {
+            throw new DbfException("Cursor is not positioned on a record");
+        }
+        return reader.getRecordIndex();
+    }
+
+    /**
+     * Checks if the value of the field in the current record is NULL. Numeric values
+     * are NULL if they are blank or contain '?', dates are NULL if they are blank or invalid,
+     * date times are NULL if they are blank. Values of nullable fields (Visual FoxPro) are
+     * NULL if they are marked in _NullFlags. Other values are never NULL.
+     *
+     * @param col the zero-based index of the field
+     * @return {@code true} if the value is NULL
+     */
+    public boolean isNull(int col) {
+        DbfField field = field(col);
+        if (header.isNull(field, record)) {
+            return true;
+        }
+        int from = field.getOffset();
+        int to = from + field.getFieldLength();
+        switch (field.getDataType()) {
+            case NUMERIC:
+            case FLOAT:
+                return DbfUtils.isNullNumber(record, from, to);
+            case DATE:
+                return DbfUtils.parseEpochDay(record, from) == DbfUtils.INVALID_DATE;
+            case DATE_TIME:
+            case TIMESTAMP:
+                return BinaryValues.readEpochMillis(field, record, from) == BinaryValues.BLANK;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Retrieves the value of the numeric field as double.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or 0 (if the dbf value is NULL)
+     * @throws DbfException if the field is not numeric or cannot be parsed
+     */
+    public double getDouble(int col) {
+        DbfField field = numericField(col);
+        if (isNull(col)) {
+            return 0;
+        }
+        int from = field.getOffset();
+        if (BinaryValues.isBinaryNumber(field.getDataType())) {
+            return BinaryValues.readDouble(field, record, from);
+        }
+        try {
+            return DbfUtils.parseDouble(record, from, from + field.getFieldLength());
+        } catch (NumberFormatException e) {
+            throw new DbfException("Failed to parse Number from " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Retrieves the value of the numeric field as long. Fraction part is truncated,
+     * integer part is parsed exactly even if it doesn't fit into double.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or 0 (if the dbf value is NULL)
+     * @throws DbfException if the field is not numeric or cannot be parsed
+     */
+    public long getLong(int col) {
+        return getScaledLong(col, 0);
+    }
+
+    /**
+     * Retrieves the value of the numeric field as int.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or 0 (if the dbf value is NULL)
+     * @throws DbfException if the field is not numeric or cannot be parsed
+     */
+    public int getInt(int col) {
+        return (int) getLong(col);
+    }
+
+    /**
+     * Retrieves the value of the numeric field as fixed point number with the field's
+     * decimal count, e.g. 12.50 of N(8,2) field is returned as 1250.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value multiplied by 10<sup>decimalCount</sup>, or 0 (if the dbf value is NULL)
+     * @throws DbfException if the field is not numeric or cannot be parsed
+     */
+    public long getScaledLong(int col) {
+        return getScaledLong(col, header.getField(col).getDecimalCount());
+    }
+
+    private long getScaledLong(int col, int scale) {
+        DbfField field = numericField(col);
+        if (isNull(col)) {
+            return 0;
+        }
+        int from = field.getOffset();
+        if (BinaryValues.isBinaryNumber(field.getDataType())) {
+            return getBinaryScaledLong(field, scale);
+        }
+        try {
+            return DbfUtils.parseScaledLong(record, from, from + field.getFieldLength(), scale);
+        } catch (NumberFormatException e) {
+            throw new DbfException("Failed to parse Number from " + field.getName(), e);
+        }
+    }
+
+    private long getBinaryScaledLong(DbfField field, int scale) {
+        switch (field.getDataType()) {
+            case DOUBLE:
+            case DBASE_DOUBLE:
+                double value = BinaryValues.readDouble(field, record, field.getOffset());
+                return BigDecimal.valueOf(value).movePointRight(scale).longValue();
+            default:
+                long unscaled = BinaryValues.readLong(field, record, field.getOffset());
+                int valueScale = field.getDataType() == DbfDataType.CURRENCY ? BinaryValues.CURRENCY_SCALE : 0;
+                return scale == valueScale
+                        ? unscaled
+                        : BigDecimal.valueOf(unscaled, valueScale).movePointRight(scale).longValue();
+        }
+    }
+
+    /**
+     * Retrieves the value of the logical field.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or false (if the dbf value is NULL)
+     */
+    public boolean getBoolean(int col) {
+        DbfField field = field(col);
+        byte value = record[field.getOffset()];
+        return !header.isNull(field, record) && (value == 'Y' || value == 'y' || value == 'T' || value == 't');
+    }
+
+    /**
+     * Retrieves the value of the date field as the number of days since 1970-01-01.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or 0 (if the dbf value is NULL)
+     */
+    public int getEpochDay(int col) {
+        if (isNull(col)) {
+            return 0;
+        }
+        return DbfUtils.parseEpochDay(record, field(col).getOffset());
+    }
+
+    /**
+     * Retrieves the value of the date field as LocalDate.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or null (if the dbf value is NULL)
+     */
+    public LocalDate getLocalDate(int col) {
+        if (isNull(col)) {
+            return null;
+        }
+        return reader.getDateDecoder().toLocalDate(DbfUtils.parseEpochDay(record, field(col).getOffset()));
+    }
+
+    /**
+     * Retrieves the value of DATE_TIME or TIMESTAMP field as LocalDateTime.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or null (if the dbf value is NULL)
+     * @throws DbfException if the field is not date time
+     */
+    public LocalDateTime getLocalDateTime(int col) {
+        DbfField field = field(col);
+        if (field.getDataType() != DbfDataType.DATE_TIME && field.getDataType() != DbfDataType.TIMESTAMP) {
+            throw new DbfException(String.format("Field \"%s\" is not date time", field.getName()));
+        }
+        return isNull(col) ? null : BinaryValues.toLocalDateTime(
+                BinaryValues.readEpochMillis(field, record, field.getOffset()));
+    }
+
+    /**
+     * Retrieves the value of the MEMO field from the memo file of the reader.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or null (if the field is empty)
+     * @throws DbfException if the memo file is not available
+     */
+    public byte[] getMemo(int col) {
+        return memoFile().read(memoBlock(col));
+    }
+
+    /**
+     * Retrieves the value of the MEMO field as String decoded with the charset of the reader.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value, or null (if the field is empty)
+     * @throws DbfException if the memo file is not available
+     */
+    public String getMemoString(int col) {
+        return memoFile().readString(memoBlock(col), reader.getCharset());
+    }
+
+    private DbfMemoFile memoFile() {
+        DbfMemoFile memoFile = reader.getMemoFile();
+        if (memoFile == null) {
+            throw new DbfException("Memo file is not available");
+        }
+        return memoFile;
+    }
+
+    private int memoBlock(int col) {
+        DbfField field = field(col);
+        if (field.getDataType() != DbfDataType.MEMO) {
+            throw new DbfException(String.format("Field \"%s\" is not memo", field.getName()));
+        }
+        try {
+            return reader.readMemoBlock(field, record, field.getOffset());
+        } catch (IOException e) {
+            throw new DbfException("Cannot read memo link of " + field.getName(), e);
+        }
+    }
+
+    /**
+     * Retrieves the value of the field as String decoded with the charset of the reader.
+     * The decoder is reused and pure ASCII values are not decoded at all. Values of fields
+     * in dictionary mode (see {@link DbfReader#setDictionary(String...)}) are decoded once.
+     *
+     * @param col the zero-based index of the field
+     * @return the field value without trailing spaces, VARCHAR value as is, or null (if the dbf value is NULL)
+     */
+    public String getString(int col) {
+        DbfField field = field(col);
+        if (header.isNull(field, record)) {
+            return null;
+        }
+        if (field.getDataType() == DbfDataType.VARCHAR) {
+            return reader.getDecoder().decode(record, field.getOffset(), header.getValueLength(field, record));
+        }
+        int code = reader.dictionaryCode(field, record, field.getOffset());
+        return code < 0
+                ? reader.getDecoder().decodeTrimmed(record, field.getOffset(), field.getFieldLength())
+                : reader.getDictionary(col).string(code, reader.getCharset());
+    }
+
+    /**
+     * Copies raw bytes of the field value into the given array.
+     *
+     * @param col the zero-based index of the field
+     * @param dst array to copy to, it must be at least as long as the field
+     * @return length of the value without trailing spaces, length of VARCHAR and VARBINARY value as is
+     */
+    public int getBytes(int col, byte[] dst) {
+        DbfField field = field(col);
+        int from = field.getOffset();
+        if (field.getDataType() == DbfDataType.VARCHAR || field.getDataType() == DbfDataType.VARBINARY) {
+            int length = header.getValueLength(field, record);
+            System.arraycopy(record, from, dst, 0, length);
+            return length;
+        }
+        System.arraycopy(record, from, dst, 0, field.getFieldLength());
+        return DbfUtils.trimmedLength(record, from, from + field.getFieldLength());
+    }
+
+    private DbfField field(int col) {
+        if (!onRecord) {
+            throw new DbfException("Cursor is not positioned on a record");
+        }
+        return header.getField(col);
+    }
+
+    private DbfField numericField(int col) {
+        DbfField field = field(col);
+        switch (field.getDataType()) {
+            case NUMERIC:
+            case FLOAT:
+            case INTEGER:
+            case AUTOINCREMENT:
+            case CURRENCY:
+            case DOUBLE:
+            case DBASE_DOUBLE:
+                return field;
+            default:
+                throw new DbfException(String.format("Field \"%s\" is not numeric", field.getName()));
+        }
+    }
+}
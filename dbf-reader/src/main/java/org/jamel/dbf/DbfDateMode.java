@@ -0,0 +1,14 @@
+package org.jamel.dbf;
+
+/**
+ * Type of the values of DATE fields returned by {@link DbfReader#nextRecord()}.
+ * Values of DATE_TIME and TIMESTAMP fields are returned as the matching date-time type.
+ */
+public enum DbfDateMode {
+    /** {@link java.util.Date} of the start of the day in the default time zone */
+    DATE,
+    /** {@link java.time.LocalDate}, {@link java.time.LocalDateTime} for date times */
+    LOCAL_DATE,
+    /** {@link Integer} number of days since 1970-01-01, {@link Long} milliseconds since 1970-01-01T00:00 for date times */
+    EPOCH_DAY
+}
@@ -0,0 +1,247 @@
+package org.jamel.dbf;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.metrics.DbfReaderListener;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.structure.DbfRow;
+
+/**
+ * Reader of records by index which is shared by many threads. Records are read by positional
+ * reads of one file channel, which don't move a common file position, into buffers of the
+ * calling thread, so lookups need neither locks nor a file handle per thread.
+ * This class is thread safe.
+ *
+ * <pre>
+ * DbfRandomAccessReader reader = new DbfRandomAccessReader(new File("orders.dbf"));
+ * // from any thread
+ * Object[] record = reader.readRecord(n);
+ * </pre>
+ *
+ * Interrupting a thread while it reads closes the channel for all threads,
+ * as {@link FileChannel} does, so reading threads should not be interrupted.
+ */
+public class DbfRandomAccessReader implements Closeable {
+
+    private final FileChannel channel;
+    private final DbfHeader header;
+    private final Charset charset;
+    private final ThreadLocal<Decoder> decoders;
+    private volatile DbfDateMode dateMode = DbfDateMode.DATE;
+    private volatile DbfReaderListener listener;
+
+    public DbfRandomAccessReader(File file) throws DbfException {
+        this(file, null);
+    }
+
+    /**
+     * @param file Dbf file
+     * @param charset charset of the strings, {@code null} to detect it by the header
+     */
+    public DbfRandomAccessReader(File file, Charset charset) throws DbfException {
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new DbfException("Cannot open Dbf file " + file, e);
+        }
+        try {
+            // the stream reads from the position of the channel which is not used by positional reads
+            header = DbfHeader.read(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+        } catch (DbfException e) {
+            close();
+            throw e;
+        }
+        this.charset = charset == null ? DbfReader.codePageOf(header) : charset;
+        this.decoders = new ThreadLocal<Decoder>() {
+            @Override
+            protected Decoder initialValue() {
+                return new Decoder(new DbfReader(header, DbfRandomAccessReader.this.charset));
+            }
+        };
+    }
+
+    /**
+     * Sets type of the values of DATE fields, {@link DbfDateMode#DATE} by default.
+     */
+    public void setDateMode(DbfDateMode dateMode) {
+        this.dateMode = dateMode;
+    }
+
+    public DbfDateMode getDateMode() {
+        return dateMode;
+    }
+
+    /**
+     * Sets listener of the work done by this reader, it is called from all reading threads.
+     */
+    public void setListener(DbfReaderListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * Reads and decodes the record with the given index.
+     *
+     * @param n the zero-based record index
+     * @return values of the record indexed as in the header, {@code null} if the record is deleted.
+     * @throws DbfException if the index is out of range or the record cannot be read
+     */
+    public Object[] readRecord(long n) throws DbfException {
+        return readRecord(n, dateMode);
+    }
+
+    /**
+     * Reads and decodes the record with the given date mode instead of the mode of this reader.
+     *
+     * @see #readRecord(long)
+     */
+    /* package */ Object[] readRecord(long n, DbfDateMode dateMode) throws DbfException {
+        Decoder decoder = read(n, dateMode);
+        if (decoder == null) {
+            return null;
+        }
+        try {
+            return decoder.reader.decodeRecord();
+        } catch (IOException e) {
+            throw new DbfException("Cannot decode record " + n, e);
+        }
+    }
+
+    /**
+     * @see #readRecord(long)
+     */
+    public DbfRow readRow(long n) throws DbfException {
+        Object[] record = readRecord(n);
+        return record == null ? null : new DbfRow(header, charset, record);
+    }
+
+    /**
+     * @return copy of the raw bytes of the record, {@code null} if the record is deleted.
+     */
+    /* package */ byte[] readRawRecord(long n) throws DbfException {
+        Decoder decoder = read(n, dateMode);
+        return decoder == null ? null : decoder.buffer.array().clone();
+    }
+
+    /**
+     * Decodes raw bytes of a record returned by {@link #readRawRecord(long)}.
+     */
+    /* package */ Object[] decodeRawRecord(byte[] raw) throws DbfException {
+        Decoder decoder = decoders.get();
+        decoder.configure(dateMode, listener);
+        System.arraycopy(raw, 0, decoder.buffer.array(), 0, raw.length);
+        try {
+            return decoder.reader.decodeRecord();
+        } catch (IOException e) {
+            throw new DbfException("Cannot decode record", e);
+        }
+    }
+
+    /**
+     * Reads the record into the buffer of the decoder of the calling thread.
+     *
+     * @return the decoder or {@code null} if the record is deleted.
+     */
+    private Decoder read(long n, DbfDateMode dateMode) {
+        if (n < 0 || n >= header.getNumberOfRecords()) {
+            throw new DbfException(String.format("Record index out of range [0, %d): %d",
+                    header.getNumberOfRecords(), n));
+        }
+        Decoder decoder = decoders.get();
+        decoder.configure(dateMode, listener);
+        ByteBuffer buffer = decoder.buffer;
+        buffer.clear();
+        long position = header.getRecordPosition(n);
+        try {
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, position + buffer.position()) < 0) {
+                    throw new DbfException(String.format("Record %d is beyond the end of the file", n));
+                }
+            }
+        } catch (IOException e) {
+            throw new DbfException(String.format("Failed to read record %d of %d", n, header.getNumberOfRecords()), e);
+        }
+        DbfReaderListener listener = decoder.listener;
+        boolean deleted = buffer.get(0) == decoder.reader.DATA_DELETED;
+        if (listener != null) {
+            listener.onBytesRead(buffer.capacity());
+            if (deleted) {
+                listener.onDeletedRecordSkipped();
+            } else {
+                listener.onRecordRead();
+            }
+        }
+        return deleted ? null : decoder;
+    }
+
+    /**
+     * @return charset of the strings, given to the constructor or detected by the header.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return the number of records in the Dbf.
+     */
+    public int getRecordCount() {
+        return header.getNumberOfRecords();
+    }
+
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * Closes the file, records cannot be read after that.
+     */
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+        // only the decoder of this thread can be removed, decoders of other threads stay in their
+        // thread-local maps until the threads end or the stale entries are expunged after this
+        // reader is garbage collected
+        if (decoders != null) {
+            decoders.remove();
+        }
+    }
+
+    /**
+     * Reader which decodes records of one thread and the buffer of its record.
+     */
+    private static final class Decoder {
+        final DbfReader reader;
+        final ByteBuffer buffer;
+        DbfDateMode dateMode = DbfDateMode.DATE;
+        DbfReaderListener listener;
+
+        Decoder(DbfReader reader) {
+            this.reader = reader;
+            this.buffer = ByteBuffer.wrap(reader.getRecordBuffer());
+        }
+
+        void configure(DbfDateMode dateMode, DbfReaderListener listener) {
+            if (this.dateMode != dateMode) {
+                reader.setDateMode(dateMode);
+                this.dateMode = dateMode;
+            }
+            if (this.listener != listener) {
+                reader.setListener(listener);
+                this.listener = listener;
+            }
+        }
+    }
+}
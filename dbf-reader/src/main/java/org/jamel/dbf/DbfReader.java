@@ -1,21 +1,34 @@
 package org.jamel.dbf;
 
 import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.filter.DbfFilter;
+import org.jamel.dbf.filter.DbfRecordMatcher;
+import org.jamel.dbf.io.MappedDataInput;
+import org.jamel.dbf.io.ReadAheadInputStream;
+import org.jamel.dbf.memo.DbfMemoFile;
+import org.jamel.dbf.metrics.DbfReaderListener;
+import org.jamel.dbf.structure.DbfDataType;
 import org.jamel.dbf.structure.DbfField;
 import org.jamel.dbf.structure.DbfHeader;
 import org.jamel.dbf.structure.DbfRow;
+import org.jamel.dbf.utils.DateDecoder;
 import org.jamel.dbf.utils.DbfUtils;
+import org.jamel.dbf.utils.StringDecoder;
+import org.jamel.dbf.utils.ValueDictionary;
 
 import java.io.*;
+import java.math.BigDecimal;
+import java.nio.channels.ReadableByteChannel;
 import java.nio.charset.Charset;
+import java.time.ZoneId;
+import java.util.Arrays;
 import java.util.Date;
-import java.util.GregorianCalendar;
 
 import static java.nio.charset.Charset.defaultCharset;
 
 /**
  * Dbf reader.
- * This class is not thread safe.
+ * This class is not thread safe, see {@link DbfRandomAccessReader} for lookups from many threads.
  *
  * @author Sergey Polovko
  * @see <a href="http://www.fship.com/dbfspecs.txt">DBF specification</a>
@@ -24,55 +37,327 @@ public class DbfReader implements Closeable {
     protected final byte DATA_ENDED = 0x1A;
     protected final byte DATA_DELETED = 0x2A;
 
-    private Charset charset = defaultCharset();
+    private Charset charset;
 
     private DataInput dataInput;
     private final DbfHeader header;
+    private final byte[] record;
+    private DbfField[] decodedFields;
+    private DbfRecordMatcher matcher;
+    private int recordIndex;
+    private int recordLimit = Integer.MAX_VALUE;
+    private DbfMemoFile memoFile;
+    private StringDecoder decoder;
+    /** Dictionaries of CHAR fields by field index, {@code null} if there are none */
+    private ValueDictionary[] dictionaries;
+    private DbfDateMode dateMode = DbfDateMode.DATE;
+    private DateDecoder dateDecoder = new DateDecoder(true);
+    private DbfReaderListener listener;
 
+    /**
+     * Creates reader of the file, strings are decoded with the code page marked
+     * in the header or with the default charset if the code page is not marked.
+     */
     public DbfReader(File file) throws DbfException {
+        this(file, false);
+    }
+
+    public DbfReader(File file, Charset charset) throws DbfException {
+        this(file);
+        this.charset = charset;
+    }
+
+    /**
+     * @param file Dbf file
+     * @param memoryMapped if {@code true} the file will be read through memory mapped buffers,
+     *                     which is much faster than reading through {@link RandomAccessFile}
+     */
+    public DbfReader(File file, boolean memoryMapped) throws DbfException {
         try {
-            dataInput = new RandomAccessFile(file, "r");
+            dataInput = memoryMapped
+                    ? new MappedDataInput(file)
+                    : new RandomAccessFile(file, "r");
             header = DbfHeader.read(dataInput);
+            record = new byte[header.getRecordLength()];
+            decodedFields = allFields();
+            charset = codePageOf(header);
             skipToDataBeginning();
+            if (hasMemoFields()) {
+                File memo = DbfMemoFile.companionOf(file);
+                memoFile = memo == null ? null : new DbfMemoFile(memo);
+            }
         } catch (IOException e) {
+            close();
             throw new DbfException("Cannot open Dbf file " + file, e);
         }
     }
 
-    public DbfReader(File file, Charset charset) throws DbfException {
-        this(file);
+    public DbfReader(File file, Charset charset, boolean memoryMapped) throws DbfException {
+        this(file, memoryMapped);
         this.charset = charset;
     }
 
     public DbfReader(InputStream in) throws DbfException {
+        this(new BufferedInputStream(in), false);
+    }
+
+    public DbfReader(InputStream in, Charset charset) throws DbfException {
+        this(in);
+        this.charset = charset;
+    }
+
+    /**
+     * Creates pipelined reader of the channel with default size and number of buffers.
+     *
+     * @see #DbfReader(ReadableByteChannel, Charset, int, int)
+     */
+    public DbfReader(ReadableByteChannel channel) throws DbfException {
+        this(channel, ReadAheadInputStream.DEFAULT_BUFFER_SIZE, ReadAheadInputStream.DEFAULT_DEPTH);
+    }
+
+    /**
+     * @see #DbfReader(ReadableByteChannel, Charset, int, int)
+     */
+    public DbfReader(ReadableByteChannel channel, int bufferSize, int depth) throws DbfException {
+        this(new ReadAheadInputStream(channel, bufferSize, depth), true);
+    }
+
+    /**
+     * Creates pipelined reader of the channel: a background thread reads the channel ahead
+     * into a ring of buffers while records of the previous buffer are decoded, so reading
+     * of network mounted or compressed data overlaps with decoding. The thread is stopped
+     * and the channel is closed together with this reader.
+     *
+     * @param channel channel of Dbf data
+     * @param charset charset of the strings
+     * @param bufferSize size of each buffer
+     * @param depth number of buffers, at least 2
+     */
+    public DbfReader(ReadableByteChannel channel, Charset charset, int bufferSize, int depth) throws DbfException {
+        this(channel, bufferSize, depth);
+        this.charset = charset;
+    }
+
+    private DbfReader(InputStream in, boolean closeOnFailure) throws DbfException {
+        boolean opened = false;
         try {
-            dataInput = new DataInputStream(new BufferedInputStream(in));
+            dataInput = new DataInputStream(in);
             header = DbfHeader.read(dataInput);
+            record = new byte[header.getRecordLength()];
+            decodedFields = allFields();
+            charset = codePageOf(header);
             skipToDataBeginning();
+            opened = true;
         } catch (IOException e) {
             throw new DbfException("Cannot read Dbf", e);
+        } finally {
+            if (!opened && closeOnFailure) {
+                close();
+            }
         }
     }
 
-    public DbfReader(InputStream in, Charset charset) throws DbfException {
-        this(in);
-        this.charset = charset;
+    /**
+     * Creates reader without input which decodes records put into its record buffer,
+     * see {@link DbfRandomAccessReader}.
+     */
+    /* package */ DbfReader(DbfHeader header, Charset charset) {
+        this.header = header;
+        this.record = new byte[header.getRecordLength()];
+        this.decodedFields = allFields();
+        this.charset = charset == null ? codePageOf(header) : charset;
+    }
+
+    /* package */ static Charset codePageOf(DbfHeader header) {
+        Charset codePage = header.getCodePage();
+        return codePage == null ? defaultCharset() : codePage;
     }
 
     private void skipToDataBeginning() throws IOException {
         // it might be required to jump to the start of records at times
-        int dataStartIndex = header.getHeaderLength() - 32 * (header.getFieldsCount() + 1) - 1;
+        int dataStartIndex = header.getHeaderLength() - header.getDescriptorLength();
         if (dataStartIndex > 0) {
             dataInput.skipBytes(dataStartIndex);
         }
     }
 
+    private boolean hasMemoFields() {
+        for (int i = 0; i < header.getFieldsCount(); i++) {
+            if (header.getField(i).getDataType() == DbfDataType.MEMO) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private DbfField[] allFields() {
+        DbfField[] fields = new DbfField[header.getFieldsCount()];
+        for (int i = 0; i < fields.length; i++) {
+            fields[i] = header.getField(i);
+        }
+        return fields;
+    }
+
+    /**
+     * Restricts decoding of the records to the given fields. Values of other fields are
+     * skipped without parsing and are returned as {@code null} by {@link #nextRecord()},
+     * so indexes of the values in the returned array are still the same as in the header.
+     * Passing no fields resets the projection.
+     *
+     * @param fieldNames names of the fields to decode
+     * @throws DbfException if there's no field with one of the names
+     */
+    public void setProjection(String... fieldNames) throws DbfException {
+        int[] fieldIndexes = new int[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            fieldIndexes[i] = header.getFieldIndex(fieldNames[i]);
+            if (fieldIndexes[i] < 0) {
+                throw new DbfException(String.format("Field \"%s\" does not exist", fieldNames[i]));
+            }
+        }
+        setProjection(fieldIndexes);
+    }
+
+    /**
+     * Restricts decoding of the records to the given fields.
+     *
+     * @param fieldIndexes zero-based indexes of the fields to decode
+     * @throws DbfException if one of the indexes is out of range
+     * @see #setProjection(String...)
+     */
+    public void setProjection(int... fieldIndexes) throws DbfException {
+        if (fieldIndexes.length == 0) {
+            decodedFields = allFields();
+            return;
+        }
+        DbfField[] fields = new DbfField[fieldIndexes.length];
+        for (int i = 0; i < fieldIndexes.length; i++) {
+            if (fieldIndexes[i] < 0 || fieldIndexes[i] >= header.getFieldsCount()) {
+                throw new DbfException(String.format("Field index out of range [0, %d): %d",
+                        header.getFieldsCount(), fieldIndexes[i]));
+            }
+            fields[i] = header.getField(fieldIndexes[i]);
+        }
+        decodedFields = fields;
+    }
+
+    /**
+     * Sets type of the values of DATE fields returned by {@link #nextRecord()},
+     * conversions of recently seen dates are cached.
+     *
+     * @see #setDateMode(DbfDateMode, boolean)
+     */
+    public void setDateMode(DbfDateMode dateMode) {
+        setDateMode(dateMode, true);
+    }
+
+    /**
+     * Sets type of the values of DATE fields returned by {@link #nextRecord()}, it is
+     * {@link DbfDateMode#DATE} by default. Blank and invalid dates are returned as {@code null}.
+     *
+     * @param dateMode type of the values
+     * @param cached whether conversions of recently seen dates are cached, it pays off
+     *               if the same dates repeat in many records
+     */
+    public void setDateMode(DbfDateMode dateMode, boolean cached) {
+        this.dateMode = dateMode;
+        this.dateDecoder = new DateDecoder(cached);
+    }
+
+    /**
+     * Enables dictionary mode for CHAR fields with few distinct values.
+     *
+     * @see #setDictionary(int, String...)
+     */
+    public void setDictionary(String... fieldNames) throws DbfException {
+        setDictionary(ValueDictionary.DEFAULT_MAX_SIZE, fieldNames);
+    }
+
+    /**
+     * Enables dictionary mode for CHAR fields with few distinct values: equal values
+     * returned by {@link #nextRecord()} share one byte array (it must not be modified),
+     * equal strings returned by {@link DbfCursor#getString(int)} are decoded once and
+     * {@link DbfTable} keeps codes of the values instead of the values.
+     * Once a field has more distinct values than the given number, its values are read
+     * as usual. Passing no fields disables dictionary mode.
+     *
+     * @param maxSize maximal number of distinct values of each field, up to {@link ValueDictionary#MAX_SIZE}
+     * @param fieldNames names of CHAR fields
+     * @throws DbfException if there's no field with one of the names or it is not CHAR
+     */
+    public void setDictionary(int maxSize, String... fieldNames) throws DbfException {
+        ValueDictionary[] enabled = new ValueDictionary[header.getFieldsCount()];
+        for (String fieldName : fieldNames) {
+            int index = header.getFieldIndex(fieldName);
+            if (index < 0) {
+                throw new DbfException(String.format("Field \"%s\" does not exist", fieldName));
+            }
+            if (header.getField(index).getDataType() != DbfDataType.CHAR) {
+                throw new DbfException(String.format("Field \"%s\" is not character", fieldName));
+            }
+            enabled[index] = new ValueDictionary(maxSize);
+        }
+        dictionaries = fieldNames.length == 0 ? null : enabled;
+    }
+
+    /**
+     * Sets filter of the records. Records which don't match the filter are skipped
+     * before any of their fields is decoded. Skipping applies after seeking too:
+     * {@link #seekToRecord(long)} followed by {@link #nextRecord()} returns the next
+     * <em>matching</em> record, which may follow the one sought, see {@link #getRecordIndex()}.
+     *
+     * @param filter filter of the records or {@code null} to read all records
+     * @throws DbfException if the filter cannot be applied to the fields of this file
+     */
+    public void setFilter(DbfFilter filter) throws DbfException {
+        matcher = filter == null ? null : filter.bind(header, charset);
+    }
+
+    /**
+     * Sets listener of the work done by this reader, e.g. {@link org.jamel.dbf.metrics.DbfReaderMetrics}.
+     * Decode time of the values is measured only when a listener is set.
+     *
+     * @param listener listener or {@code null} to disable notifications
+     */
+    public void setListener(DbfReaderListener listener) {
+        this.listener = listener;
+    }
+
+    /**
+     * @return listener of this reader or {@code null} if there is none.
+     */
+    public DbfReaderListener getListener() {
+        return listener;
+    }
+
+    /**
+     * Sets memo file which keeps values of MEMO fields. Readers of files
+     * find memo file with the same name and extension .fpt or .dbt by themselves,
+     * so it needs to be set only for readers of streams or for memo files with other names.
+     * The memo file is closed together with this reader.
+     *
+     * @param memoFile memo file or {@code null}
+     */
+    public void setMemoFile(DbfMemoFile memoFile) {
+        if (this.memoFile != null && this.memoFile != memoFile) {
+            this.memoFile.close();
+        }
+        this.memoFile = memoFile;
+    }
+
+    /**
+     * @return memo file which keeps values of MEMO fields or {@code null} if there is no memo file.
+     */
+    public DbfMemoFile getMemoFile() {
+        return memoFile;
+    }
+
     /**
      * @return {@code true} if the reader can seek forward or backward to a specified record index,
      * {@code false} otherwise.
      */
     public boolean canSeek() {
-        return dataInput instanceof RandomAccessFile;
+        return dataInput instanceof RandomAccessFile || dataInput instanceof MappedDataInput;
     }
 
     /**
@@ -81,7 +366,7 @@ public class DbfReader implements Closeable {
      *
      * @param n The zero-based record index.
      */
-    public void seekToRecord(int n) {
+    public void seekToRecord(long n) {
         if (!canSeek()) {
             throw new DbfException("Seeking is not supported.");
         }
@@ -89,20 +374,35 @@ public class DbfReader implements Closeable {
             throw new DbfException(String.format("Record index out of range [0, %d]: %d",
                     header.getNumberOfRecords(), n));
         }
-        long position = header.getHeaderLength() + n * header.getRecordLength();
+        long position = header.getRecordPosition(n);
         try {
-            ((RandomAccessFile) dataInput).seek(position);
+            if (dataInput instanceof MappedDataInput) {
+                ((MappedDataInput) dataInput).seek(position);
+            } else {
+                ((RandomAccessFile) dataInput).seek(position);
+            }
+            recordIndex = (int) n;
         } catch (IOException e) {
             throw new DbfException(
                     String.format("Failed to seek to record %d of %d", n, header.getNumberOfRecords()), e);
         }
     }
 
+    /**
+     * Limits reading to the records before the given index, so together with
+     * {@link #seekToRecord(long)} it restricts the reader to a range of records.
+     *
+     * @param limit The zero-based index of the first record which is not read.
+     */
+    public void setRecordLimit(int limit) {
+        recordLimit = limit;
+    }
+
     public DbfRow nextRow() {
         Object[] record = nextRecord();
         return record == null
                 ? null
-                : new DbfRow(header, charset, record);
+                : new DbfRow(header, charset, record, memoFile);
     }
 
     /**
@@ -112,90 +412,320 @@ public class DbfReader implements Closeable {
      */
     public Object[] nextRecord() {
         try {
-            int nextByte;
-            do {
-                nextByte = dataInput.readByte();
-                if (nextByte == DATA_ENDED) {
-                    return null;
-                } else if (nextByte == DATA_DELETED) {
-                    dataInput.skipBytes(header.getRecordLength() - 1);
-                }
-            } while (nextByte == DATA_DELETED);
+            return readRecord() ? decodeRecord() : null;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read next record form Dbf file", e);
+        }
+    }
 
-            Object recordObjects[] = new Object[header.getFieldsCount()];
-            for (int i = 0; i < header.getFieldsCount(); i++) {
-                recordObjects[i] = readFieldValue(header.getField(i));
+    /**
+     * Reads up to {@code max} next records into the batch replacing its previous records.
+     * Arrays of the values are reused, so a batch filled again and again costs no allocations
+     * besides the values themselves.
+     *
+     * @param max maximal number of records to read
+     * @param batch batch to fill
+     * @return number of records read, 0 if there are no more records.
+     */
+    public int nextRecords(int max, DbfRecordBatch batch) {
+        batch.clear();
+        try {
+            int fieldsCount = header.getFieldsCount();
+            while (batch.size() < max && readRecord()) {
+                Object[] values = batch.add(fieldsCount);
+                if (decodedFields.length < fieldsCount) {
+                    Arrays.fill(values, null);
+                }
+                decodeRecord(values);
             }
-            return recordObjects;
-        } catch (EOFException e) {
-            return null; // we currently end reading file
+            return batch.size();
         } catch (IOException e) {
-            throw new DbfException("Cannot read next record form Dbf file", e);
+            throw new DbfException("Cannot read next records form Dbf file", e);
         }
     }
 
-    private Object readFieldValue(DbfField field) throws IOException {
-        byte buf[] = new byte[field.getFieldLength()];
-        dataInput.readFully(buf);
+    /**
+     * @return values of the record in the record buffer.
+     */
+    /* package */ Object[] decodeRecord() throws IOException {
+        Object[] values = new Object[header.getFieldsCount()];
+        decodeRecord(values);
+        return values;
+    }
+
+    /* package */ void decodeRecord(Object[] values) throws IOException {
+        if (listener == null) {
+            for (DbfField field : decodedFields) {
+                values[field.getFieldIndex()] = readFieldValue(field, record);
+            }
+        } else {
+            long start = System.nanoTime();
+            for (DbfField field : decodedFields) {
+                values[field.getFieldIndex()] = readFieldValue(field, record);
+                long end = System.nanoTime();
+                listener.onFieldDecoded(field, end - start);
+                start = end;
+            }
+        }
+    }
 
+    /**
+     * Creates cursor which reads records of this reader without decoding them into objects.
+     * The cursor shares the position with this reader.
+     *
+     * @return new cursor positioned before the next record.
+     */
+    public DbfCursor cursor() {
+        return new DbfCursor(this);
+    }
+
+    /**
+     * Reads the next not deleted record into the record buffer.
+     *
+     * @return {@code false} if there are no more records.
+     */
+    /* package */ boolean readRecord() throws IOException {
+        do {
+            if (recordIndex >= recordLimit) {
+                return false;
+            }
+            try {
+                dataInput.readFully(record);
+            } catch (EOFException e) {
+                return false; // we currently end reading file
+            }
+            if (record[0] == DATA_ENDED) {
+                return false;
+            }
+            recordIndex++;
+            if (listener != null) {
+                listener.onBytesRead(record.length);
+                if (record[0] == DATA_DELETED) {
+                    listener.onDeletedRecordSkipped();
+                }
+            }
+        } while (record[0] == DATA_DELETED || (matcher != null && !matcher.matches(record)));
+        if (listener != null) {
+            listener.onRecordRead();
+        }
+        return true;
+    }
+
+    private Object readFieldValue(DbfField field, byte[] buf) throws IOException {
+        if (header.isNull(field, buf)) {
+            return null;
+        }
+        int offset = field.getOffset();
         switch (field.getDataType()) {
-            case CHAR: return readCharacterValue(field, buf);
-            case DATE: return readDateValue(field, buf);
-            case FLOAT: return readFloatValue(field, buf);
-            case LOGICAL: return readLogicalValue(field, buf);
-            case NUMERIC: return readNumericValue(field, buf);
-            case MEMO: return readMemoLink(field, buf);
+            case CHAR: return readCharacterValue(field, buf, offset);
+            case DATE: return readDateValue(field, buf, offset);
+            case FLOAT: return readFloatValue(field, buf, offset);
+            case LOGICAL: return readLogicalValue(field, buf, offset);
+            case NUMERIC: return readNumericValue(field, buf, offset);
+            case MEMO: return readMemoLink(field, buf, offset);
+            case INTEGER:
+            case AUTOINCREMENT: return readIntegerValue(field, buf, offset);
+            case CURRENCY: return readCurrencyValue(field, buf, offset);
+            case DOUBLE:
+            case DBASE_DOUBLE: return readDoubleValue(field, buf, offset);
+            case DATE_TIME:
+            case TIMESTAMP: return readDateTimeValue(field, buf, offset);
+            case VARCHAR:
+            case VARBINARY: return readVariableValue(field, buf, offset);
+            case NULL_FLAGS: return Arrays.copyOfRange(buf, offset, offset + field.getFieldLength());
             default:  return null;
         }
     }
 
-    protected Object readCharacterValue(DbfField field, byte[] buf) throws IOException {
-        return buf;
+    /*
+     * Methods below decode the value of the field which starts at the given offset of
+     * the record buffer. The buffer is reused for the next records, so values which
+     * refer to it must be copied out.
+     */
+
+    protected Object readCharacterValue(DbfField field, byte[] buf, int offset) throws IOException {
+        int code = dictionaryCode(field, buf, offset);
+        return code < 0
+                ? Arrays.copyOfRange(buf, offset, offset + field.getFieldLength())
+                : dictionaries[field.getFieldIndex()].bytes(code);
     }
 
-    protected Date readDateValue(DbfField field, byte[] buf) throws IOException {
-        int year = DbfUtils.parseInt(buf, 0, 4);
-        int month = DbfUtils.parseInt(buf, 4, 6);
-        int day = DbfUtils.parseInt(buf, 6, 8);
-        return new GregorianCalendar(year, month - 1, day).getTime();
+    /**
+     * @return {@link java.util.Date}, {@link java.time.LocalDate} or {@link Integer} epoch day
+     * depending on the date mode, {@code null} if the date is blank or invalid
+     */
+    protected Object readDateValue(DbfField field, byte[] buf, int offset) throws IOException {
+        int epochDay = DbfUtils.parseEpochDay(buf, offset);
+        if (epochDay == DbfUtils.INVALID_DATE) {
+            if (listener != null && DbfUtils.trimmedLength(buf, offset, offset + field.getFieldLength()) > 0) {
+                listener.onParseFailure(field);
+            }
+            return null;
+        }
+        switch (dateMode) {
+            case LOCAL_DATE: return dateDecoder.toLocalDate(epochDay);
+            case EPOCH_DAY: return epochDay;
+            default: return dateDecoder.toDate(epochDay);
+        }
     }
 
-    protected Float readFloatValue(DbfField field, byte[] buf) throws IOException {
+    protected Float readFloatValue(DbfField field, byte[] buf, int offset) throws IOException {
+        int end = offset + field.getFieldLength();
+        if (isNullNumber(field, buf, offset, end)) {
+            return null;
+        }
         try {
-            byte[] floatBuf = DbfUtils.trimLeftSpaces(buf);
-            boolean processable = (floatBuf.length > 0 && !DbfUtils.contains(floatBuf, (byte) '?'));
-            return processable ? Float.valueOf(new String(floatBuf)) : null;
+            return DbfUtils.parseFloat(buf, offset, end);
         } catch (NumberFormatException e) {
+            if (listener != null) {
+                listener.onParseFailure(field);
+            }
             throw new DbfException("Failed to parse Float from " + field.getName(), e);
         }
     }
 
-    protected Boolean readLogicalValue(DbfField field, byte[] buf) throws IOException {
-        boolean isTrue = (buf[0] == 'Y' || buf[0] == 'y' || buf[0] == 'T' || buf[0] == 't');
+    protected Boolean readLogicalValue(DbfField field, byte[] buf, int offset) throws IOException {
+        byte value = buf[offset];
+        boolean isTrue = (value == 'Y' || value == 'y' || value == 'T' || value == 't');
         return isTrue ? Boolean.TRUE : Boolean.FALSE;
     }
 
-    protected Number readNumericValue(DbfField field, byte[] buf) throws IOException {
+    protected Number readNumericValue(DbfField field, byte[] buf, int offset) throws IOException {
+        int end = offset + field.getFieldLength();
+        if (isNullNumber(field, buf, offset, end)) {
+            return null;
+        }
         try {
-            byte[] numericBuf = DbfUtils.trimLeftSpaces(buf);
-            boolean processable = numericBuf.length > 0 && !DbfUtils.contains(numericBuf, (byte) '?');
-            return processable ? Double.valueOf(new String(numericBuf)) : null;
+            return DbfUtils.parseDouble(buf, offset, end);
         } catch (NumberFormatException e) {
+            if (listener != null) {
+                listener.onParseFailure(field);
+            }
             throw new DbfException("Failed to parse Number from " + field.getName(), e);
         }
     }
 
-    protected Number readMemoLink(DbfField field, byte[] buf) throws IOException {
+    private boolean isNullNumber(DbfField field, byte[] buf, int offset, int end) {
+        if (!DbfUtils.isNullNumber(buf, offset, end)) {
+            return false;
+        }
+        // MEMO links are parsed as numbers too, empty links are not null numbers
+        if (listener != null && field.getDataType() != DbfDataType.MEMO) {
+            listener.onNullNumber(field);
+        }
+        return true;
+    }
+
+    protected Integer readIntegerValue(DbfField field, byte[] buf, int offset) throws IOException {
+        return BinaryValues.readInt(field, buf, offset);
+    }
+
+    protected BigDecimal readCurrencyValue(DbfField field, byte[] buf, int offset) throws IOException {
+        return BigDecimal.valueOf(BinaryValues.readLong(field, buf, offset), BinaryValues.CURRENCY_SCALE);
+    }
+
+    protected Double readDoubleValue(DbfField field, byte[] buf, int offset) throws IOException {
+        return BinaryValues.readDouble(field, buf, offset);
+    }
+
+    /**
+     * @return {@link java.util.Date}, {@link java.time.LocalDateTime} or {@link Long} milliseconds since
+     * 1970-01-01T00:00 depending on the date mode, {@code null} if the value is blank
+     */
+    protected Object readDateTimeValue(DbfField field, byte[] buf, int offset) throws IOException {
+        long epochMillis = BinaryValues.readEpochMillis(field, buf, offset);
+        if (epochMillis == BinaryValues.BLANK) {
+            return null;
+        }
+        switch (dateMode) {
+            case LOCAL_DATE: return BinaryValues.toLocalDateTime(epochMillis);
+            case EPOCH_DAY: return epochMillis;
+            default:
+                return Date.from(BinaryValues.toLocalDateTime(epochMillis).atZone(ZoneId.systemDefault()).toInstant());
+        }
+    }
+
+    /**
+     * @return bytes of VARCHAR or VARBINARY value of its actual length.
+     */
+    protected byte[] readVariableValue(DbfField field, byte[] buf, int offset) throws IOException {
+        return Arrays.copyOfRange(buf, offset, offset + header.getValueLength(field, buf));
+    }
+
+    protected Number readMemoLink(DbfField field, byte[] buf, int offset) throws IOException {
         switch (field.getFieldLength()) {
             case 4:
-                return DbfUtils.readLittleEndianInt(new DataInputStream(new ByteArrayInputStream(buf)));
+                return DbfUtils.readLittleEndianInt(buf, offset);
             case 10:
-                return readNumericValue(field, buf);
+                return readNumericValue(field, buf, offset);
             default:
                 throw new DbfException("Unknown MEMO mode: " + field.getFieldLength());
         }
     }
 
+    /**
+     * @return number of the memo block referenced by MEMO field, 0 if the field is empty.
+     */
+    /* package */ int readMemoBlock(DbfField field, byte[] buf, int offset) throws IOException {
+        Number link = readMemoLink(field, buf, offset);
+        return link == null ? 0 : link.intValue();
+    }
+
+    /* package */ DateDecoder getDateDecoder() {
+        return dateDecoder;
+    }
+
+    /**
+     * @return dictionary of the field or {@code null} if the field is not in dictionary mode.
+     */
+    /* package */ ValueDictionary getDictionary(int fieldIndex) {
+        return dictionaries == null ? null : dictionaries[fieldIndex];
+    }
+
+    /**
+     * @return code of the value in the dictionary of the field or -1 if the field is not
+     * in dictionary mode. The dictionary is dropped once it is full.
+     */
+    /* package */ int dictionaryCode(DbfField field, byte[] buf, int offset) {
+        ValueDictionary dictionary = getDictionary(field.getFieldIndex());
+        if (dictionary == null) {
+            return -1;
+        }
+        int code = dictionary.code(buf, offset, field.getFieldLength());
+        if (code < 0) {
+            dictionaries[field.getFieldIndex()] = null;
+        }
+        return code;
+    }
+
+    /**
+     * @return zero-based index of the last read record in the file, -1 if no record was read.
+     */
+    public int getRecordIndex() {
+        return recordIndex - 1;
+    }
+
+    /**
+     * @return charset of the strings, given to the constructor or detected by the header.
+     */
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * @return decoder of strings of this reader, it is created on the first call.
+     */
+    /* package */ StringDecoder getDecoder() {
+        if (decoder == null) {
+            decoder = new StringDecoder(charset);
+        }
+        return decoder;
+    }
+
+    /* package */ byte[] getRecordBuffer() {
+        return record;
+    }
+
     /**
      * @return the number of records in the Dbf.
      */
@@ -221,5 +751,9 @@ public class DbfReader implements Closeable {
         } catch (IOException e) {
             // ignore
         }
+        if (memoFile != null) {
+            // doesn't throw, so the memo file is closed whatever happens to the data
+            memoFile.close();
+        }
     }
 }
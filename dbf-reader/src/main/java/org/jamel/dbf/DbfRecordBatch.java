@@ -0,0 +1,91 @@
+package org.jamel.dbf;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Reusable batch of records filled by {@link DbfReader#nextRecords(int, DbfRecordBatch)}.
+ * Arrays of the values are reused by the next fill of the batch, so values which are
+ * needed later must be copied out. This class is not thread safe.
+ */
+public class DbfRecordBatch implements Iterable<Object[]> {
+
+    private Object[][] records;
+    private int size;
+
+    public DbfRecordBatch() {
+        this(16);
+    }
+
+    /**
+     * @param capacity initial number of records, the batch grows as needed
+     */
+    public DbfRecordBatch(int capacity) {
+        records = new Object[Math.max(1, capacity)][];
+    }
+
+    /**
+     * @return number of records in the batch.
+     */
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @return values of the record with the given index in the batch, values of the fields
+     * are indexed as in the header.
+     */
+    public Object[] get(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException(String.format("Record index out of range [0, %d): %d", size, index));
+        }
+        return records[index];
+    }
+
+    @Override
+    public Iterator<Object[]> iterator() {
+        return new Iterator<Object[]>() {
+            private int next;
+
+            @Override
+            public boolean hasNext() {
+                return next < size;
+            }
+
+            @Override
+            public Object[] next() {
+                if (next >= size) {
+                    throw new NoSuchElementException();
+                }
+                return records[next++];
+            }
+        };
+    }
+
+    /* package */ void clear() {
+        size = 0;
+    }
+
+    /**
+     * Appends a record to the batch.
+     *
+     * @return array for the values of the record, reused from the previous fill if possible.
+     */
+    /* package */ Object[] add(int fieldsCount) {
+        if (size == records.length) {
+            records = Arrays.copyOf(records, 2 * size);
+        }
+        Object[] record = records[size];
+        if (record == null || record.length != fieldsCount) {
+            record = new Object[fieldsCount];
+            records[size] = record;
+        }
+        size++;
+        return record;
+    }
+}
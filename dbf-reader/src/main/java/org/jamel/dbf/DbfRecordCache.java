@@ -0,0 +1,250 @@
+package org.jamel.dbf;
+
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfRow;
+
+/**
+ * Bounded cache of records read by {@link DbfRandomAccessReader}, the least recently used
+ * records are evicted. Records are kept either decoded, so hits cost no decoding, or as raw
+ * bytes which take less memory and are decoded on each hit. Deleted records are cached too.
+ * Each lookup returns its own copy of the record, so callers may modify the values. Decoded
+ * records follow the date mode of the reader: when it is changed, records decoded with the
+ * previous mode are dropped.
+ * Large caches are split into segments with their own LRU order, so threads looking up
+ * different records don't wait for each other. This class is thread safe.
+ *
+ * <pre>
+ * DbfRecordCache cache = new DbfRecordCache(new DbfRandomAccessReader(file), 10000);
+ * Object[] record = cache.readRecord(n);
+ * </pre>
+ */
+public class DbfRecordCache {
+
+    private static final int MAX_SEGMENTS = 16;
+    /** Smaller segments make the LRU order too coarse */
+    private static final int MIN_SEGMENT_SIZE = 64;
+    /** Cached value of deleted records */
+    private static final Object DELETED = new Object();
+
+    private final DbfRandomAccessReader reader;
+    private final boolean raw;
+    private final Segment[] segments;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Creates cache of decoded records.
+     *
+     * @see #DbfRecordCache(DbfRandomAccessReader, int, boolean)
+     */
+    public DbfRecordCache(DbfRandomAccessReader reader, int maxRecords) {
+        this(reader, maxRecords, false);
+    }
+
+    /**
+     * @param reader reader of the records, it is not closed by the cache
+     * @param maxRecords maximal number of cached records
+     * @param raw if {@code true} raw bytes of the records are cached and decoded on each hit
+     */
+    public DbfRecordCache(DbfRandomAccessReader reader, int maxRecords, boolean raw) {
+        if (maxRecords <= 0) {
+            throw new IllegalArgumentException("Maximal number of records must be positive: " + maxRecords);
+        }
+        this.reader = reader;
+        this.raw = raw;
+        int count = 1;
+        while (count < MAX_SEGMENTS && 2 * count * MIN_SEGMENT_SIZE <= maxRecords) {
+            count *= 2;
+        }
+        this.segments = new Segment[count];
+        for (int i = 0; i < count; i++) {
+            // spread the remainder, so the sizes sum up to maxRecords
+            segments[i] = new Segment(maxRecords / count + (i < maxRecords % count ? 1 : 0));
+        }
+    }
+
+    /**
+     * Returns the record from the cache or reads it by the reader. Records of concurrent
+     * misses of the same index may be read more than once.
+     *
+     * @param n the zero-based record index
+     * @return new copy of the values of the record indexed as in the header, {@code null}
+     * if the record is deleted.
+     * @throws DbfException if the index is out of range or the record cannot be read
+     */
+    public Object[] readRecord(long n) throws DbfException {
+        // raw records don't depend on the date mode
+        DbfDateMode dateMode = raw ? null : reader.getDateMode();
+        Segment segment = segments[(int) (mix(n) & (segments.length - 1))];
+        Object value = segment.get(n, dateMode);
+        if (value != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+            value = load(n, dateMode);
+            segment.put(n, dateMode, value);
+        }
+        if (value == DELETED) {
+            return null;
+        }
+        return raw ? reader.decodeRawRecord((byte[]) value) : copy((Object[]) value);
+    }
+
+    /**
+     * @see #readRecord(long)
+     */
+    public DbfRow readRow(long n) throws DbfException {
+        Object[] record = readRecord(n);
+        return record == null ? null : new DbfRow(reader.getHeader(), reader.getCharset(), record);
+    }
+
+    private Object load(long n, DbfDateMode dateMode) {
+        Object value = raw ? reader.readRawRecord(n) : reader.readRecord(n, dateMode);
+        return value == null ? DELETED : value;
+    }
+
+    /**
+     * Copies the cached values which are mutable, i.e. arrays of bytes and dates.
+     */
+    private static Object[] copy(Object[] values) {
+        Object[] copy = values.clone();
+        for (int i = 0; i < copy.length; i++) {
+            Object value = copy[i];
+            if (value instanceof byte[]) {
+                copy[i] = ((byte[]) value).clone();
+            } else if (value instanceof Date) {
+                copy[i] = ((Date) value).clone();
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Spreads sequential indexes over the segments.
+     */
+    private static long mix(long n) {
+        n *= 0x9e3779b97f4a7c15L;
+        return n ^ (n >>> 32);
+    }
+
+    /**
+     * Removes the record from the cache, e.g. after it has been changed in the file.
+     */
+    public void invalidate(long n) {
+        segments[(int) (mix(n) & (segments.length - 1))].remove(n);
+    }
+
+    /**
+     * Removes all records from the cache, statistics are not reset.
+     */
+    public void clear() {
+        for (Segment segment : segments) {
+            segment.clear();
+        }
+    }
+
+    /**
+     * @return number of cached records.
+     */
+    public int size() {
+        int size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * @return number of lookups of cached records.
+     */
+    public long getHits() {
+        return hits.sum();
+    }
+
+    /**
+     * @return number of lookups which read the record by the reader.
+     */
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    /**
+     * @return number of records evicted to keep the size of the cache.
+     */
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    /**
+     * @return share of lookups of cached records, {@code NaN} if there were no lookups.
+     */
+    public double getHitRatio() {
+        long hits = getHits();
+        long lookups = hits + getMisses();
+        return lookups == 0 ? Double.NaN : (double) hits / lookups;
+    }
+
+    public void resetStatistics() {
+        hits.reset();
+        misses.reset();
+        evictions.reset();
+    }
+
+    /**
+     * Part of the cache with its own lock and LRU order.
+     */
+    private final class Segment {
+        private final Map<Long, Object> values;
+        /** Date mode of the cached records, {@code null} for raw records */
+        private DbfDateMode dateMode;
+
+        Segment(final int capacity) {
+            this.values = new LinkedHashMap<Long, Object>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Object> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+
+        synchronized Object get(long n, DbfDateMode dateMode) {
+            if (this.dateMode != dateMode) {
+                values.clear();
+                this.dateMode = dateMode;
+                return null;
+            }
+            return values.get(n);
+        }
+
+        /**
+         * Caches the value unless it was decoded with the date mode which is already replaced.
+         */
+        synchronized void put(long n, DbfDateMode dateMode, Object value) {
+            if (this.dateMode == dateMode) {
+                values.put(n, value);
+            }
+        }
+
+        synchronized void remove(long n) {
+            values.remove(n);
+        }
+
+        synchronized void clear() {
+            values.clear();
+        }
+
+        synchronized int size() {
+            return values.size();
+        }
+    }
+}
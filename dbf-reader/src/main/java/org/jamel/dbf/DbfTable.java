@@ -0,0 +1,777 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.utils.DbfUtils;
+import org.jamel.dbf.utils.StringDecoder;
+import org.jamel.dbf.utils.ValueDictionary;
+
+/**
+ * Records of a dbf file loaded into memory column by column. Values are kept in primitive
+ * arrays instead of objects: NUMERIC fields as fixed point {@code long} values with the
+ * decimal count of the field (or as {@code double} values if the field is longer than 18
+ * digits), FLOAT fields as {@code double}, DATE fields as days since 1970-01-01, LOGICAL
+ * fields as bits and CHAR fields as raw bytes, so the table takes about as much memory
+ * as the file. NULL values are marked in bitmaps and are kept as 0. Columns are split into
+ * chunks of 65536 rows, so tables of any size don't need huge arrays. Binary INTEGER, AUTOINCREMENT
+ * and CURRENCY fields are kept as fixed point {@code long} values, DOUBLE fields as {@code double}.
+ * MEMO, date time and variable length fields are not loaded.
+ * CHAR fields in dictionary mode of the reader (see {@link DbfReader#setDictionary(int, String...)})
+ * keep 2 byte codes of the values and each distinct value once, until they have too many distinct values.
+ *
+ * <pre>
+ * DbfTable table = DbfTable.load(new File("orders.dbf"), "AMOUNT", "CREATED");
+ * double total = table.sum(0);
+ * for (int row = 0; row &lt; table.getRowCount(); row++) {
+ *     int epochDay = table.getEpochDay(row, 1);
+ * }
+ * </pre>
+ */
+public class DbfTable {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+    /** Longer NUMERIC fields may not fit into long */
+    private static final int MAX_SCALED_LENGTH = 18;
+
+    private final Charset charset;
+    private final DbfHeader header;
+    private final Column[] columns;
+    private int rowCount;
+    /** Capacity of the last chunk, chunks grow up to CHUNK_SIZE */
+    private int chunkCapacity;
+
+    private DbfTable(Charset charset, DbfHeader header, Column[] columns) {
+        this.charset = charset;
+        this.header = header;
+        this.columns = columns;
+    }
+
+    /**
+     * Loads the records of the file, strings are decoded with the code page marked in the header.
+     *
+     * @see DbfReader#DbfReader(File)
+     */
+    public static DbfTable load(File dbf, String... fieldNames) throws DbfException {
+        try (DbfReader reader = new DbfReader(dbf)) {
+            return load(reader, fieldNames);
+        }
+    }
+
+    public static DbfTable load(File dbf, Charset charset, String... fieldNames) throws DbfException {
+        try (DbfReader reader = new DbfReader(dbf, charset)) {
+            return load(reader, fieldNames);
+        }
+    }
+
+    /**
+     * Loads the rest of the records of the reader, deleted and filtered out records are skipped.
+     *
+     * @param reader reader to load the records from, it is not closed
+     * @param fieldNames names of the fields to load, all fields of supported types are loaded if none given
+     * @return loaded table, its columns are in the order of the given names
+     * @throws DbfException if a field doesn't exist or cannot be loaded, or the records cannot be read or parsed
+     */
+    public static DbfTable load(DbfReader reader, String... fieldNames) throws DbfException {
+        DbfTable table = new DbfTable(reader.getCharset(), reader.getHeader(), columns(reader, fieldNames));
+        byte[] record = reader.getRecordBuffer();
+        int expected = reader.getRecordCount();
+        try {
+            while (reader.readRecord()) {
+                table.add(record, expected);
+            }
+        } catch (IOException e) {
+            throw new DbfException("Cannot read next record form Dbf file", e);
+        }
+        table.trim();
+        return table;
+    }
+
+    private static Column[] columns(DbfReader reader, String[] fieldNames) {
+        DbfHeader header = reader.getHeader();
+        List<Column> columns = new ArrayList<>();
+        if (fieldNames.length == 0) {
+            for (int i = 0; i < header.getFieldsCount(); i++) {
+                DbfField field = header.getField(i);
+                if (isLoadable(field.getDataType())) {
+                    columns.add(column(field, reader.getDictionary(i)));
+                }
+            }
+        } else {
+            for (String name : fieldNames) {
+                int index = header.getFieldIndex(name);
+                if (index < 0) {
+                    throw new DbfException(String.format("Field \"%s\" does not exist", name));
+                }
+                columns.add(column(header.getField(index), reader.getDictionary(index)));
+            }
+        }
+        return columns.toArray(new Column[columns.size()]);
+    }
+
+    private static boolean isLoadable(DbfDataType type) {
+        if (type == null) {
+            return false;
+        }
+        switch (type) {
+            case MEMO:
+            case DATE_TIME:
+            case TIMESTAMP:
+            case VARCHAR:
+            case VARBINARY:
+            case NULL_FLAGS:
+                return false;
+            default:
+                return true;
+        }
+    }
+
+    private static Column column(DbfField field, ValueDictionary dictionary) {
+        DbfDataType type = field.getDataType();
+        if (dictionary != null) {
+            return new DictionaryColumn(field, dictionary.getMaxSize());
+        }
+        if (type == DbfDataType.NUMERIC && field.getFieldLength() <= MAX_SCALED_LENGTH) {
+            return new ScaledColumn(field, field.getDecimalCount());
+        }
+        if (type == DbfDataType.INTEGER || type == DbfDataType.AUTOINCREMENT) {
+            return new ScaledColumn(field, 0);
+        }
+        if (type == DbfDataType.CURRENCY) {
+            return new ScaledColumn(field, BinaryValues.CURRENCY_SCALE);
+        }
+        if (type == DbfDataType.NUMERIC || type == DbfDataType.FLOAT
+                || type == DbfDataType.DOUBLE || type == DbfDataType.DBASE_DOUBLE) {
+            return new DoubleColumn(field);
+        }
+        if (type == DbfDataType.DATE) {
+            return new DateColumn(field);
+        }
+        if (type == DbfDataType.LOGICAL) {
+            return new LogicalColumn(field);
+        }
+        if (type == DbfDataType.CHAR) {
+            return new CharColumn(field);
+        }
+        throw new DbfException(String.format("Field \"%s\" of type %s cannot be loaded into table",
+                field.getName(), type));
+    }
+
+    /**
+     * @param expected number of records in the file, the first chunks are allocated for it
+     */
+    private void add(byte[] record, int expected) {
+        int chunk = rowCount >>> CHUNK_BITS;
+        int index = rowCount & CHUNK_MASK;
+        if (index == 0) {
+            chunkCapacity = Math.max(64, Math.min(CHUNK_SIZE, expected - rowCount));
+            for (Column column : columns) {
+                column.addChunk(chunk, chunkCapacity);
+            }
+        } else if (index == chunkCapacity) {
+            chunkCapacity = Math.min(CHUNK_SIZE, 2 * chunkCapacity);
+            for (Column column : columns) {
+                column.resize(chunk, chunkCapacity);
+            }
+        }
+        for (int i = 0; i < columns.length; i++) {
+            if (header.isNull(columns[i].field, record)) {
+                // NULL values are kept as 0
+                columns[i].setNull(chunk, index);
+            } else if (!columns[i].load(record, chunk, index)) {
+                // too many distinct values
+                columns[i] = ((DictionaryColumn) columns[i]).toCharColumn(rowCount);
+                columns[i].load(record, chunk, index);
+            }
+        }
+        rowCount++;
+    }
+
+    /**
+     * Cuts the last chunk to the number of rows.
+     */
+    private void trim() {
+        int size = rowCount & CHUNK_MASK;
+        if (size != 0 && size != chunkCapacity) {
+            for (Column column : columns) {
+                column.resize(rowCount >>> CHUNK_BITS, size);
+            }
+        }
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    public int getColumnCount() {
+        return columns.length;
+    }
+
+    /**
+     * @param col the zero-based index of the column
+     * @return field which values are kept in the column.
+     */
+    public DbfField getField(int col) {
+        return columns[col].field;
+    }
+
+    /**
+     * @return index of the column with the given field name or -1 if the field is not loaded.
+     */
+    public int getColumnIndex(String fieldName) {
+        for (int i = 0; i < columns.length; i++) {
+            if (columns[i].field.getName().equals(fieldName)) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks if the value is NULL. Numeric values are NULL if they are blank or contain '?',
+     * dates are NULL if they are blank or invalid and logical values are NULL if they are blank or '?'.
+     * Values of nullable fields (Visual FoxPro) are NULL if they are marked in _NullFlags,
+     * other character values are never NULL.
+     *
+     * @param row the zero-based index of the row
+     * @param col the zero-based index of the column
+     * @return {@code true} if the value is NULL
+     */
+    public boolean isNull(int row, int col) {
+        return column(row, col).isNull(row);
+    }
+
+    /**
+     * @return value of the numeric column, or 0 (if the value is NULL)
+     * @throws DbfException if the column is not numeric
+     */
+    public double getDouble(int row, int col) {
+        Column column = column(row, col);
+        if (column instanceof ScaledColumn) {
+            ScaledColumn scaled = (ScaledColumn) column;
+            return scaled.value(row) / scaled.divisor;
+        }
+        if (column instanceof DoubleColumn) {
+            return ((DoubleColumn) column).value(row);
+        }
+        throw new DbfException(String.format("Field \"%s\" is not numeric", column.field.getName()));
+    }
+
+    /**
+     * @return value of the numeric column multiplied by 10<sup>decimalCount</sup>, or 0 (if the value is NULL)
+     * @throws DbfException if the column is not numeric
+     * @see DbfCursor#getScaledLong(int)
+     */
+    public long getScaledLong(int row, int col) {
+        Column column = column(row, col);
+        int decimalCount = column.field.getDecimalCount();
+        if (column instanceof ScaledColumn) {
+            ScaledColumn scaled = (ScaledColumn) column;
+            return scaled.scale == decimalCount
+                    ? scaled.value(row)
+                    : BigDecimal.valueOf(scaled.value(row), scaled.scale).movePointRight(decimalCount).longValue();
+        }
+        return BigDecimal.valueOf(getDouble(row, col))
+                .movePointRight(decimalCount)
+                .longValue();
+    }
+
+    /**
+     * @return value of the date column as the number of days since 1970-01-01, or 0 (if the value is NULL)
+     * @throws DbfException if the column is not date
+     */
+    public int getEpochDay(int row, int col) {
+        return ((DateColumn) typed(row, col, DbfDataType.DATE)).value(row);
+    }
+
+    /**
+     * @return value of the logical column, or {@code false} (if the value is NULL)
+     * @throws DbfException if the column is not logical
+     */
+    public boolean getBoolean(int row, int col) {
+        return ((LogicalColumn) typed(row, col, DbfDataType.LOGICAL)).value(row);
+    }
+
+    /**
+     * @return value of the character column without trailing spaces, or null (if the value is NULL)
+     * @throws DbfException if the column is not character
+     */
+    public String getString(int row, int col) {
+        Column typed = typed(row, col, DbfDataType.CHAR);
+        if (typed.isNull(row)) {
+            return null;
+        }
+        if (typed instanceof DictionaryColumn) {
+            DictionaryColumn column = (DictionaryColumn) typed;
+            return column.dictionary.string(column.code(row), charset);
+        }
+        CharColumn column = (CharColumn) typed;
+        byte[] chunk = column.values[row >>> CHUNK_BITS];
+        int from = (row & CHUNK_MASK) * column.length;
+        return StringDecoder.decode(chunk, from, DbfUtils.trimmedLength(chunk, from, from + column.length), charset);
+    }
+
+    /**
+     * Copies raw bytes of the value of the character column into the given array.
+     *
+     * @param dst array to copy to, it must be at least as long as the field
+     * @return length of the value without trailing spaces, 0 if the value is NULL
+     * @throws DbfException if the column is not character
+     */
+    public int getBytes(int row, int col, byte[] dst) {
+        Column typed = typed(row, col, DbfDataType.CHAR);
+        if (typed.isNull(row)) {
+            return 0;
+        }
+        if (typed instanceof DictionaryColumn) {
+            DictionaryColumn column = (DictionaryColumn) typed;
+            byte[] value = column.dictionary.bytes(column.code(row));
+            System.arraycopy(value, 0, dst, 0, value.length);
+            return DbfUtils.trimmedLength(value, 0, value.length);
+        }
+        CharColumn column = (CharColumn) typed;
+        byte[] chunk = column.values[row >>> CHUNK_BITS];
+        int from = (row & CHUNK_MASK) * column.length;
+        System.arraycopy(chunk, from, dst, 0, column.length);
+        return DbfUtils.trimmedLength(chunk, from, from + column.length);
+    }
+
+    /**
+     * @return number of not NULL values in the column.
+     */
+    public int count(int col) {
+        Column column = columns[col];
+        int count = rowCount;
+        for (long[] nulls : column.nulls) {
+            if (nulls != null) {
+                for (long bits : nulls) {
+                    count -= Long.bitCount(bits);
+                }
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return sum of the values of the numeric column, NULL values are skipped.
+     * @throws DbfException if the column is not numeric
+     */
+    public double sum(int col) {
+        Column column = numeric(col);
+        // NULL values are kept as 0, so they don't need to be skipped
+        if (column instanceof ScaledColumn) {
+            ScaledColumn scaled = (ScaledColumn) column;
+            long sum = 0;
+            // parts of the sum which don't fit into long
+            double overflow = 0;
+            for (long[] values : scaled.values) {
+                long chunkSum;
+                try {
+                    chunkSum = exactSum(values);
+                } catch (ArithmeticException e) {
+                    for (long value : values) {
+                        overflow += value;
+                    }
+                    continue;
+                }
+                try {
+                    sum = Math.addExact(sum, chunkSum);
+                } catch (ArithmeticException e) {
+                    overflow += sum;
+                    sum = chunkSum;
+                }
+            }
+            return (sum + overflow) / scaled.divisor;
+        }
+        double sum = 0;
+        for (double[] values : ((DoubleColumn) column).values) {
+            for (double value : values) {
+                sum += value;
+            }
+        }
+        return sum;
+    }
+
+    private static long exactSum(long[] values) {
+        long sum = 0;
+        for (long value : values) {
+            sum = Math.addExact(sum, value);
+        }
+        return sum;
+    }
+
+    /**
+     * @return minimal value of the numeric column, {@code NaN} if all values are NULL.
+     * @throws DbfException if the column is not numeric
+     */
+    public double min(int col) {
+        return extremum(numeric(col), false);
+    }
+
+    /**
+     * @return maximal value of the numeric column, {@code NaN} if all values are NULL.
+     * @throws DbfException if the column is not numeric
+     */
+    public double max(int col) {
+        return extremum(numeric(col), true);
+    }
+
+    private double extremum(Column column, boolean max) {
+        double result = Double.NaN;
+        for (int chunk = 0; chunk < column.nulls.length; chunk++) {
+            long[] nulls = column.nulls[chunk];
+            if (column instanceof ScaledColumn) {
+                ScaledColumn scaled = (ScaledColumn) column;
+                long[] values = scaled.values[chunk];
+                long extremum = max ? Long.MIN_VALUE : Long.MAX_VALUE;
+                boolean found = false;
+                for (int i = 0; i < values.length; i++) {
+                    if (nulls == null || (nulls[i >>> 6] & (1L << i)) == 0) {
+                        extremum = max ? Math.max(extremum, values[i]) : Math.min(extremum, values[i]);
+                        found = true;
+                    }
+                }
+                if (found) {
+                    result = combine(result, extremum / scaled.divisor, max);
+                }
+            } else {
+                double[] values = ((DoubleColumn) column).values[chunk];
+                for (int i = 0; i < values.length; i++) {
+                    if (nulls == null || (nulls[i >>> 6] & (1L << i)) == 0) {
+                        result = combine(result, values[i], max);
+                    }
+                }
+            }
+        }
+        return result;
+    }
+
+    private static double combine(double result, double value, boolean max) {
+        if (Double.isNaN(result)) {
+            return value;
+        }
+        return max ? Math.max(result, value) : Math.min(result, value);
+    }
+
+    private Column column(int row, int col) {
+        if (row < 0 || row >= rowCount) {
+            throw new DbfException(String.format("Row index out of range [0, %d): %d", rowCount, row));
+        }
+        return columns[col];
+    }
+
+    private Column typed(int row, int col, DbfDataType type) {
+        Column column = column(row, col);
+        if (column.field.getDataType() != type) {
+            throw new DbfException(String.format("Field \"%s\" is not %s",
+                    column.field.getName(), type.name().toLowerCase()));
+        }
+        return column;
+    }
+
+    private Column numeric(int col) {
+        Column column = columns[col];
+        if (!(column instanceof ScaledColumn) && !(column instanceof DoubleColumn)) {
+            throw new DbfException(String.format("Field \"%s\" is not numeric", column.field.getName()));
+        }
+        return column;
+    }
+
+    /**
+     * Values of one field, chunk i keeps values of rows [i * CHUNK_SIZE, (i + 1) * CHUNK_SIZE).
+     */
+    private abstract static class Column {
+        final DbfField field;
+        final int offset;
+        final int length;
+        /** NULL bitmap of each chunk, {@code null} for chunks without NULL values */
+        long[][] nulls = new long[0][];
+
+        Column(DbfField field) {
+            this.field = field;
+            this.offset = field.getOffset();
+            this.length = field.getFieldLength();
+        }
+
+        void addChunk(int chunk, int capacity) {
+            nulls = Arrays.copyOf(nulls, chunk + 1);
+        }
+
+        abstract void resize(int chunk, int capacity);
+
+        /**
+         * @return {@code false} if the value cannot be kept by this column.
+         */
+        abstract boolean load(byte[] record, int chunk, int index);
+
+        void setNull(int chunk, int index) {
+            if (nulls[chunk] == null) {
+                nulls[chunk] = new long[CHUNK_SIZE / 64];
+            }
+            nulls[chunk][index >>> 6] |= 1L << index;
+        }
+
+        boolean isNull(int row) {
+            long[] bits = nulls[row >>> CHUNK_BITS];
+            return bits != null && (bits[(row & CHUNK_MASK) >>> 6] & (1L << row)) != 0;
+        }
+
+        DbfException invalidNumber(NumberFormatException e) {
+            return new DbfException("Failed to parse Number from " + field.getName(), e);
+        }
+    }
+
+    private static final class ScaledColumn extends Column {
+        final int scale;
+        final double divisor;
+        final boolean binary;
+        long[][] values = new long[0][];
+
+        ScaledColumn(DbfField field, int scale) {
+            super(field);
+            this.scale = scale;
+            this.divisor = Math.pow(10, scale);
+            this.binary = BinaryValues.isBinaryNumber(field.getDataType());
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new long[capacity];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            values[chunk] = Arrays.copyOf(values[chunk], capacity);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            if (binary) {
+                values[chunk][index] = BinaryValues.readLong(field, record, offset);
+                return true;
+            }
+            if (DbfUtils.isNullNumber(record, offset, offset + length)) {
+                setNull(chunk, index);
+                return true;
+            }
+            try {
+                values[chunk][index] = DbfUtils.parseScaledLong(record, offset, offset + length, scale);
+            } catch (NumberFormatException e) {
+                throw invalidNumber(e);
+            }
+            return true;
+        }
+
+        long value(int row) {
+            return values[row >>> CHUNK_BITS][row & CHUNK_MASK];
+        }
+    }
+
+    private static final class DoubleColumn extends Column {
+        final boolean binary;
+        double[][] values = new double[0][];
+
+        DoubleColumn(DbfField field) {
+            super(field);
+            this.binary = BinaryValues.isBinaryNumber(field.getDataType());
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new double[capacity];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            values[chunk] = Arrays.copyOf(values[chunk], capacity);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            if (binary) {
+                values[chunk][index] = BinaryValues.readDouble(field, record, offset);
+                return true;
+            }
+            if (DbfUtils.isNullNumber(record, offset, offset + length)) {
+                setNull(chunk, index);
+                return true;
+            }
+            try {
+                values[chunk][index] = DbfUtils.parseDouble(record, offset, offset + length);
+            } catch (NumberFormatException e) {
+                throw invalidNumber(e);
+            }
+            return true;
+        }
+
+        double value(int row) {
+            return values[row >>> CHUNK_BITS][row & CHUNK_MASK];
+        }
+    }
+
+    private static final class DateColumn extends Column {
+        int[][] values = new int[0][];
+
+        DateColumn(DbfField field) {
+            super(field);
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new int[capacity];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            values[chunk] = Arrays.copyOf(values[chunk], capacity);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            int epochDay = DbfUtils.parseEpochDay(record, offset);
+            if (epochDay == DbfUtils.INVALID_DATE) {
+                setNull(chunk, index);
+            } else {
+                values[chunk][index] = epochDay;
+            }
+            return true;
+        }
+
+        int value(int row) {
+            return values[row >>> CHUNK_BITS][row & CHUNK_MASK];
+        }
+    }
+
+    private static final class LogicalColumn extends Column {
+        long[][] values = new long[0][];
+
+        LogicalColumn(DbfField field) {
+            super(field);
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new long[(capacity + 63) >>> 6];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            values[chunk] = Arrays.copyOf(values[chunk], (capacity + 63) >>> 6);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            byte value = record[offset];
+            if (value == 'Y' || value == 'y' || value == 'T' || value == 't') {
+                values[chunk][index >>> 6] |= 1L << index;
+            } else if (value == '?' || value == ' ') {
+                setNull(chunk, index);
+            }
+            return true;
+        }
+
+        boolean value(int row) {
+            return (values[row >>> CHUNK_BITS][(row & CHUNK_MASK) >>> 6] & (1L << row)) != 0;
+        }
+    }
+
+    private static final class CharColumn extends Column {
+        byte[][] values = new byte[0][];
+
+        CharColumn(DbfField field) {
+            super(field);
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            values = Arrays.copyOf(values, chunk + 1);
+            values[chunk] = new byte[capacity * length];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            values[chunk] = Arrays.copyOf(values[chunk], capacity * length);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            System.arraycopy(record, offset, values[chunk], index * length, length);
+            return true;
+        }
+    }
+
+    /**
+     * CHAR values kept as codes of the dictionary.
+     */
+    private static final class DictionaryColumn extends Column {
+        final ValueDictionary dictionary;
+        char[][] codes = new char[0][];
+
+        DictionaryColumn(DbfField field, int maxSize) {
+            super(field);
+            this.dictionary = new ValueDictionary(maxSize);
+        }
+
+        @Override
+        void addChunk(int chunk, int capacity) {
+            super.addChunk(chunk, capacity);
+            codes = Arrays.copyOf(codes, chunk + 1);
+            codes[chunk] = new char[capacity];
+        }
+
+        @Override
+        void resize(int chunk, int capacity) {
+            codes[chunk] = Arrays.copyOf(codes[chunk], capacity);
+        }
+
+        @Override
+        boolean load(byte[] record, int chunk, int index) {
+            int code = dictionary.code(record, offset, length);
+            if (code < 0) {
+                return false;
+            }
+            codes[chunk][index] = (char) code;
+            return true;
+        }
+
+        int code(int row) {
+            return codes[row >>> CHUNK_BITS][row & CHUNK_MASK];
+        }
+
+        /**
+         * @return column with the same values of the first rows, chunks have the same capacities.
+         */
+        CharColumn toCharColumn(int rowCount) {
+            CharColumn column = new CharColumn(field);
+            for (int chunk = 0; chunk < codes.length; chunk++) {
+                column.addChunk(chunk, codes[chunk].length);
+            }
+            column.nulls = nulls;
+            for (int row = 0; row < rowCount; row++) {
+                System.arraycopy(dictionary.bytes(code(row)), 0,
+                        column.values[row >>> CHUNK_BITS], (row & CHUNK_MASK) * length, length);
+            }
+            return column;
+        }
+    }
+}
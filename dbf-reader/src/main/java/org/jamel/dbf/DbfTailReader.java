@@ -0,0 +1,304 @@
+package org.jamel.dbf;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.metrics.DbfReaderListener;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.structure.DbfRow;
+
+/**
+ * Reader of records appended to a file by another application. Each time the known records
+ * are consumed the reader polls the number of records in the header and the file size, and
+ * continues with the records appended since, so only new data is read. A record is read once
+ * it is counted by the header and is completely written, the end marker is never read.
+ * Deleted records are skipped. Changes of the records which are already read are not seen.
+ * This class is not thread safe.
+ *
+ * <pre>
+ * try (DbfTailReader reader = new DbfTailReader(file, lastPosition)) {
+ *     Object[] record;
+ *     while ((record = reader.nextRecord(1, TimeUnit.MINUTES)) != null) {
+ *         ...
+ *     }
+ *     lastPosition = reader.getPosition();
+ * }
+ * </pre>
+ */
+public class DbfTailReader implements Closeable {
+
+    public static final long DEFAULT_POLL_INTERVAL_MILLIS = 1000;
+
+    /** Size of the buffer of several records read at once */
+    private static final int CHUNK_SIZE = 64 * 1024;
+
+    private final FileChannel channel;
+    private final DbfHeader header;
+    private final DbfReader decoder;
+    private final byte[] record;
+    private final ByteBuffer chunk;
+    private final ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN);
+    private long pollIntervalMillis = DEFAULT_POLL_INTERVAL_MILLIS;
+    /** Index of the next record to read */
+    private long position;
+    /** Number of records which are known to be written */
+    private long available;
+    /** Index of the first record in the chunk */
+    private long chunkStart;
+
+    public DbfTailReader(File file) throws DbfException {
+        this(file, null, 0);
+    }
+
+    public DbfTailReader(File file, long position) throws DbfException {
+        this(file, null, position);
+    }
+
+    /**
+     * @param file Dbf file
+     * @param charset charset of the strings, {@code null} to detect it by the header
+     * @param position zero-based index of the first record to read, e.g. {@link #getPosition()}
+     *                 of the previous reader of the file
+     */
+    public DbfTailReader(File file, Charset charset, long position) throws DbfException {
+        if (position < 0) {
+            throw new IllegalArgumentException("Negative record position: " + position);
+        }
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new DbfException("Cannot open Dbf file " + file, e);
+        }
+        try {
+            header = DbfHeader.read(new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel))));
+        } catch (DbfException e) {
+            close();
+            throw e;
+        }
+        this.decoder = new DbfReader(header, charset);
+        this.record = decoder.getRecordBuffer();
+        this.chunk = ByteBuffer.allocate(Math.max(1, CHUNK_SIZE / record.length) * record.length);
+        this.chunk.limit(0);
+        this.position = position;
+    }
+
+    /**
+     * Sets the time to wait between polls of {@link #nextRecord(long, TimeUnit)}.
+     */
+    public void setPollInterval(long interval, TimeUnit unit) {
+        this.pollIntervalMillis = Math.max(1, unit.toMillis(interval));
+    }
+
+    /**
+     * @see DbfReader#setDateMode(DbfDateMode)
+     */
+    public void setDateMode(DbfDateMode dateMode) {
+        decoder.setDateMode(dateMode);
+    }
+
+    /**
+     * @see DbfReader#setProjection(String...)
+     */
+    public void setProjection(String... fieldNames) throws DbfException {
+        decoder.setProjection(fieldNames);
+    }
+
+    /**
+     * @see DbfReader#setListener(DbfReaderListener)
+     */
+    public void setListener(DbfReaderListener listener) {
+        decoder.setListener(listener);
+    }
+
+    /**
+     * Reads the next record if it is already written, does not wait for new records.
+     *
+     * @return values of the record indexed as in the header, {@code null} if there are no new records.
+     * @throws DbfException if the record cannot be read or the file was truncated
+     */
+    public Object[] nextRecord() throws DbfException {
+        try {
+            return readRecord() ? decoder.decodeRecord() : null;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read next record form Dbf file", e);
+        }
+    }
+
+    /**
+     * Reads the next record, polls the file until the record is written or the time is out.
+     *
+     * @return values of the record indexed as in the header, {@code null} if no record was
+     * written within the timeout.
+     * @throws DbfException if the record cannot be read or the file was truncated
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    public Object[] nextRecord(long timeout, TimeUnit unit) throws DbfException, InterruptedException {
+        long deadline = System.nanoTime() + unit.toNanos(timeout);
+        Object[] record;
+        while ((record = nextRecord()) == null) {
+            long remainingMillis = TimeUnit.NANOSECONDS.toMillis(deadline - System.nanoTime());
+            if (remainingMillis <= 0) {
+                return null;
+            }
+            Thread.sleep(Math.min(pollIntervalMillis, remainingMillis));
+        }
+        return record;
+    }
+
+    public DbfRow nextRow() throws DbfException {
+        Object[] record = nextRecord();
+        return record == null ? null : new DbfRow(header, decoder.getCharset(), record);
+    }
+
+    /**
+     * Reads up to {@code max} written records into the batch replacing its previous records,
+     * does not wait for new records.
+     *
+     * @return number of records read, 0 if there are no new records.
+     * @see DbfReader#nextRecords(int, DbfRecordBatch)
+     */
+    public int nextRecords(int max, DbfRecordBatch batch) throws DbfException {
+        batch.clear();
+        try {
+            int fieldsCount = header.getFieldsCount();
+            while (batch.size() < max && readRecord()) {
+                Object[] values = batch.add(fieldsCount);
+                Arrays.fill(values, null);
+                decoder.decodeRecord(values);
+            }
+            return batch.size();
+        } catch (IOException e) {
+            throw new DbfException("Cannot read next records form Dbf file", e);
+        }
+    }
+
+    /**
+     * Reads the next written not deleted record into the record buffer of the decoder.
+     *
+     * @return {@code false} if there are no new records.
+     */
+    private boolean readRecord() throws IOException {
+        DbfReaderListener listener = decoder.getListener();
+        while (true) {
+            if (position >= available && refresh() <= position) {
+                return false;
+            }
+            if (position < chunkStart || position >= chunkStart + chunk.limit() / record.length) {
+                readChunk();
+                if (chunk.limit() == 0) {
+                    // the file was truncated after the poll
+                    available = position;
+                    return false;
+                }
+            }
+            chunk.position((int) (position - chunkStart) * record.length);
+            chunk.get(record);
+            if (record[0] == decoder.DATA_ENDED) {
+                // counted by the header but not written yet
+                available = position;
+                chunk.limit(0);
+                return false;
+            }
+            position++;
+            if (listener != null) {
+                listener.onBytesRead(record.length);
+            }
+            if (record[0] != decoder.DATA_DELETED) {
+                if (listener != null) {
+                    listener.onRecordRead();
+                }
+                return true;
+            }
+            if (listener != null) {
+                listener.onDeletedRecordSkipped();
+            }
+        }
+    }
+
+    /**
+     * Reads the records from the position up to the end of the written records or the chunk size.
+     */
+    private void readChunk() throws IOException {
+        int records = (int) Math.min(available - position, chunk.capacity() / record.length);
+        chunk.clear();
+        chunk.limit(records * record.length);
+        long offset = header.getRecordPosition(position);
+        while (chunk.hasRemaining()) {
+            if (channel.read(chunk, offset + chunk.position()) < 0) {
+                break;
+            }
+        }
+        // keep only whole records, the file may have been truncated
+        chunk.limit(chunk.position() - chunk.position() % record.length);
+        chunkStart = position;
+    }
+
+    /**
+     * Polls the number of records in the header and the size of the file.
+     *
+     * @return number of records which are counted by the header and completely written.
+     * @throws DbfException if the file has fewer records than were already read
+     */
+    public long refresh() throws DbfException {
+        try {
+            count.clear();
+            while (count.hasRemaining()) {
+                if (channel.read(count, 4 + count.position()) < 0) {
+                    throw new DbfException("Dbf header is truncated");
+                }
+            }
+            long counted = count.getInt(0) & 0xffffffffL;
+            long written = (channel.size() - header.getHeaderLength()) / record.length;
+            long records = Math.min(counted, Math.max(0, written));
+            if (records < position) {
+                throw new DbfException(String.format(
+                        "Dbf file has %d records, but %d records were already read", records, position));
+            }
+            if (records < available) {
+                // a later record was found unwritten, the chunk may be stale
+                chunk.limit(0);
+            }
+            available = records;
+            return records;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read Dbf header", e);
+        }
+    }
+
+    /**
+     * @return zero-based index of the next record to read, it can be given to a new reader
+     * to continue from here.
+     */
+    public long getPosition() {
+        return position;
+    }
+
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    public Charset getCharset() {
+        return decoder.getCharset();
+    }
+
+    @Override
+    public void close() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
@@ -0,0 +1,25 @@
+package org.jamel.dbf.filter;
+
+import java.nio.charset.Charset;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfHeader;
+
+/**
+ * Condition on dbf records which is evaluated against raw record bytes before
+ * any field is decoded. Filters are created by {@link DbfFilters} and don't depend
+ * on a particular file until they are bound to its header.
+ */
+public interface DbfFilter {
+
+    /**
+     * Resolves fields of the filter in the given header.
+     *
+     * @param header header of the file which records will be matched
+     * @param charset charset of the file, used to encode string values
+     * @return matcher for the records of the file
+     * @throws DbfException if a field doesn't exist or has unsuitable type
+     */
+    DbfRecordMatcher bind(DbfHeader header, Charset charset) throws DbfException;
+
+}
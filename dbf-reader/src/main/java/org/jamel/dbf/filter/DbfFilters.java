@@ -0,0 +1,297 @@
+package org.jamel.dbf.filter;
+
+import java.nio.charset.Charset;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.utils.DbfUtils;
+
+/**
+ * Factory of the record filters. Filters compare raw bytes of the fields,
+ * so records which don't match are skipped without decoding.
+ * <pre>
+ * DbfFilter filter = DbfFilters.and(
+ *         DbfFilters.equalTo("REGION", "77"),
+ *         DbfFilters.greaterThan("AMOUNT", 1000));
+ * </pre>
+ */
+public final class DbfFilters {
+
+    private DbfFilters() {
+    }
+
+    /**
+     * Matches CHAR field which value without trailing spaces is equal to the given one.
+     * The value is encoded with the charset of the reader.
+     */
+    public static DbfFilter equalTo(String fieldName, String value) {
+        return new CharFilter(fieldName, value, null, false);
+    }
+
+    /**
+     * Matches CHAR field which value without trailing spaces is equal to the given bytes.
+     */
+    public static DbfFilter equalTo(String fieldName, byte[] value) {
+        return new CharFilter(fieldName, null, value.clone(), false);
+    }
+
+    /**
+     * Matches CHAR field which value starts with the given one.
+     * The value is encoded with the charset of the reader.
+     */
+    public static DbfFilter startsWith(String fieldName, String prefix) {
+        return new CharFilter(fieldName, prefix, null, true);
+    }
+
+    /**
+     * Matches CHAR field which value starts with the given bytes.
+     */
+    public static DbfFilter startsWith(String fieldName, byte[] prefix) {
+        return new CharFilter(fieldName, null, prefix.clone(), true);
+    }
+
+    /**
+     * Matches NUMERIC or FLOAT field which value is not NULL and lies in the range [min, max].
+     */
+    public static DbfFilter between(String fieldName, double min, double max) {
+        return new NumericFilter(fieldName, min, true, max, true);
+    }
+
+    /**
+     * Matches NUMERIC or FLOAT field which value is not NULL and is greater than the given one.
+     */
+    public static DbfFilter greaterThan(String fieldName, double value) {
+        return new NumericFilter(fieldName, value, false, Double.POSITIVE_INFINITY, true);
+    }
+
+    /**
+     * Matches NUMERIC or FLOAT field which value is not NULL and is less than the given one.
+     */
+    public static DbfFilter lessThan(String fieldName, double value) {
+        return new NumericFilter(fieldName, Double.NEGATIVE_INFINITY, true, value, false);
+    }
+
+    /**
+     * Matches DATE field which value is not blank and lies in the range [from, to].
+     * Only the day of the bounds is compared, the day is taken in the default time zone.
+     *
+     * @param from lower bound or {@code null} if the range is not bounded below
+     * @param to upper bound or {@code null} if the range is not bounded above
+     */
+    public static DbfFilter between(String fieldName, Date from, Date to) {
+        return new DateFilter(fieldName, from, to);
+    }
+
+    /**
+     * Matches records which satisfy all of the given filters.
+     */
+    public static DbfFilter and(DbfFilter... filters) {
+        return new CompositeFilter(filters.clone(), true);
+    }
+
+    /**
+     * Matches records which satisfy at least one of the given filters.
+     */
+    public static DbfFilter or(DbfFilter... filters) {
+        return new CompositeFilter(filters.clone(), false);
+    }
+
+    /**
+     * Matches records which don't satisfy the given filter.
+     */
+    public static DbfFilter not(final DbfFilter filter) {
+        return new DbfFilter() {
+            @Override
+            public DbfRecordMatcher bind(DbfHeader header, Charset charset) {
+                final DbfRecordMatcher matcher = filter.bind(header, charset);
+                return new DbfRecordMatcher() {
+                    @Override
+                    public boolean matches(byte[] record) {
+                        return !matcher.matches(record);
+                    }
+                };
+            }
+        };
+    }
+
+    /**
+     * Filter on value of a single field.
+     */
+    private static abstract class FieldFilter implements DbfFilter {
+        private final String fieldName;
+        private final DbfDataType[] types;
+
+        FieldFilter(String fieldName, DbfDataType... types) {
+            this.fieldName = fieldName;
+            this.types = types;
+        }
+
+        @Override
+        public DbfRecordMatcher bind(DbfHeader header, Charset charset) throws DbfException {
+            int index = header.getFieldIndex(fieldName);
+            if (index < 0) {
+                throw new DbfException(String.format("Field \"%s\" does not exist", fieldName));
+            }
+            DbfField field = header.getField(index);
+            for (DbfDataType type : types) {
+                if (field.getDataType() == type) {
+                    return bind(field, charset);
+                }
+            }
+            throw new DbfException(String.format("Field \"%s\" of type %s is not supported by the filter",
+                    fieldName, field.getDataType()));
+        }
+
+        abstract DbfRecordMatcher bind(DbfField field, Charset charset);
+    }
+
+    private static final class CharFilter extends FieldFilter {
+        private final String stringValue;
+        private final byte[] bytesValue;
+        private final boolean prefix;
+
+        CharFilter(String fieldName, String stringValue, byte[] bytesValue, boolean prefix) {
+            super(fieldName, DbfDataType.CHAR);
+            this.stringValue = stringValue;
+            this.bytesValue = bytesValue;
+            this.prefix = prefix;
+        }
+
+        @Override
+        DbfRecordMatcher bind(DbfField field, Charset charset) {
+            final byte[] value = bytesValue != null ? bytesValue : stringValue.getBytes(charset);
+            final int offset = field.getOffset();
+            final int length = field.getFieldLength();
+            return new DbfRecordMatcher() {
+                @Override
+                public boolean matches(byte[] record) {
+                    if (value.length > length) {
+                        return false;
+                    }
+                    for (int i = 0; i < value.length; i++) {
+                        if (record[offset + i] != value[i]) return false;
+                    }
+                    if (!prefix) {
+                        for (int i = offset + value.length; i < offset + length; i++) {
+                            if (record[i] != ' ') return false;
+                        }
+                    }
+                    return true;
+                }
+            };
+        }
+    }
+
+    private static final class NumericFilter extends FieldFilter {
+        private final double min;
+        private final boolean minInclusive;
+        private final double max;
+        private final boolean maxInclusive;
+
+        NumericFilter(String fieldName, double min, boolean minInclusive, double max, boolean maxInclusive) {
+            super(fieldName, DbfDataType.NUMERIC, DbfDataType.FLOAT);
+            this.min = min;
+            this.minInclusive = minInclusive;
+            this.max = max;
+            this.maxInclusive = maxInclusive;
+        }
+
+        @Override
+        DbfRecordMatcher bind(final DbfField field, Charset charset) {
+            final int from = field.getOffset();
+            final int to = from + field.getFieldLength();
+            return new DbfRecordMatcher() {
+                @Override
+                public boolean matches(byte[] record) {
+                    if (DbfUtils.isNullNumber(record, from, to)) {
+                        return false;
+                    }
+                    double value;
+                    try {
+                        value = DbfUtils.parseDouble(record, from, to);
+                    } catch (NumberFormatException e) {
+                        throw new DbfException("Failed to parse Number from " + field.getName(), e);
+                    }
+                    return (minInclusive ? value >= min : value > min)
+                            && (maxInclusive ? value <= max : value < max);
+                }
+            };
+        }
+    }
+
+    private static final class DateFilter extends FieldFilter {
+        private final byte[] from;
+        private final byte[] to;
+
+        DateFilter(String fieldName, Date from, Date to) {
+            super(fieldName, DbfDataType.DATE);
+            this.from = from == null ? null : toBytes(from);
+            this.to = to == null ? null : toBytes(to);
+        }
+
+        private static byte[] toBytes(Date date) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime(date);
+            int value = calendar.get(Calendar.YEAR) * 10000
+                    + (calendar.get(Calendar.MONTH) + 1) * 100
+                    + calendar.get(Calendar.DAY_OF_MONTH);
+            byte[] bytes = new byte[8];
+            for (int i = bytes.length - 1; i >= 0; i--, value /= 10) {
+                bytes[i] = (byte) ('0' + value % 10);
+            }
+            return bytes;
+        }
+
+        @Override
+        DbfRecordMatcher bind(DbfField field, Charset charset) {
+            final int offset = field.getOffset();
+            return new DbfRecordMatcher() {
+                @Override
+                public boolean matches(byte[] record) {
+                    return record[offset] != ' '
+                            && (from == null || compare(record, offset, from) >= 0)
+                            && (to == null || compare(record, offset, to) <= 0);
+                }
+            };
+        }
+
+        private static int compare(byte[] record, int offset, byte[] date) {
+            for (int i = 0; i < date.length; i++) {
+                int diff = (record[offset + i] & 0xff) - (date[i] & 0xff);
+                if (diff != 0) return diff;
+            }
+            return 0;
+        }
+    }
+
+    private static final class CompositeFilter implements DbfFilter {
+        private final DbfFilter[] filters;
+        private final boolean all;
+
+        CompositeFilter(DbfFilter[] filters, boolean all) {
+            this.filters = filters;
+            this.all = all;
+        }
+
+        @Override
+        public DbfRecordMatcher bind(DbfHeader header, Charset charset) throws DbfException {
+            final DbfRecordMatcher[] matchers = new DbfRecordMatcher[filters.length];
+            for (int i = 0; i < filters.length; i++) {
+                matchers[i] = filters[i].bind(header, charset);
+            }
+            return new DbfRecordMatcher() {
+                @Override
+                public boolean matches(byte[] record) {
+                    for (DbfRecordMatcher matcher : matchers) {
+                        if (matcher.matches(record) != all) return !all;
+                    }
+                    return all;
+                }
+            };
+        }
+    }
+}
@@ -0,0 +1,14 @@
+package org.jamel.dbf.filter;
+
+/**
+ * Filter bound to a particular dbf header.
+ */
+public interface DbfRecordMatcher {
+
+    /**
+     * @param record raw bytes of the record, starting with the deletion flag
+     * @return {@code true} if the record satisfies the filter
+     */
+    boolean matches(byte[] record);
+
+}
@@ -0,0 +1,219 @@
+package org.jamel.dbf.index;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfHeader;
+
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * FoxPro compound index file (.cdx). The file header is the root of a B-tree which maps
+ * names of the tags to the offsets of their headers. Nodes are 512 bytes, keys of
+ * leaves are compressed by removing the bytes shared with the previous key and the
+ * trailing spaces (zeros for numeric keys). Numeric and date keys are doubles
+ * transformed to sort as unsigned bytes.
+ * <p>The type of keys is not stored in the file, so it is derived from the tag: keys which
+ * are not 8 bytes long are character, otherwise the type is told by the function the key
+ * expression starts with, e.g. {@code UPPER()} or {@code VAL()}, or by the type of the field
+ * it starts with if the header of the dbf file is given. Tags of unknown type take the type
+ * of the keys of each lookup.</p>
+ *
+ * @see <a href="https://msdn.microsoft.com/en-us/library/k35b9hs2(v=vs.80).aspx">CDX format</a>
+ */
+public class CdxFile extends CompoundIndex {
+
+    private static final int NODE_SIZE = 512;
+    private static final int HEADER_SIZE = 1024;
+    /** Length of numeric and date keys */
+    private static final int NUMBER_LENGTH = 8;
+
+    private static final Set<String> CHARACTER_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "UPPER", "LOWER", "STR", "DTOS", "DTOC", "TTOC", "SUBSTR", "LEFT", "RIGHT", "PADL", "PADR", "PADC",
+            "ALLTRIM", "TRIM", "LTRIM", "RTRIM", "CHR", "TRANSFORM"));
+    private static final Set<String> NUMERIC_FUNCTIONS = new HashSet<>(Arrays.asList(
+            "VAL", "RECNO", "YEAR", "MONTH", "DAY", "CTOD", "INT", "ROUND", "ABS", "LEN", "ASC"));
+
+    public CdxFile(File file) throws DbfException {
+        this(file, defaultCharset());
+    }
+
+    /**
+     * @param file index file
+     * @param charset charset of character keys
+     */
+    public CdxFile(File file, Charset charset) throws DbfException {
+        this(file, charset, null);
+    }
+
+    /**
+     * @param file index file
+     * @param charset charset of character keys
+     * @param header header of the indexed dbf file, which tells the type of keys of tags
+     *               on fields, or {@code null}
+     */
+    public CdxFile(File file, Charset charset, DbfHeader header) throws DbfException {
+        super(file);
+        try {
+            Tag directory = new Tag(this, charset, 0, "", header);
+            // the leftmost leaf of the directory, then leaves to the right of it
+            long offset = directory.rootPointer();
+            DbfIndex.Node node = offset > 0 ? directory.readNode(offset) : null;
+            for (int depth = 0; node != null && !node.leaf; depth++) {
+                if (node.pointers.length == 0 || depth > 64) {
+                    throw new DbfException("Tag directory of index file " + file + " is corrupted");
+                }
+                offset = node.pointers[0];
+                node = directory.readNode(offset);
+            }
+            while (node != null) {
+                for (int i = 0; i < node.keys.length; i++) {
+                    String name = IndexUtils.readString(node.keys[i], 0, node.keys[i].length);
+                    addTag(new Tag(this, charset, node.pointers[i], name, header));
+                }
+                offset = directory.rightSibling(offset);
+                node = offset == Tag.NONE ? null : directory.readNode(offset);
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static final class Tag extends DbfIndex {
+        private static final int LEAF = 0x02;
+        private static final long NONE = 0xffffffffL;
+
+        private final long root;
+
+        Tag(CdxFile file, Charset charset, long headerOffset, String name, DbfHeader dbfHeader) {
+            super(file.getPages(), false, charset);
+            ByteBuffer header = ByteBuffer.wrap(getPages().read(headerOffset, HEADER_SIZE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            long rootOffset = header.getInt(0) & 0xffffffffL;
+            root = rootOffset == NONE ? 0 : rootOffset;
+            int keyLength = header.getShort(12) & 0xffff;
+            if (keyLength == 0 || keyLength > NODE_SIZE - 24) {
+                throw new DbfException("Invalid key length " + keyLength + " of tag " + name);
+            }
+            boolean directory = headerOffset == 0;
+            String expression = directory ? "" : IndexUtils.readString(header.array(), 512, 512);
+            init(name, expression, keyLength, directory ? Boolean.TRUE : isCharacter(expression, keyLength, dbfHeader),
+                    header.getShort(502) != 0);
+        }
+
+        /**
+         * @return whether keys of the tag are character, {@code null} if it cannot be told.
+         */
+        private static Boolean isCharacter(String expression, int keyLength, DbfHeader dbfHeader) {
+            if (keyLength != NUMBER_LENGTH) {
+                return Boolean.TRUE;
+            }
+            // the type of an expression is the type of its first term, e.g. UPPER(NAME)+DTOS(BORN)
+            String upper = expression.trim().toUpperCase();
+            int end = 0;
+            while (end < upper.length() && (Character.isLetterOrDigit(upper.charAt(end)) || upper.charAt(end) == '_')) {
+                end++;
+            }
+            String term = upper.substring(0, end);
+            if (upper.substring(end).trim().startsWith("(")) {
+                return CHARACTER_FUNCTIONS.contains(term) ? Boolean.TRUE
+                        : NUMERIC_FUNCTIONS.contains(term) ? Boolean.FALSE
+                        : null;
+            }
+            int index = dbfHeader == null ? -1 : dbfHeader.getFieldIndex(term);
+            if (index < 0) {
+                return null;
+            }
+            DbfDataType type = dbfHeader.getField(index).getDataType();
+            return type == DbfDataType.CHAR || type == DbfDataType.VARCHAR;
+        }
+
+        @Override
+        long rootPointer() {
+            return root;
+        }
+
+        long rightSibling(long offset) {
+            return ByteBuffer.wrap(getPages().read(offset, NODE_SIZE)).order(ByteOrder.LITTLE_ENDIAN)
+                    .getInt(8) & 0xffffffffL;
+        }
+
+        @Override
+        Node readNode(long offset) {
+            byte[] page = getPages().read(offset, NODE_SIZE);
+            ByteBuffer buf = ByteBuffer.wrap(page).order(ByteOrder.LITTLE_ENDIAN);
+            boolean leaf = (buf.getShort(0) & LEAF) != 0;
+            int count = buf.getShort(2) & 0xffff;
+            int keyLength = getKeyLength();
+            byte[][] keys = new byte[count][];
+            long[] pointers = new long[count];
+            if (!leaf) {
+                if (12 + count * (keyLength + 8) > NODE_SIZE) {
+                    throw corrupted(offset);
+                }
+                buf.order(ByteOrder.BIG_ENDIAN);
+                for (int i = 0; i < count; i++) {
+                    int entry = 12 + i * (keyLength + 8);
+                    keys[i] = IndexUtils.copy(page, entry, keyLength);
+                    pointers[i] = buf.getInt(entry + keyLength + 4) & 0xffffffffL;
+                }
+                return new Node(false, keys, pointers);
+            }
+
+            long recordMask = buf.getInt(14) & 0xffffffffL;
+            int duplicateMask = page[18] & 0xff;
+            int trailMask = page[19] & 0xff;
+            int recordBits = page[20] & 0xff;
+            int duplicateBits = page[21] & 0xff;
+            int entryLength = page[23] & 0xff;
+            if (entryLength == 0 || entryLength > 8 || 24 + count * entryLength > NODE_SIZE) {
+                throw corrupted(offset);
+            }
+            byte fill = isCharacterLookup() ? (byte) ' ' : 0;
+            byte[] previous = new byte[keyLength];
+            int keyEnd = NODE_SIZE;
+            for (int i = 0; i < count; i++) {
+                long entry = 0;
+                for (int b = entryLength - 1; b >= 0; b--) {
+                    entry = entry << 8 | (page[24 + i * entryLength + b] & 0xff);
+                }
+                int duplicates = (int) (entry >>> recordBits) & duplicateMask;
+                int trail = (int) (entry >>> (recordBits + duplicateBits)) & trailMask;
+                int length = keyLength - duplicates - trail;
+                keyEnd -= length;
+                if (length < 0 || keyEnd < 24 + count * entryLength) {
+                    throw corrupted(offset);
+                }
+                byte[] key = new byte[keyLength];
+                System.arraycopy(previous, 0, key, 0, duplicates);
+                System.arraycopy(page, keyEnd, key, duplicates, length);
+                for (int k = keyLength - trail; k < keyLength; k++) {
+                    key[k] = fill;
+                }
+                keys[i] = key;
+                pointers[i] = entry & recordMask;
+                previous = key;
+            }
+            return new Node(true, keys, pointers);
+        }
+
+        private DbfException corrupted(long offset) {
+            return new DbfException("Node at " + offset + " of tag " + getName() + " is corrupted");
+        }
+
+        @Override
+        double decodeNumber(byte[] key) {
+            long bits = ByteBuffer.wrap(key).order(ByteOrder.BIG_ENDIAN).getLong(0);
+            // positive values are stored with inverted sign bit, negative values with all bits inverted
+            return Double.longBitsToDouble(bits < 0 ? bits ^ Long.MIN_VALUE : ~bits);
+        }
+    }
+}
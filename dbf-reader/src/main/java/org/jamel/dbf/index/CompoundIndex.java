@@ -0,0 +1,108 @@
+package org.jamel.dbf.index;
+
+import java.io.Closeable;
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfHeader;
+
+/**
+ * Index file with several named indexes (tags). Tags share the file and its page cache,
+ * they are closed together with the file.
+ */
+public abstract class CompoundIndex implements Closeable {
+
+    private final IndexPages pages;
+    private final Map<String, DbfIndex> tags = new LinkedHashMap<>();
+
+    /* package */ CompoundIndex(File file) throws DbfException {
+        this.pages = new IndexPages(file);
+    }
+
+    /**
+     * Opens .mdx or .cdx file depending on its extension.
+     *
+     * @param file index file
+     * @param charset charset of character keys
+     */
+    public static CompoundIndex open(File file, Charset charset) throws DbfException {
+        return open(file, charset, null);
+    }
+
+    /**
+     * Opens .mdx or .cdx file depending on its extension.
+     *
+     * @param file index file
+     * @param charset charset of character keys
+     * @param header header of the indexed dbf file, which tells the type of keys of .cdx tags
+     *               on fields, or {@code null}
+     * @see CdxFile#CdxFile(File, Charset, DbfHeader)
+     */
+    public static CompoundIndex open(File file, Charset charset, DbfHeader header) throws DbfException {
+        return file.getName().toLowerCase().endsWith(".cdx")
+                ? new CdxFile(file, charset, header)
+                : new MdxFile(file, charset);
+    }
+
+    /**
+     * Finds production index of the dbf file, i.e. the file with the same name
+     * and extension .mdx or .cdx in any case. Dbf files with production index
+     * have {@link org.jamel.dbf.structure.DbfHeader#hasProductionIndex()} flag.
+     *
+     * @return index file or {@code null} if there is no such file.
+     */
+    public static File productionIndexOf(File dbf) {
+        String name = dbf.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        for (String extension : new String[]{".cdx", ".CDX", ".mdx", ".MDX"}) {
+            File index = new File(dbf.getParentFile(), base + extension);
+            if (index.isFile()) {
+                return index;
+            }
+        }
+        return null;
+    }
+
+    /* package */ IndexPages getPages() {
+        return pages;
+    }
+
+    /* package */ void addTag(DbfIndex tag) {
+        tags.put(tag.getName().toUpperCase(), tag);
+    }
+
+    /**
+     * @return names of the tags in the order they are stored in the file.
+     */
+    public List<String> getTagNames() {
+        List<String> names = new ArrayList<>(tags.size());
+        for (DbfIndex tag : tags.values()) {
+            names.add(tag.getName());
+        }
+        return names;
+    }
+
+    /**
+     * @param name name of the tag, case insensitive
+     * @return index of the tag
+     * @throws DbfException if there's no tag with the name
+     */
+    public DbfIndex getTag(String name) throws DbfException {
+        DbfIndex tag = tags.get(name.toUpperCase());
+        if (tag == null) {
+            throw new DbfException(String.format("Tag \"%s\" does not exist", name));
+        }
+        return tag;
+    }
+
+    @Override
+    public void close() {
+        pages.close();
+    }
+}
@@ -0,0 +1,277 @@
+package org.jamel.dbf.index;
+
+import java.io.Closeable;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.utils.DbfUtils;
+
+/**
+ * B-tree index of dbf file. Lookups return zero-based indexes of the records in
+ * the order of the index, the records are read by {@link org.jamel.dbf.DbfReader#seekToRecord(long)}.
+ * Keys of character indexes are given as {@link String} (encoded with the index charset)
+ * or {@code byte[]}, keys of numeric and date indexes as {@link Number}, {@link Date} or {@link LocalDate}.
+ * Only ascending indexes are supported. This class is not thread safe.
+ *
+ * <pre>
+ * try (NdxIndex index = new NdxIndex(new File("customer.ndx"))) {
+ *     for (int n : index.find("SMITH")) {
+ *         reader.seekToRecord(n);
+ *         Object[] record = reader.nextRecord();
+ *     }
+ * }
+ * </pre>
+ */
+public abstract class DbfIndex implements Closeable {
+
+    /** Julian day number of 1970-01-01 */
+    private static final int JULIAN_DAY_1970 = 2440588;
+    private static final int MAX_DEPTH = 64;
+
+    private final IndexPages pages;
+    private final boolean ownsPages;
+    private final Charset charset;
+    private String name;
+    private String keyExpression;
+    private int keyLength;
+    /** Type of the keys, {@code null} if it is not known and is taken from the keys of each lookup */
+    private Boolean character;
+    private boolean characterLookup;
+    private boolean descending;
+
+    /* package */ DbfIndex(IndexPages pages, boolean ownsPages, Charset charset) {
+        this.pages = pages;
+        this.ownsPages = ownsPages;
+        this.charset = charset;
+    }
+
+    /* package */ void init(String name, String keyExpression, int keyLength, Boolean character,
+            boolean descending) {
+        this.name = name;
+        this.keyExpression = keyExpression;
+        this.keyLength = keyLength;
+        this.character = character;
+        this.descending = descending;
+    }
+
+    /**
+     * @return name of the index tag, or the name of the file for single index files.
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * @return dBASE expression the keys are calculated by, e.g. {@code UPPER(NAME)}.
+     */
+    public String getKeyExpression() {
+        return keyExpression;
+    }
+
+    public int getKeyLength() {
+        return keyLength;
+    }
+
+    /**
+     * Finds records with the given key.
+     *
+     * @param key value of the key
+     * @return zero-based indexes of the records
+     * @throws DbfException if the key cannot be compared with keys of this index, is longer than
+     * the keys of this index or the file cannot be read
+     */
+    public int[] find(Object key) throws DbfException {
+        if (key == null) {
+            throw new DbfException("Key must not be null");
+        }
+        return findRange(key, key);
+    }
+
+    /**
+     * Finds records with keys in the range [from, to] in the order of the index.
+     *
+     * @param from lower bound or {@code null} if the range is not bounded below
+     * @param to upper bound or {@code null} if the range is not bounded above
+     * @return zero-based indexes of the records
+     * @throws DbfException if the keys cannot be compared with keys of this index or the file cannot be read
+     */
+    public int[] findRange(Object from, Object to) throws DbfException {
+        if (descending) {
+            throw new DbfException("Descending index " + name + " is not supported");
+        }
+        characterLookup = character != null ? character : isCharacterKey(from != null ? from : to);
+        Object preparedFrom = from == null ? null : prepareKey(from);
+        Object preparedTo = to == null ? null : prepareKey(to);
+        RecordList records = new RecordList();
+        long root = rootPointer();
+        if (root > 0) {
+            scan(root, preparedFrom, preparedTo, records, 0);
+        }
+        return records.toArray();
+    }
+
+    /**
+     * Adds records of the subtree which keys are in the range.
+     *
+     * @return {@code false} if a key greater than the upper bound was reached.
+     */
+    private boolean scan(long pointer, Object from, Object to, RecordList records, int depth) {
+        if (depth > MAX_DEPTH) {
+            throw new DbfException("Index " + name + " is corrupted: B-tree is too deep");
+        }
+        Node node = readNode(pointer);
+        int i = from == null ? 0 : lowerBound(node, from);
+        if (node.leaf) {
+            for (; i < node.keys.length; i++) {
+                if (to != null && compare(node.keys[i], to) > 0) {
+                    return false;
+                }
+                records.add((int) node.pointers[i] - 1);
+            }
+            return true;
+        }
+        for (; i < node.pointers.length; i++) {
+            if (!scan(node.pointers[i], from, to, records, depth + 1)) {
+                return false;
+            }
+            from = null; // keys of the following subtrees are not less than the lower bound
+        }
+        return true;
+    }
+
+    /**
+     * @return index of the first key which is not less than the given one. Keys of
+     * interior nodes are the greatest keys of their subtrees, so it is also the index
+     * of the subtree to descend to.
+     */
+    private int lowerBound(Node node, Object key) {
+        int low = 0;
+        int high = node.keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(node.keys[mid], key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private static boolean isCharacterKey(Object key) {
+        return key == null || key instanceof String || key instanceof byte[];
+    }
+
+    private Object prepareKey(Object key) {
+        boolean characterKey = isCharacterKey(key);
+        if (characterLookup != characterKey) {
+            throw new DbfException(String.format("Key of type %s is not supported by %s index %s",
+                    key.getClass().getName(), characterLookup ? "character" : "numeric", name));
+        }
+        if (characterKey) {
+            byte[] bytes = key instanceof String ? ((String) key).getBytes(charset) : (byte[]) key;
+            for (int i = keyLength; i < bytes.length; i++) {
+                // keys are padded with spaces, a longer key would match its truncated prefix
+                if (bytes[i] != ' ') {
+                    throw new DbfException(String.format("Key is longer than %d bytes of index %s", keyLength, name));
+                }
+            }
+            byte[] padded = Arrays.copyOf(bytes, keyLength);
+            Arrays.fill(padded, Math.min(bytes.length, keyLength), keyLength, (byte) ' ');
+            return padded;
+        }
+        if (key instanceof Number) {
+            return ((Number) key).doubleValue();
+        }
+        if (key instanceof LocalDate) {
+            return (double) (((LocalDate) key).toEpochDay() + JULIAN_DAY_1970);
+        }
+        if (key instanceof Date) {
+            Calendar calendar = Calendar.getInstance();
+            calendar.setTime((Date) key);
+            int epochDay = DbfUtils.toEpochDay(calendar.get(Calendar.YEAR),
+                    calendar.get(Calendar.MONTH) + 1, calendar.get(Calendar.DAY_OF_MONTH));
+            return (double) (epochDay + JULIAN_DAY_1970);
+        }
+        throw new DbfException("Unsupported key type: " + key.getClass().getName());
+    }
+
+    private int compare(byte[] storedKey, Object key) {
+        if (key instanceof byte[]) {
+            byte[] bytes = (byte[]) key;
+            for (int i = 0; i < bytes.length; i++) {
+                int diff = (storedKey[i] & 0xff) - (bytes[i] & 0xff);
+                if (diff != 0) return diff;
+            }
+            return 0;
+        }
+        double stored = decodeNumber(storedKey);
+        double value = (Double) key;
+        return stored < value ? -1 : stored > value ? 1 : 0;
+    }
+
+    /**
+     * @return whether keys of the current lookup are character, i.e. keys of the index
+     * if their type is known.
+     */
+    /* package */ boolean isCharacterLookup() {
+        return characterLookup;
+    }
+
+    /* package */ IndexPages getPages() {
+        return pages;
+    }
+
+    /**
+     * @return pointer to the root node, 0 if the index is empty.
+     */
+    /* package */ abstract long rootPointer();
+
+    /* package */ abstract Node readNode(long pointer);
+
+    /* package */ abstract double decodeNumber(byte[] key);
+
+    @Override
+    public void close() {
+        if (ownsPages) {
+            pages.close();
+        }
+    }
+
+    /**
+     * Node of B-tree. Interior nodes have the same number of children as keys
+     * or one more child for keys greater than the last key.
+     */
+    /* package */ static final class Node {
+        final boolean leaf;
+        final byte[][] keys;
+        /** Child pointers of interior nodes or one-based record numbers of leaves */
+        final long[] pointers;
+
+        Node(boolean leaf, byte[][] keys, long[] pointers) {
+            this.leaf = leaf;
+            this.keys = keys;
+            this.pointers = pointers;
+        }
+    }
+
+    private static final class RecordList {
+        private int[] records = new int[16];
+        private int size;
+
+        void add(int record) {
+            if (size == records.length) {
+                records = Arrays.copyOf(records, size * 2);
+            }
+            records[size++] = record;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(records, size);
+        }
+    }
+}
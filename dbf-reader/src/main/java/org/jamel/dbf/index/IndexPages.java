@@ -0,0 +1,76 @@
+package org.jamel.dbf.index;
+
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jamel.dbf.exception.DbfException;
+
+/**
+ * Pages of an index file with LRU cache of recently read pages,
+ * so upper levels of B-trees are read from the disk once.
+ */
+/* package */ class IndexPages implements Closeable {
+
+    private static final int CACHED_PAGES = 256;
+
+    private final File file;
+    private final FileChannel channel;
+    private final Map<Long, byte[]> cache = new LinkedHashMap<Long, byte[]>(64, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<Long, byte[]> eldest) {
+            return size() > CACHED_PAGES;
+        }
+    };
+
+    IndexPages(File file) throws DbfException {
+        this.file = file;
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        } catch (IOException e) {
+            throw new DbfException("Cannot open index file " + file, e);
+        }
+    }
+
+    File getFile() {
+        return file;
+    }
+
+    /**
+     * @return page of the given length at the given offset of the file, it must not be modified.
+     */
+    byte[] read(long offset, int length) throws DbfException {
+        byte[] page = cache.get(offset);
+        if (page == null || page.length != length) {
+            page = new byte[length];
+            ByteBuffer buf = ByteBuffer.wrap(page);
+            try {
+                while (buf.hasRemaining()) {
+                    if (channel.read(buf, offset + buf.position()) < 0) {
+                        throw new EOFException("Unexpected end of index file " + file);
+                    }
+                }
+            } catch (IOException e) {
+                throw new DbfException("Cannot read page at " + offset + " of index file " + file, e);
+            }
+            cache.put(offset, page);
+        }
+        return page;
+    }
+
+    @Override
+    public void close() {
+        try {
+            cache.clear();
+            channel.close();
+        } catch (IOException e) {
+            throw new DbfException("Cannot close index file " + file, e);
+        }
+    }
+}
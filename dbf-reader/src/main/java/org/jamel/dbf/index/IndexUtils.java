@@ -0,0 +1,23 @@
+package org.jamel.dbf.index;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/* package */ final class IndexUtils {
+
+    private IndexUtils() {
+    }
+
+    /**
+     * @return ASCII string which ends at the first zero byte or at the end of the range, without trailing spaces.
+     */
+    static String readString(byte[] buf, int offset, int maxLength) {
+        int end = offset;
+        while (end < offset + maxLength && buf[end] != 0) end++;
+        return new String(buf, offset, end - offset, StandardCharsets.US_ASCII).trim();
+    }
+
+    static byte[] copy(byte[] buf, int offset, int length) {
+        return Arrays.copyOfRange(buf, offset, offset + length);
+    }
+}
@@ -0,0 +1,131 @@
+package org.jamel.dbf.index;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+import org.jamel.dbf.exception.DbfException;
+
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * dBASE IV multiple index file (.mdx). Pages of the file are 512 bytes, nodes of the
+ * B-trees take one or more pages. Character keys are padded with spaces, numeric keys
+ * are stored in 12 byte BCD format and dates as julian day numbers in doubles.
+ *
+ * @see <a href="http://www.clicketyclick.dk/databases/xbase/format/mdx.html">MDX format</a>
+ */
+public class MdxFile extends CompoundIndex {
+
+    private static final int PAGE_SIZE = 512;
+    private static final int TAG_TABLE_OFFSET = 544;
+
+    public MdxFile(File file) throws DbfException {
+        this(file, defaultCharset());
+    }
+
+    /**
+     * @param file index file
+     * @param charset charset of character keys
+     */
+    public MdxFile(File file, Charset charset) throws DbfException {
+        super(file);
+        try {
+            ByteBuffer header = ByteBuffer.wrap(getPages().read(0, TAG_TABLE_OFFSET)).order(ByteOrder.LITTLE_ENDIAN);
+            int blockSize = header.getShort(22) & 0xffff;
+            int entryLength = header.get(26) & 0xff;
+            int tagCount = header.getShort(28) & 0xffff;
+            if (blockSize < PAGE_SIZE || entryLength < 21 || tagCount > 48) {
+                throw new DbfException("Invalid header of index file " + file);
+            }
+            ByteBuffer tagTable = ByteBuffer.wrap(getPages().read(TAG_TABLE_OFFSET, tagCount * entryLength))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            for (int i = 0; i < tagCount; i++) {
+                int entry = i * entryLength;
+                long headerPage = tagTable.getInt(entry) & 0xffffffffL;
+                String name = IndexUtils.readString(tagTable.array(), entry + 4, 11);
+                addTag(new Tag(this, charset, blockSize, headerPage, name));
+            }
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    private static final class Tag extends DbfIndex {
+        private static final int DESCENDING = 0x08;
+
+        private final int blockSize;
+        private final long root;
+        private final byte keyType;
+        private final int keyItemLength;
+
+        Tag(MdxFile file, Charset charset, int blockSize, long headerPage, String name) {
+            super(file.getPages(), false, charset);
+            this.blockSize = blockSize;
+            ByteBuffer header = ByteBuffer.wrap(getPages().read(headerPage * PAGE_SIZE, PAGE_SIZE))
+                    .order(ByteOrder.LITTLE_ENDIAN);
+            root = header.getInt(0) & 0xffffffffL;
+            keyType = header.get(9);
+            int keyLength = header.getShort(12) & 0xffff;
+            keyItemLength = header.getShort(18) & 0xffff;
+            if (keyLength == 0 || keyItemLength < keyLength + 4) {
+                throw new DbfException("Invalid key length " + keyLength + " of tag " + name);
+            }
+            init(name, IndexUtils.readString(header.array(), 24, 220), keyLength, keyType == 'C',
+                    (header.get(8) & DESCENDING) != 0);
+        }
+
+        @Override
+        long rootPointer() {
+            return root;
+        }
+
+        @Override
+        Node readNode(long page) {
+            ByteBuffer buf = ByteBuffer.wrap(getPages().read(page * PAGE_SIZE, blockSize)).order(ByteOrder.LITTLE_ENDIAN);
+            int count = buf.getInt(0);
+            int maxCount = (blockSize - 8) / keyItemLength;
+            if (count < 0 || count > maxCount) {
+                throw new DbfException("Invalid number of keys " + count + " at page " + page + " of tag " + getName());
+            }
+            // interior nodes have one more pointer after the last key, leaves have 0 there
+            boolean leaf = count == maxCount || buf.getInt(8 + count * keyItemLength) == 0;
+            byte[][] keys = new byte[count][];
+            long[] pointers = new long[leaf ? count : count + 1];
+            for (int i = 0; i < pointers.length; i++) {
+                int item = 8 + i * keyItemLength;
+                if (i < count) {
+                    keys[i] = IndexUtils.copy(buf.array(), item + 4, getKeyLength());
+                }
+                pointers[i] = buf.getInt(item) & 0xffffffffL;
+            }
+            return new Node(leaf, keys, pointers);
+        }
+
+        @Override
+        double decodeNumber(byte[] key) {
+            if (keyType == 'D') {
+                return ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN).getDouble(0);
+            }
+            // 0.d1d2...d20 * 10^(key[0] - 0x34), digits are packed by two in bytes 2-11
+            int exponent = (key[0] & 0xff) - 0x34;
+            int length = 20;
+            while (length > 0 && digit(key, length - 1) == 0) length--;
+            length = Math.min(length, 18);
+            long mantissa = 0;
+            for (int i = 0; i < length; i++) {
+                mantissa = mantissa * 10 + digit(key, i);
+            }
+            int scale = length - exponent;
+            double value = scale > 0 ? mantissa / Math.pow(10, scale) : mantissa * Math.pow(10, -scale);
+            return (key[1] & 0x80) != 0 ? -value : value;
+        }
+
+        private static int digit(byte[] key, int i) {
+            int b = key[2 + i / 2];
+            return (i % 2 == 0 ? b >>> 4 : b) & 0x0f;
+        }
+    }
+}
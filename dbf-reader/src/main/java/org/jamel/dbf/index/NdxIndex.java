@@ -0,0 +1,81 @@
+package org.jamel.dbf.index;
+
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.Charset;
+
+import org.jamel.dbf.exception.DbfException;
+
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * dBASE III single index file (.ndx). The file consists of 512 byte pages, the first one
+ * is the header. Numeric and date keys are stored as doubles, dates as julian day numbers.
+ *
+ * @see <a href="http://www.clicketyclick.dk/databases/xbase/format/ndx.html">NDX format</a>
+ */
+public class NdxIndex extends DbfIndex {
+
+    private static final int PAGE_SIZE = 512;
+
+    private final long root;
+    private final int keyEntryLength;
+
+    public NdxIndex(File file) throws DbfException {
+        this(file, defaultCharset());
+    }
+
+    /**
+     * @param file index file
+     * @param charset charset of character keys
+     */
+    public NdxIndex(File file, Charset charset) throws DbfException {
+        super(new IndexPages(file), true, charset);
+        try {
+            ByteBuffer header = ByteBuffer.wrap(getPages().read(0, PAGE_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+            root = header.getInt(0) & 0xffffffffL;
+            int keyLength = header.getShort(12) & 0xffff;
+            boolean character = header.getShort(16) == 0;
+            keyEntryLength = header.getShort(18) & 0xffff;
+            if (keyLength == 0 || keyEntryLength < keyLength + 8) {
+                throw new DbfException("Invalid key length " + keyLength + " of index file " + file);
+            }
+            init(file.getName(), IndexUtils.readString(header.array(), 24, PAGE_SIZE - 24), keyLength, character, false);
+        } catch (RuntimeException e) {
+            close();
+            throw e;
+        }
+    }
+
+    @Override
+    long rootPointer() {
+        return root;
+    }
+
+    @Override
+    Node readNode(long page) {
+        ByteBuffer buf = ByteBuffer.wrap(getPages().read(page * PAGE_SIZE, PAGE_SIZE)).order(ByteOrder.LITTLE_ENDIAN);
+        int count = buf.getInt(0);
+        // interior nodes have one more pointer after the last key
+        boolean leaf = count == 0 || buf.getInt(4) == 0;
+        if (count < 0 || 4 + (leaf ? count : count + 1) * keyEntryLength > PAGE_SIZE) {
+            throw new DbfException("Invalid number of keys " + count + " at page " + page + " of index " + getName());
+        }
+        byte[][] keys = new byte[count][];
+        long[] pointers = new long[leaf ? count : count + 1];
+        for (int i = 0; i < pointers.length; i++) {
+            int entry = 4 + i * keyEntryLength;
+            if (i < count) {
+                keys[i] = IndexUtils.copy(buf.array(), entry + 8, getKeyLength());
+            }
+            pointers[i] = buf.getInt(leaf ? entry + 4 : entry) & 0xffffffffL;
+        }
+        return new Node(leaf, keys, pointers);
+    }
+
+    @Override
+    double decodeNumber(byte[] key) {
+        return ByteBuffer.wrap(key).order(ByteOrder.LITTLE_ENDIAN).getDouble(0);
+    }
+}
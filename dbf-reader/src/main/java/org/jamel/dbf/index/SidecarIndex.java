@@ -0,0 +1,524 @@
+package org.jamel.dbf.index;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.jamel.dbf.DbfCursor;
+import org.jamel.dbf.DbfRandomAccessReader;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * Sorted index of one field of a dbf file, kept in a separate file. The index is built
+ * by a single scan of the dbf file and is stamped with the length and the modification
+ * time of the file, so the index of a changed file is detected and is not used.
+ * Lookups binary search the memory mapped index, so they don't read the dbf file at all.
+ * Records with NULL values of the field are not indexed. This class is not thread safe.
+ *
+ * <pre>
+ * try (SidecarIndex index = SidecarIndex.openOrBuild(dbf, "INN", new File("customer.inn.idx"), charset)) {
+ *     int[] records = index.find("7701234567");
+ * }
+ * </pre>
+ */
+public class SidecarIndex implements Closeable {
+
+    private static final byte[] MAGIC = "DBFSIDX1".getBytes(StandardCharsets.US_ASCII);
+    private static final int HEADER_LENGTH = 64;
+    private static final int FIELD_NAME_LENGTH = 11;
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    private final Charset charset;
+    private final String fieldName;
+    private final DbfDataType dataType;
+    private final int keyLength;
+    private final int entryLength;
+    private final int size;
+    private ByteBuffer entries;
+
+    public SidecarIndex(File dbf, File index) throws DbfException {
+        this(dbf, index, defaultCharset());
+    }
+
+    /**
+     * Opens the index of the dbf file.
+     *
+     * @param dbf indexed dbf file
+     * @param index index file
+     * @param charset charset of character keys
+     * @throws DbfException if the index cannot be read or the dbf file was changed after the index was built
+     */
+    public SidecarIndex(File dbf, File index, Charset charset) throws DbfException {
+        this.charset = charset;
+        try (FileChannel channel = FileChannel.open(index.toPath(), StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_LENGTH || channel.size() > Integer.MAX_VALUE) {
+                throw new DbfException("Invalid length of index file " + index);
+            }
+            ByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            byte[] magic = new byte[MAGIC.length];
+            buf.get(magic);
+            if (!Arrays.equals(MAGIC, magic)) {
+                throw new DbfException("File " + index + " is not an index");
+            }
+            if (buf.getLong(8) != dbf.length() || buf.getLong(16) != dbf.lastModified()) {
+                throw new DbfException(String.format("Index %s is out of date with %s", index, dbf));
+            }
+            size = buf.getInt(24);
+            keyLength = buf.getInt(28);
+            entryLength = keyLength + 4;
+            dataType = dataType(buf.get(32));
+            fieldName = IndexUtils.readString(readBytes(buf, 33, FIELD_NAME_LENGTH), 0, FIELD_NAME_LENGTH);
+            if (HEADER_LENGTH + (long) size * entryLength != channel.size()) {
+                throw new DbfException("Index file " + index + " is truncated");
+            }
+            buf.position(HEADER_LENGTH);
+            entries = buf.slice();
+        } catch (IOException e) {
+            throw new DbfException("Cannot open index file " + index, e);
+        }
+    }
+
+    /**
+     * Checks if the index exists and was built for the current state of the dbf file.
+     */
+    public static boolean isUpToDate(File dbf, File index) {
+        if (!index.isFile() || index.length() < HEADER_LENGTH) {
+            return false;
+        }
+        try (FileChannel channel = FileChannel.open(index.toPath(), StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            while (header.hasRemaining() && channel.read(header) >= 0) {
+                // read the whole header
+            }
+            byte[] magic = Arrays.copyOf(header.array(), MAGIC.length);
+            return Arrays.equals(MAGIC, magic)
+                    && header.getLong(8) == dbf.length()
+                    && header.getLong(16) == dbf.lastModified();
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Opens the index, the index is built first if it doesn't exist or is out of date.
+     *
+     * @see #build(File, String, File)
+     */
+    public static SidecarIndex openOrBuild(File dbf, String fieldName, File index, Charset charset)
+            throws DbfException {
+        if (!isUpToDate(dbf, index)) {
+            build(dbf, fieldName, index);
+        }
+        SidecarIndex sidecar = new SidecarIndex(dbf, index, charset);
+        if (!sidecar.getFieldName().equals(fieldName)) {
+            sidecar.close();
+            build(dbf, fieldName, index);
+            sidecar = new SidecarIndex(dbf, index, charset);
+        }
+        return sidecar;
+    }
+
+    /**
+     * Builds index of the field. Supported fields are CHAR, NUMERIC, FLOAT, DATE and LOGICAL.
+     *
+     * @param dbf dbf file to index
+     * @param fieldName name of the indexed field
+     * @param index index file, it is overwritten
+     * @throws DbfException if the field doesn't exist or has unsupported type, or the files cannot be read or written
+     */
+    public static void build(File dbf, String fieldName, File index) throws DbfException {
+        // stamp is taken before the scan, so changes made during the scan make the index out of date
+        long length = dbf.length();
+        long lastModified = dbf.lastModified();
+        try (DbfReader reader = new DbfReader(dbf, true)) {
+            DbfHeader header = reader.getHeader();
+            int col = header.getFieldIndex(fieldName);
+            if (col < 0) {
+                throw new DbfException(String.format("Field \"%s\" does not exist", fieldName));
+            }
+            DbfField field = header.getField(col);
+            int keyLength = keyLength(field);
+            int entryLength = keyLength + 4;
+
+            byte[] entries = new byte[Math.max(1, Math.min(header.getNumberOfRecords(), 1 << 20)) * entryLength];
+            byte[] value = new byte[field.getFieldLength()];
+            int count = 0;
+            DbfCursor cursor = reader.cursor();
+            while (cursor.next()) {
+                if ((long) (count + 1) * entryLength > Integer.MAX_VALUE - HEADER_LENGTH) {
+                    throw new DbfException("Too many records to index " + dbf);
+                }
+                if (entries.length < (count + 1) * entryLength) {
+                    entries = Arrays.copyOf(entries, (int) Math.min(2L * entries.length, Integer.MAX_VALUE - 8));
+                }
+                int offset = count * entryLength;
+                if (readKey(cursor, col, field, value, entries, offset)) {
+                    writeInt(entries, offset + keyLength, cursor.getRecordIndex());
+                    count++;
+                }
+            }
+
+            int[] order = sort(entries, count, keyLength, entryLength);
+            write(index, field, length, lastModified, entries, order, entryLength);
+        }
+    }
+
+    private static int keyLength(DbfField field) {
+        switch (field.getDataType()) {
+            case CHAR: return field.getFieldLength();
+            case NUMERIC:
+            case FLOAT: return 8;
+            case DATE: return 8;
+            case LOGICAL: return 1;
+            default: throw new DbfException(String.format("Field \"%s\" of type %s cannot be indexed",
+                    field.getName(), field.getDataType()));
+        }
+    }
+
+    private static DbfDataType dataType(byte type) {
+        for (DbfDataType dataType : DbfDataType.values()) {
+            if (dataType.byteValue == type) {
+                return dataType;
+            }
+        }
+        throw new DbfException("Unsupported field type of index: " + (char) type);
+    }
+
+    /**
+     * Writes sortable key of the current record into the entries.
+     *
+     * @return {@code false} if the value is NULL
+     */
+    private static boolean readKey(DbfCursor cursor, int col, DbfField field, byte[] value, byte[] entries, int offset) {
+        switch (field.getDataType()) {
+            case CHAR:
+            case DATE:
+                if (cursor.isNull(col)) {
+                    return false;
+                }
+                cursor.getBytes(col, value);
+                System.arraycopy(value, 0, entries, offset, value.length);
+                return true;
+            case NUMERIC:
+            case FLOAT:
+                if (cursor.isNull(col)) {
+                    return false;
+                }
+                writeLong(entries, offset, sortableBits(cursor.getDouble(col)));
+                return true;
+            default:
+                cursor.getBytes(col, value);
+                byte logical = logical(value[0]);
+                entries[offset] = logical;
+                return logical != 0;
+        }
+    }
+
+    private static byte logical(byte value) {
+        switch (value) {
+            case 'T': case 't': case 'Y': case 'y': return 'T';
+            case 'F': case 'f': case 'N': case 'n': return 'F';
+            default: return 0;
+        }
+    }
+
+    /**
+     * @return bits of the double which sort as unsigned bytes in the order of the values.
+     */
+    private static long sortableBits(double value) {
+        long bits = Double.doubleToLongBits(value == 0 ? 0.0 : value);
+        return bits < 0 ? ~bits : bits ^ Long.MIN_VALUE;
+    }
+
+    /**
+     * Stable merge sort of the entries by their keys.
+     *
+     * @return indexes of the entries in the sorted order.
+     */
+    private static int[] sort(byte[] entries, int count, int keyLength, int entryLength) {
+        int[] order = new int[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        int[] buffer = new int[count];
+        for (int width = 1; width < count; width *= 2) {
+            for (int low = 0; low < count - width; low += 2 * width) {
+                int mid = low + width;
+                int high = Math.min(low + 2 * width, count);
+                int i = low, j = mid, k = low;
+                while (i < mid && j < high) {
+                    boolean right = compareEntries(entries, order[j] * entryLength, order[i] * entryLength, keyLength) < 0;
+                    buffer[k++] = right ? order[j++] : order[i++];
+                }
+                while (i < mid) buffer[k++] = order[i++];
+                while (j < high) buffer[k++] = order[j++];
+                System.arraycopy(buffer, low, order, low, high - low);
+            }
+        }
+        return order;
+    }
+
+    private static int compareEntries(byte[] entries, int a, int b, int keyLength) {
+        for (int i = 0; i < keyLength; i++) {
+            int diff = (entries[a + i] & 0xff) - (entries[b + i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return 0;
+    }
+
+    private static void write(File index, DbfField field, long length, long lastModified,
+            byte[] entries, int[] order, int entryLength) {
+        try (FileChannel channel = FileChannel.open(index.toPath(), StandardOpenOption.CREATE,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buf = ByteBuffer.allocate(Math.max(WRITE_BUFFER_SIZE, HEADER_LENGTH + entryLength));
+            buf.put(MAGIC);
+            buf.putLong(length);
+            buf.putLong(lastModified);
+            buf.putInt(order.length);
+            buf.putInt(entryLength - 4);
+            buf.put(field.getDataType().byteValue);
+            byte[] name = Arrays.copyOf(field.getName().getBytes(StandardCharsets.US_ASCII), FIELD_NAME_LENGTH);
+            buf.put(name);
+            buf.position(HEADER_LENGTH);
+            for (int entry : order) {
+                if (buf.remaining() < entryLength) {
+                    flush(channel, buf);
+                }
+                buf.put(entries, entry * entryLength, entryLength);
+            }
+            flush(channel, buf);
+        } catch (IOException e) {
+            throw new DbfException("Cannot write index file " + index, e);
+        }
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buf) throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) {
+            channel.write(buf);
+        }
+        buf.clear();
+    }
+
+    public String getFieldName() {
+        return fieldName;
+    }
+
+    /**
+     * @return number of indexed records.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Finds records with the given value of the field.
+     *
+     * @param key {@link String} or {@code byte[]} for CHAR fields, {@link Number} for NUMERIC and FLOAT,
+     *            {@link Date} or {@link LocalDate} for DATE and {@link Boolean} for LOGICAL fields
+     * @return zero-based indexes of the records in ascending order
+     * @throws DbfException if the key is of unsupported type or longer than the CHAR field
+     */
+    public int[] find(Object key) throws DbfException {
+        if (key == null) {
+            throw new DbfException("Key must not be null");
+        }
+        return findRange(key, key);
+    }
+
+    /**
+     * Finds records with values of the field in the range [from, to].
+     *
+     * @param from lower bound or {@code null} if the range is not bounded below
+     * @param to upper bound or {@code null} if the range is not bounded above
+     * @return zero-based indexes of the records in the order of the values
+     * @see #find(Object)
+     */
+    public int[] findRange(Object from, Object to) throws DbfException {
+        checkOpen();
+        byte[] fromKey = from == null ? null : encodeKey(from);
+        byte[] toKey = to == null ? null : encodeKey(to);
+        int first = fromKey == null ? 0 : lowerBound(fromKey);
+        int last = first;
+        while (last < size && (toKey == null || compare(last, toKey) <= 0)) {
+            last++;
+        }
+        int[] records = new int[last - first];
+        for (int i = first; i < last; i++) {
+            records[i - first] = entries.getInt(i * entryLength + keyLength);
+        }
+        return records;
+    }
+
+    /**
+     * Reads records with the given value of the field.
+     *
+     * @param reader reader of the indexed file, it must support seeking
+     * @throws DbfException if a found record is skipped by the reader, e.g. by its filter
+     * @see #find(Object)
+     */
+    public List<Object[]> readRecords(DbfReader reader, Object key) throws DbfException {
+        int[] records = find(key);
+        List<Object[]> result = new ArrayList<>(records.length);
+        for (int n : records) {
+            reader.seekToRecord(n);
+            Object[] record = reader.nextRecord();
+            // skipped records are not reported, the reader moves to the next matching one
+            if (record == null || reader.getRecordIndex() != n) {
+                throw new DbfException(String.format(
+                        "Record %d found by index of \"%s\" is skipped by the reader", n, fieldName));
+            }
+            result.add(record);
+        }
+        return result;
+    }
+
+    /**
+     * Reads records with the given value of the field by positional reads.
+     *
+     * @param reader reader of the indexed file
+     * @throws DbfException if a found record is deleted
+     * @see #find(Object)
+     */
+    public List<Object[]> readRecords(DbfRandomAccessReader reader, Object key) throws DbfException {
+        int[] records = find(key);
+        List<Object[]> result = new ArrayList<>(records.length);
+        for (int n : records) {
+            Object[] record = reader.readRecord(n);
+            if (record == null) {
+                throw new DbfException(String.format(
+                        "Record %d found by index of \"%s\" is deleted", n, fieldName));
+            }
+            result.add(record);
+        }
+        return result;
+    }
+
+    private int lowerBound(byte[] key) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (compare(mid, key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int compare(int entry, byte[] key) {
+        int offset = entry * entryLength;
+        for (int i = 0; i < keyLength; i++) {
+            int diff = (entries.get(offset + i) & 0xff) - (key[i] & 0xff);
+            if (diff != 0) return diff;
+        }
+        return 0;
+    }
+
+    private byte[] encodeKey(Object key) {
+        byte[] encoded = new byte[keyLength];
+        switch (dataType) {
+            case CHAR:
+                if (key instanceof String || key instanceof byte[]) {
+                    byte[] bytes = key instanceof String ? ((String) key).getBytes(charset) : (byte[]) key;
+                    for (int i = keyLength; i < bytes.length; i++) {
+                        // values are padded with spaces, a longer key would match its truncated prefix
+                        if (bytes[i] != ' ') {
+                            throw new DbfException(String.format("Key is longer than %d bytes of CHAR field \"%s\"",
+                                    keyLength, fieldName));
+                        }
+                    }
+                    Arrays.fill(encoded, (byte) ' ');
+                    System.arraycopy(bytes, 0, encoded, 0, Math.min(bytes.length, keyLength));
+                    return encoded;
+                }
+                break;
+            case NUMERIC:
+            case FLOAT:
+                if (key instanceof Number) {
+                    writeLong(encoded, 0, sortableBits(((Number) key).doubleValue()));
+                    return encoded;
+                }
+                break;
+            case DATE:
+                LocalDate date = null;
+                if (key instanceof LocalDate) {
+                    date = (LocalDate) key;
+                } else if (key instanceof Date) {
+                    Calendar calendar = Calendar.getInstance();
+                    calendar.setTime((Date) key);
+                    date = LocalDate.of(calendar.get(Calendar.YEAR), calendar.get(Calendar.MONTH) + 1,
+                            calendar.get(Calendar.DAY_OF_MONTH));
+                }
+                if (date != null) {
+                    int value = date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+                    for (int i = encoded.length - 1; i >= 0; i--, value /= 10) {
+                        encoded[i] = (byte) ('0' + value % 10);
+                    }
+                    return encoded;
+                }
+                break;
+            default:
+                if (key instanceof Boolean) {
+                    encoded[0] = (Boolean) key ? (byte) 'T' : (byte) 'F';
+                    return encoded;
+                }
+                break;
+        }
+        throw new DbfException(String.format("Key of type %s is not supported by index of %s field \"%s\"",
+                key.getClass().getName(), dataType, fieldName));
+    }
+
+    private static byte[] readBytes(ByteBuffer buf, int offset, int length) {
+        byte[] bytes = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bytes[i] = buf.get(offset + i);
+        }
+        return bytes;
+    }
+
+    private static void writeInt(byte[] buf, int offset, int value) {
+        for (int i = 3; i >= 0; i--, value >>>= 8) {
+            buf[offset + i] = (byte) value;
+        }
+    }
+
+    private static void writeLong(byte[] buf, int offset, long value) {
+        for (int i = 7; i >= 0; i--, value >>>= 8) {
+            buf[offset + i] = (byte) value;
+        }
+    }
+
+    private void checkOpen() {
+        if (entries == null) {
+            throw new DbfException("Index is closed");
+        }
+    }
+
+    /**
+     * Releases the mapped index, the memory is unmapped when the buffer is garbage collected.
+     */
+    @Override
+    public void close() {
+        entries = null;
+    }
+}
@@ -0,0 +1,221 @@
+package org.jamel.dbf.io;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * DataInput implementation backed by a memory mapped file.
+ * The file is mapped by windows of fixed size, so files larger than a single
+ * mapping can be read as well: the next window is mapped as soon as the current
+ * one is exhausted or the position is moved outside of it.
+ * This class is not thread safe.
+ */
+public class MappedDataInput implements DataInput, Closeable {
+
+    public static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final int windowSize;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+
+    public MappedDataInput(File file) throws IOException {
+        this(file, DEFAULT_WINDOW_SIZE);
+    }
+
+    public MappedDataInput(File file, int windowSize) throws IOException {
+        if (windowSize <= 0) {
+            throw new IllegalArgumentException("Window size must be positive: " + windowSize);
+        }
+        this.channel = new RandomAccessFile(file, "r").getChannel();
+        this.windowSize = windowSize;
+        try {
+            map(0);
+        } catch (IOException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * @return current offset in the file.
+     */
+    public long getFilePointer() {
+        return windowStart + window.position();
+    }
+
+    /**
+     * @return current length of the file.
+     */
+    public long length() throws IOException {
+        return channel.size();
+    }
+
+    /**
+     * Sets the file offset at which the next read occurs.
+     * Setting the offset beyond the end of the file is allowed, reads will throw {@link EOFException} then.
+     *
+     * @param position offset from the beginning of the file.
+     */
+    public void seek(long position) throws IOException {
+        if (position < 0) {
+            throw new IOException("Negative seek offset: " + position);
+        }
+        long relative = position - windowStart;
+        if (relative >= 0 && relative <= window.limit()) {
+            window.position((int) relative);
+        } else {
+            map(position);
+        }
+    }
+
+    private void map(long position) throws IOException {
+        long size = Math.max(0, Math.min(windowSize, channel.size() - position));
+        window = channel.map(FileChannel.MapMode.READ_ONLY, position, size);
+        windowStart = position;
+    }
+
+    /**
+     * Maps the window which starts at the current position if the current one is exhausted.
+     *
+     * @return number of bytes which could be read without remapping
+     * @throws EOFException if end of file is reached
+     */
+    private int ensureAvailable() throws IOException {
+        int remaining = window.remaining();
+        if (remaining == 0) {
+            map(getFilePointer());
+            remaining = window.remaining();
+            if (remaining == 0) {
+                throw new EOFException();
+            }
+        }
+        return remaining;
+    }
+
+    @Override
+    public void readFully(byte[] b) throws IOException {
+        readFully(b, 0, b.length);
+    }
+
+    @Override
+    public void readFully(byte[] b, int off, int len) throws IOException {
+        while (len > 0) {
+            int count = Math.min(len, ensureAvailable());
+            window.get(b, off, count);
+            off += count;
+            len -= count;
+        }
+    }
+
+    @Override
+    public int skipBytes(int n) throws IOException {
+        if (n <= 0) {
+            return 0;
+        }
+        long position = getFilePointer();
+        long skipped = Math.min(n, Math.max(0, channel.size() - position));
+        seek(position + skipped);
+        return (int) skipped;
+    }
+
+    @Override
+    public boolean readBoolean() throws IOException {
+        return readByte() != 0;
+    }
+
+    @Override
+    public byte readByte() throws IOException {
+        ensureAvailable();
+        return window.get();
+    }
+
+    @Override
+    public int readUnsignedByte() throws IOException {
+        return readByte() & 0xff;
+    }
+
+    @Override
+    public short readShort() throws IOException {
+        return (short) readUnsignedShort();
+    }
+
+    @Override
+    public int readUnsignedShort() throws IOException {
+        int high = readUnsignedByte();
+        int low = readUnsignedByte();
+        return (high << 8) | low;
+    }
+
+    @Override
+    public char readChar() throws IOException {
+        return (char) readUnsignedShort();
+    }
+
+    @Override
+    public int readInt() throws IOException {
+        return (readUnsignedShort() << 16) | readUnsignedShort();
+    }
+
+    @Override
+    public long readLong() throws IOException {
+        return ((long) readInt() << 32) | (readInt() & 0xffffffffL);
+    }
+
+    @Override
+    public float readFloat() throws IOException {
+        return Float.intBitsToFloat(readInt());
+    }
+
+    @Override
+    public double readDouble() throws IOException {
+        return Double.longBitsToDouble(readLong());
+    }
+
+    @Override
+    public String readLine() throws IOException {
+        StringBuilder sb = new StringBuilder();
+        int c = -1;
+        boolean eol = false;
+        while (!eol) {
+            if (getFilePointer() >= channel.size()) {
+                break;
+            }
+            switch (c = readUnsignedByte()) {
+                case '\n':
+                    eol = true;
+                    break;
+                case '\r':
+                    eol = true;
+                    long cur = getFilePointer();
+                    if (cur < channel.size() && readUnsignedByte() != '\n') {
+                        seek(cur);
+                    }
+                    break;
+                default:
+                    sb.append((char) c);
+                    break;
+            }
+        }
+        return (c == -1 && sb.length() == 0) ? null : sb.toString();
+    }
+
+    @Override
+    public String readUTF() throws IOException {
+        return DataInputStream.readUTF(this);
+    }
+
+    @Override
+    public void close() throws IOException {
+        // mapped buffer itself is released by GC
+        channel.close();
+    }
+}
@@ -0,0 +1,172 @@
+package org.jamel.dbf.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * InputStream which reads a channel ahead in a background thread. The thread fills
+ * a ring of buffers while the caller consumes the previously filled one, so reading
+ * of slow storage overlaps with decoding of the data already read.
+ * Closing the stream stops the thread and closes the channel.
+ * This class is not thread safe.
+ */
+public class ReadAheadInputStream extends InputStream {
+
+    public static final int DEFAULT_BUFFER_SIZE = 1024 * 1024;
+    public static final int DEFAULT_DEPTH = 4;
+
+    /** Marks the end of the channel or a failure of the reading thread */
+    private static final ByteBuffer END = ByteBuffer.allocate(0);
+
+    private final ReadableByteChannel channel;
+    private final BlockingQueue<ByteBuffer> filled;
+    private final BlockingQueue<ByteBuffer> free;
+    private final Thread thread;
+    /** Failure of the reading thread, including unchecked exceptions of the channel */
+    private volatile Throwable failure;
+    private volatile boolean closed;
+    private ByteBuffer current;
+
+    public ReadAheadInputStream(ReadableByteChannel channel) {
+        this(channel, DEFAULT_BUFFER_SIZE, DEFAULT_DEPTH);
+    }
+
+    /**
+     * @param channel channel to read
+     * @param bufferSize size of each buffer of the ring
+     * @param depth number of buffers of the ring, at least 2 to overlap reading and consuming
+     */
+    public ReadAheadInputStream(ReadableByteChannel channel, int bufferSize, int depth) {
+        if (bufferSize <= 0) {
+            throw new IllegalArgumentException("Buffer size must be positive: " + bufferSize);
+        }
+        if (depth < 2) {
+            throw new IllegalArgumentException("Depth must be at least 2: " + depth);
+        }
+        this.channel = channel;
+        // one more slot for the end marker
+        this.filled = new ArrayBlockingQueue<>(depth + 1);
+        this.free = new ArrayBlockingQueue<>(depth);
+        for (int i = 0; i < depth; i++) {
+            free.add(ByteBuffer.allocate(bufferSize));
+        }
+        this.current = END;
+        this.thread = new Thread(new Runnable() {
+            @Override
+            public void run() {
+                readAhead();
+            }
+        }, "dbf-read-ahead");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void readAhead() {
+        try {
+            while (!closed) {
+                ByteBuffer buffer = free.take();
+                buffer.clear();
+                // fill the whole buffer, channels of sockets and pipes return partial reads
+                int read = 0;
+                while (buffer.hasRemaining() && read >= 0) {
+                    read = channel.read(buffer);
+                }
+                buffer.flip();
+                if (buffer.hasRemaining()) {
+                    filled.put(buffer);
+                }
+                if (read < 0) {
+                    break;
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        } catch (Throwable e) {
+            failure = e;
+        } finally {
+            // the caller waits for the marker whatever stopped the thread
+            filled.offer(END);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        return nextBuffer() ? current.get() & 0xff : -1;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (!nextBuffer()) {
+            return -1;
+        }
+        int n = Math.min(len, current.remaining());
+        current.get(b, off, n);
+        return n;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        long skipped = 0;
+        while (skipped < n && nextBuffer()) {
+            int step = (int) Math.min(n - skipped, current.remaining());
+            current.position(current.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available() {
+        return current.remaining();
+    }
+
+    /**
+     * Makes sure the current buffer has data, takes the next filled buffer if needed.
+     *
+     * @return {@code false} at the end of the channel
+     */
+    private boolean nextBuffer() throws IOException {
+        if (closed) {
+            throw new IOException("Stream is closed");
+        }
+        if (current.hasRemaining()) {
+            return true;
+        }
+        if (current != END) {
+            free.add(current);
+        }
+        try {
+            current = filled.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for data");
+        }
+        if (current == END) {
+            // keep the marker for the next calls
+            filled.add(END);
+            if (failure != null) {
+                throw new IOException("Cannot read ahead", failure);
+            }
+            return false;
+        }
+        return true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        thread.interrupt();
+        channel.close();
+    }
+}
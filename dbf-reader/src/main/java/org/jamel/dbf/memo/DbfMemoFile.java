@@ -0,0 +1,236 @@
+package org.jamel.dbf.memo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.jamel.dbf.exception.DbfException;
+
+/**
+ * Memo file (.dbt or .fpt) which keeps the values of MEMO fields. Values are referenced
+ * from the records by the number of the block they start at. Supported formats:
+ * <ul>
+ *     <li>dBASE III .dbt - 512 byte blocks, value is terminated by 0x1A</li>
+ *     <li>dBASE IV .dbt - block size in the header, value starts with FF FF 08 00 and its length</li>
+ *     <li>FoxPro .fpt - block size in the header, value starts with its type and length (big endian)</li>
+ * </ul>
+ * The file is opened on the first read and cannot be read after it is closed. Recently read
+ * values are kept in LRU cache, so values shared by many records are read from the disk once.
+ * This class is not thread safe.
+ *
+ * @see <a href="http://www.clicketyclick.dk/databases/xbase/format/dbt.html">DBT format</a>
+ */
+public class DbfMemoFile implements Closeable {
+
+    public static final int DEFAULT_CACHE_SIZE = 4 * 1024 * 1024;
+
+    private static final int HEADER_LENGTH = 512;
+    private static final int DBASE_BLOCK_SIZE = 512;
+    private static final byte DATA_ENDED = 0x1A;
+
+    private final File file;
+    private final long cacheSize;
+    private final Map<Integer, byte[]> cache = new LinkedHashMap<>(64, 0.75f, true);
+    private long cachedBytes;
+    private FileChannel channel;
+    private boolean closed;
+    private boolean foxPro;
+    private int blockSize;
+    private int diskReads;
+
+    public DbfMemoFile(File file) {
+        this(file, DEFAULT_CACHE_SIZE);
+    }
+
+    /**
+     * @param file memo file, FoxPro format is assumed for files with .fpt extension
+     * @param cacheSize maximum total length of the cached values in bytes, 0 disables caching
+     */
+    public DbfMemoFile(File file, int cacheSize) {
+        this.file = file;
+        this.cacheSize = cacheSize;
+    }
+
+    /**
+     * Finds memo file which belongs to the given dbf file, i.e. the file with the same name
+     * and extension .fpt or .dbt in any case.
+     *
+     * @return memo file or {@code null} if there is no such file.
+     */
+    public static File companionOf(File dbf) {
+        String name = dbf.getName();
+        int dot = name.lastIndexOf('.');
+        String base = dot < 0 ? name : name.substring(0, dot);
+        for (String extension : new String[]{".fpt", ".FPT", ".dbt", ".DBT"}) {
+            File memo = new File(dbf.getParentFile(), base + extension);
+            if (memo.isFile()) {
+                return memo;
+            }
+        }
+        return null;
+    }
+
+    public File getFile() {
+        return file;
+    }
+
+    /**
+     * Reads the value which starts at the given block.
+     *
+     * @param block number of the first block of the value, as stored in MEMO field
+     * @return bytes of the value or {@code null} if the block is 0 (the field is empty)
+     * @throws DbfException if the file cannot be read or is closed.
+     */
+    public byte[] read(int block) throws DbfException {
+        byte[] value = value(block);
+        return value == null ? null : value.clone();
+    }
+
+    /**
+     * Reads the value which starts at the given block as string.
+     *
+     * @see #read(int)
+     */
+    public String readString(int block, Charset charset) throws DbfException {
+        byte[] value = value(block);
+        return value == null ? null : new String(value, charset);
+    }
+
+    /**
+     * @return cached value, it must not be modified.
+     */
+    private byte[] value(int block) {
+        if (block <= 0) {
+            return null;
+        }
+        if (closed) {
+            throw new DbfException("Memo file " + file + " is closed");
+        }
+        byte[] value = cache.get(block);
+        if (value == null) {
+            try {
+                value = readFromDisk(block);
+            } catch (IOException e) {
+                throw new DbfException("Cannot read memo block " + block + " from " + file, e);
+            }
+            putToCache(block, value);
+        }
+        return value;
+    }
+
+    private void putToCache(int block, byte[] value) {
+        if (value.length > cacheSize) {
+            return;
+        }
+        cache.put(block, value);
+        cachedBytes += value.length;
+        Iterator<byte[]> eldest = cache.values().iterator();
+        while (cachedBytes > cacheSize) {
+            cachedBytes -= eldest.next().length;
+            eldest.remove();
+        }
+    }
+
+    private byte[] readFromDisk(int block) throws IOException {
+        if (channel == null) {
+            open();
+        }
+        diskReads++;
+        long position = (long) block * blockSize;
+        if (foxPro) {
+            ByteBuffer blockHeader = readFully(ByteBuffer.allocate(8), position);
+            return readValue(blockHeader.getInt(4), position + 8);
+        }
+        ByteBuffer blockHeader = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN);
+        channel.read(blockHeader, position);
+        if (!blockHeader.hasRemaining() && blockHeader.getInt(0) == 0x0008ffff) {
+            // dBASE IV, the length includes the block header
+            return readValue(blockHeader.getInt(4) - 8, position + 8);
+        }
+        return readTerminated(position);
+    }
+
+    private byte[] readValue(int length, long position) throws IOException {
+        if (length < 0 || position + length > channel.size()) {
+            throw new DbfException("Invalid length " + length + " of memo value at " + position + " in " + file);
+        }
+        return readFully(ByteBuffer.allocate(length), position).array();
+    }
+
+    private byte[] readTerminated(long position) throws IOException {
+        ByteArrayOutputStream value = new ByteArrayOutputStream(blockSize);
+        ByteBuffer buf = ByteBuffer.allocate(blockSize);
+        while (true) {
+            buf.clear();
+            int n = channel.read(buf, position + value.size());
+            if (n <= 0) {
+                return value.toByteArray(); // no terminator at the end of file
+            }
+            int end = 0;
+            while (end < n && buf.get(end) != DATA_ENDED) end++;
+            value.write(buf.array(), 0, end);
+            if (end < n) {
+                return value.toByteArray();
+            }
+        }
+    }
+
+    private void open() throws IOException {
+        channel = FileChannel.open(file.toPath(), StandardOpenOption.READ);
+        ByteBuffer header = readFully(ByteBuffer.allocate(HEADER_LENGTH), 0);
+        foxPro = file.getName().toLowerCase().endsWith(".fpt");
+        if (foxPro) {
+            blockSize = header.order(ByteOrder.BIG_ENDIAN).getShort(6) & 0xffff;
+        } else {
+            // dBASE III keeps version 3 at byte 16 and has no block size
+            int version = header.get(16);
+            blockSize = version == 3 ? 0 : header.order(ByteOrder.LITTLE_ENDIAN).getShort(20) & 0xffff;
+            if (blockSize == 0) {
+                blockSize = DBASE_BLOCK_SIZE;
+            }
+        }
+        if (blockSize == 0) {
+            throw new DbfException("Invalid block size of memo file " + file);
+        }
+    }
+
+    private ByteBuffer readFully(ByteBuffer buf, long position) throws IOException {
+        while (buf.hasRemaining()) {
+            if (channel.read(buf, position + buf.position()) < 0) {
+                throw new EOFException("Unexpected end of memo file " + file);
+            }
+        }
+        buf.flip();
+        return buf;
+    }
+
+    /* package */ int getDiskReads() {
+        return diskReads;
+    }
+
+    @Override
+    public void close() {
+        // this method should be idempotent
+        closed = true;
+        cache.clear();
+        cachedBytes = 0;
+        if (channel != null) {
+            try {
+                channel.close();
+            } catch (IOException e) {
+                // ignore
+            }
+            channel = null;
+        }
+    }
+}
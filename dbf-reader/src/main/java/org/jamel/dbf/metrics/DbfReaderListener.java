@@ -0,0 +1,49 @@
+package org.jamel.dbf.metrics;
+
+import org.jamel.dbf.structure.DbfField;
+
+/**
+ * Listener of the work done by {@link org.jamel.dbf.DbfReader}, all methods do nothing by default.
+ * A listener shared by readers of parallel processing is called from several threads.
+ */
+public interface DbfReaderListener {
+
+    /**
+     * Called when the bytes of a record are read, including deleted and filtered out records.
+     */
+    default void onBytesRead(int bytes) {
+    }
+
+    /**
+     * Called when a record is returned by the reader.
+     */
+    default void onRecordRead() {
+    }
+
+    /**
+     * Called when a deleted record is skipped.
+     */
+    default void onDeletedRecordSkipped() {
+    }
+
+    /**
+     * Called when the value of NUMERIC or FLOAT field is blank or contains '?'.
+     */
+    default void onNullNumber(DbfField field) {
+    }
+
+    /**
+     * Called when the value of the field cannot be parsed: a malformed number
+     * or a date which is neither blank nor valid.
+     */
+    default void onParseFailure(DbfField field) {
+    }
+
+    /**
+     * Called when the value of the field is decoded by {@link org.jamel.dbf.DbfReader#nextRecord()}.
+     *
+     * @param nanos time spent to decode the value
+     */
+    default void onFieldDecoded(DbfField field, long nanos) {
+    }
+}
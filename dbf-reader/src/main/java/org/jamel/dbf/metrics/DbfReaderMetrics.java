@@ -0,0 +1,259 @@
+package org.jamel.dbf.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+
+/**
+ * Counters of the work done by readers and histograms of decode time per field type.
+ * The same instance can be shared by readers of parallel processing, e.g. to collect
+ * metrics of one {@link org.jamel.dbf.processor.DbfProcessor} run, and can be
+ * registered as JMX MBean. This class is thread safe.
+ *
+ * <pre>
+ * DbfReaderMetrics metrics = new DbfReaderMetrics().register("orders");
+ * try (DbfReader reader = new DbfReader(file)) {
+ *     reader.setListener(metrics);
+ *     ...
+ * } finally {
+ *     metrics.unregister();
+ * }
+ * </pre>
+ */
+public class DbfReaderMetrics implements DbfReaderListener, DbfReaderMetricsMBean {
+
+    public static final String DOMAIN = "org.jamel.dbf";
+
+    private final LongAdder bytesRead = new LongAdder();
+    private final LongAdder recordsRead = new LongAdder();
+    private final LongAdder deletedRecordsSkipped = new LongAdder();
+    private final LongAdder nullNumbers = new LongAdder();
+    private final LongAdder parseFailures = new LongAdder();
+    private final Histogram[] decodeTimes = new Histogram[DbfDataType.values().length];
+    private ObjectName objectName;
+
+    public DbfReaderMetrics() {
+        for (int i = 0; i < decodeTimes.length; i++) {
+            decodeTimes[i] = new Histogram();
+        }
+    }
+
+    /**
+     * Registers these metrics in the platform MBean server with name
+     * {@code org.jamel.dbf:type=DbfReaderMetrics,name=<name>}.
+     *
+     * @return this metrics
+     * @throws DbfException if the metrics cannot be registered, e.g. the name is taken
+     */
+    public synchronized DbfReaderMetrics register(String name) throws DbfException {
+        if (objectName != null) {
+            throw new DbfException("Metrics are already registered as " + objectName);
+        }
+        try {
+            ObjectName objectName = new ObjectName(DOMAIN + ":type=DbfReaderMetrics,name=" + ObjectName.quote(name));
+            ManagementFactory.getPlatformMBeanServer().registerMBean(this, objectName);
+            this.objectName = objectName;
+            return this;
+        } catch (JMException e) {
+            throw new DbfException("Cannot register metrics " + name, e);
+        }
+    }
+
+    /**
+     * Removes these metrics from the platform MBean server, does nothing if they are not registered.
+     */
+    public synchronized void unregister() {
+        if (objectName == null) {
+            return;
+        }
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        try {
+            if (server.isRegistered(objectName)) {
+                server.unregisterMBean(objectName);
+            }
+        } catch (JMException e) {
+            // ignore
+        }
+        objectName = null;
+    }
+
+    /**
+     * @return name of these metrics in the platform MBean server or {@code null} if they are not registered.
+     */
+    public synchronized ObjectName getObjectName() {
+        return objectName;
+    }
+
+    @Override
+    public void onBytesRead(int bytes) {
+        bytesRead.add(bytes);
+    }
+
+    @Override
+    public void onRecordRead() {
+        recordsRead.increment();
+    }
+
+    @Override
+    public void onDeletedRecordSkipped() {
+        deletedRecordsSkipped.increment();
+    }
+
+    @Override
+    public void onNullNumber(DbfField field) {
+        nullNumbers.increment();
+    }
+
+    @Override
+    public void onParseFailure(DbfField field) {
+        parseFailures.increment();
+    }
+
+    @Override
+    public void onFieldDecoded(DbfField field, long nanos) {
+        decodeTimes[field.getDataType().ordinal()].record(nanos);
+    }
+
+    @Override
+    public long getBytesRead() {
+        return bytesRead.sum();
+    }
+
+    @Override
+    public long getRecordsRead() {
+        return recordsRead.sum();
+    }
+
+    @Override
+    public long getDeletedRecordsSkipped() {
+        return deletedRecordsSkipped.sum();
+    }
+
+    @Override
+    public long getNullNumbers() {
+        return nullNumbers.sum();
+    }
+
+    @Override
+    public long getParseFailures() {
+        return parseFailures.sum();
+    }
+
+    /**
+     * @return histogram of time spent to decode values of the given type.
+     */
+    public Histogram getDecodeTime(DbfDataType type) {
+        return decodeTimes[type.ordinal()];
+    }
+
+    @Override
+    public long getDecodeTimeNanos() {
+        long total = 0;
+        for (Histogram histogram : decodeTimes) {
+            total += histogram.getTotalNanos();
+        }
+        return total;
+    }
+
+    @Override
+    public String[] getDecodeTimes() {
+        List<String> lines = new ArrayList<>();
+        for (DbfDataType type : DbfDataType.values()) {
+            Histogram histogram = decodeTimes[type.ordinal()];
+            long count = histogram.getCount();
+            if (count > 0) {
+                lines.add(String.format("%s: count=%d, mean=%dns, p50<=%dns, p99<=%dns", type, count,
+                        histogram.getTotalNanos() / count, histogram.getPercentileNanos(50),
+                        histogram.getPercentileNanos(99)));
+            }
+        }
+        return lines.toArray(new String[lines.size()]);
+    }
+
+    @Override
+    public void reset() {
+        bytesRead.reset();
+        recordsRead.reset();
+        deletedRecordsSkipped.reset();
+        nullNumbers.reset();
+        parseFailures.reset();
+        for (Histogram histogram : decodeTimes) {
+            histogram.reset();
+        }
+    }
+
+    /**
+     * Histogram of time with power of two buckets: bucket {@code i} counts times
+     * from {@code 2^(i-1)} to {@code 2^i - 1} nanoseconds, bucket 0 counts zero times.
+     */
+    public static class Histogram {
+
+        private final LongAdder[] buckets = new LongAdder[Long.SIZE];
+        private final LongAdder totalNanos = new LongAdder();
+
+        /* package */ Histogram() {
+            for (int i = 0; i < buckets.length; i++) {
+                buckets[i] = new LongAdder();
+            }
+        }
+
+        /* package */ void record(long nanos) {
+            if (nanos < 0) {
+                nanos = 0;
+            }
+            buckets[Long.SIZE - Long.numberOfLeadingZeros(nanos)].increment();
+            totalNanos.add(nanos);
+        }
+
+        public long getCount() {
+            long count = 0;
+            for (LongAdder bucket : buckets) {
+                count += bucket.sum();
+            }
+            return count;
+        }
+
+        public long getTotalNanos() {
+            return totalNanos.sum();
+        }
+
+        /**
+         * @param percentile from 0 to 100
+         * @return upper bound of the time within which the given percent of values were decoded,
+         * 0 if there are no values.
+         */
+        public long getPercentileNanos(double percentile) {
+            long[] counts = new long[buckets.length];
+            long count = 0;
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = buckets[i].sum();
+                count += counts[i];
+            }
+            long rank = (long) Math.ceil(count * percentile / 100);
+            long seen = 0;
+            for (int i = 0; i < counts.length; i++) {
+                seen += counts[i];
+                if (counts[i] > 0 && seen >= rank) {
+                    return (1L << i) - 1; // Long.MAX_VALUE for the last bucket
+                }
+            }
+            return 0;
+        }
+
+        /* package */ void reset() {
+            for (LongAdder bucket : buckets) {
+                bucket.reset();
+            }
+            totalNanos.reset();
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package org.jamel.dbf.metrics;
+
+/**
+ * JMX view of {@link DbfReaderMetrics}.
+ */
+public interface DbfReaderMetricsMBean {
+
+    long getBytesRead();
+
+    long getRecordsRead();
+
+    long getDeletedRecordsSkipped();
+
+    long getNullNumbers();
+
+    long getParseFailures();
+
+    /**
+     * @return total time spent to decode values of all types.
+     */
+    long getDecodeTimeNanos();
+
+    /**
+     * @return one line per type of decoded values with the number of values, mean time
+     * and upper bounds of median and 99th percentile of the time.
+     */
+    String[] getDecodeTimes();
+
+    void reset();
+}
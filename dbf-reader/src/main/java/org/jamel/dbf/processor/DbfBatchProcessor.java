@@ -0,0 +1,15 @@
+package org.jamel.dbf.processor;
+
+import org.jamel.dbf.DbfRecordBatch;
+
+/**
+ * Process dbf rows by batches.
+ */
+public interface DbfBatchProcessor {
+
+    /**
+     * @param batch batch of rows, it is reused for the next batch once this method returns
+     */
+    void processBatch(DbfRecordBatch batch);
+
+}
@@ -2,6 +2,7 @@ package org.jamel.dbf.processor;
 
 import java.io.BufferedInputStream;
 import java.io.BufferedWriter;
+import java.io.Closeable;
 import java.io.DataInputStream;
 import java.io.File;
 import java.io.FileInputStream;
@@ -10,14 +11,31 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.PrintWriter;
 import java.nio.charset.Charset;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Deque;
 import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.DbfRecordBatch;
 import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.filter.DbfFilter;
+import org.jamel.dbf.metrics.DbfReaderListener;
 import org.jamel.dbf.structure.DbfDataType;
 import org.jamel.dbf.structure.DbfField;
 import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.utils.StringDecoder;
 import org.jamel.dbf.utils.StringUtils;
 
 import static org.jamel.dbf.utils.StringUtils.rightPad;
@@ -33,6 +51,11 @@ public final class DbfProcessor {
     private static final int LENGTH_WIDTH = 8;
     private static final int DECIMAL_WIDTH = 8;
 
+    /** Number of records decoded by one task of ordered parallel processing, the least size of a range */
+    private static final int CHUNK_SIZE = 8192;
+    /** A few ranges per processor let threads which finish early take over the rest */
+    private static final int RANGES_PER_PROCESSOR = 4;
+
 
     private DbfProcessor() {
     }
@@ -59,7 +82,64 @@ public final class DbfProcessor {
     }
 
     public static <T> List<T> loadData(File dbf, DbfRowMapper<T> rowMapper) throws DbfException {
+        return loadData(dbf, rowMapper, new String[0]);
+    }
+
+    /**
+     * Loads data decoding only the given fields, values of other fields are passed to
+     * row mapper as {@code null}.
+     *
+     * @param <T> Output type
+     * @param dbf .dbf file
+     * @param rowMapper Row mapper
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @return Mapped rows
+     * @throws DbfException
+     */
+    public static <T> List<T> loadData(File dbf, DbfRowMapper<T> rowMapper, String... fieldNames)
+            throws DbfException
+    {
+        return loadData(dbf, null, rowMapper, fieldNames);
+    }
+
+    /**
+     * Loads data of the records which match the given filter. Records are matched before
+     * decoding, so filtered out records cost almost nothing.
+     *
+     * @param <T> Output type
+     * @param dbf .dbf file
+     * @param filter filter of the records, {@code null} to load all records
+     * @param rowMapper Row mapper
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @return Mapped rows
+     * @throws DbfException
+     */
+    public static <T> List<T> loadData(File dbf, DbfFilter filter, DbfRowMapper<T> rowMapper, String... fieldNames)
+            throws DbfException
+    {
+        return loadData(dbf, filter, rowMapper, null, fieldNames);
+    }
+
+    /**
+     * Loads data of the records which match the given filter notifying the listener
+     * about the work done by the reader.
+     *
+     * @param <T> Output type
+     * @param dbf .dbf file
+     * @param filter filter of the records, {@code null} to load all records
+     * @param rowMapper Row mapper
+     * @param listener listener of the reader, e.g. {@link org.jamel.dbf.metrics.DbfReaderMetrics}, or {@code null}
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @return Mapped rows
+     * @throws DbfException
+     */
+    public static <T> List<T> loadData(File dbf, DbfFilter filter, DbfRowMapper<T> rowMapper,
+            DbfReaderListener listener, String... fieldNames) throws DbfException
+    {
         try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setListener(listener);
+            reader.setFilter(filter);
+            reader.setProjection(fieldNames);
             List<T> result = new ArrayList<>(reader.getRecordCount());
             Object[] row;
             while ((row = reader.nextRecord()) != null) {
@@ -71,7 +151,58 @@ public final class DbfProcessor {
     }
 
     public static void processDbf(File dbf, DbfRowProcessor rowProcessor) throws DbfException {
+        processDbf(dbf, rowProcessor, new String[0]);
+    }
+
+    /**
+     * Processes rows decoding only the given fields, values of other fields are passed to
+     * row processor as {@code null}.
+     *
+     * @param dbf .dbf file
+     * @param rowProcessor Row processor
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @throws DbfException
+     */
+    public static void processDbf(File dbf, DbfRowProcessor rowProcessor, String... fieldNames)
+            throws DbfException
+    {
+        processDbf(dbf, null, rowProcessor, fieldNames);
+    }
+
+    /**
+     * Processes rows of the records which match the given filter. Records are matched before
+     * decoding, so filtered out records cost almost nothing.
+     *
+     * @param dbf .dbf file
+     * @param filter filter of the records, {@code null} to process all records
+     * @param rowProcessor Row processor
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @throws DbfException
+     */
+    public static void processDbf(File dbf, DbfFilter filter, DbfRowProcessor rowProcessor, String... fieldNames)
+            throws DbfException
+    {
+        processDbf(dbf, filter, rowProcessor, null, fieldNames);
+    }
+
+    /**
+     * Processes rows of the records which match the given filter notifying the listener
+     * about the work done by the reader.
+     *
+     * @param dbf .dbf file
+     * @param filter filter of the records, {@code null} to process all records
+     * @param rowProcessor Row processor
+     * @param listener listener of the reader, e.g. {@link org.jamel.dbf.metrics.DbfReaderMetrics}, or {@code null}
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @throws DbfException
+     */
+    public static void processDbf(File dbf, DbfFilter filter, DbfRowProcessor rowProcessor,
+            DbfReaderListener listener, String... fieldNames) throws DbfException
+    {
         try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setListener(listener);
+            reader.setFilter(filter);
+            reader.setProjection(fieldNames);
             Object[] row;
             while ((row = reader.nextRecord()) != null) {
                 rowProcessor.processRow(row);
@@ -79,6 +210,408 @@ public final class DbfProcessor {
         }
     }
 
+    public static void processDbfInBatches(File dbf, int batchSize, DbfBatchProcessor batchProcessor)
+            throws DbfException
+    {
+        processDbfInBatches(dbf, null, batchSize, batchProcessor);
+    }
+
+    /**
+     * Processes rows of the records which match the given filter by batches of the given size,
+     * only the last batch may be smaller. The batch and arrays of its rows are reused, so rows
+     * cost no allocations besides their values and can be handed over to bulk sinks like
+     * JDBC batch inserts directly.
+     *
+     * @param dbf .dbf file
+     * @param filter filter of the records, {@code null} to process all records
+     * @param batchSize maximal number of rows in a batch
+     * @param batchProcessor Batch processor
+     * @param fieldNames names of the fields to decode, all fields are decoded if none given
+     * @throws DbfException
+     */
+    public static void processDbfInBatches(File dbf, DbfFilter filter, int batchSize,
+            DbfBatchProcessor batchProcessor, String... fieldNames) throws DbfException
+    {
+        if (batchSize <= 0) {
+            throw new DbfException("Batch size must be positive: " + batchSize);
+        }
+        try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setFilter(filter);
+            reader.setProjection(fieldNames);
+            DbfRecordBatch batch = new DbfRecordBatch(Math.min(batchSize, reader.getRecordCount()));
+            while (reader.nextRecords(batchSize, batch) > 0) {
+                batchProcessor.processBatch(batch);
+            }
+        }
+    }
+
+    /**
+     * Loads data using a temporary fork-join pool with parallelism equal to the number of processors.
+     *
+     * @see #loadDataParallel(File, DbfRowMapper, ExecutorService, boolean)
+     */
+    public static <T> List<T> loadDataParallel(File dbf, DbfRowMapper<T> rowMapper, boolean ordered)
+            throws DbfException
+    {
+        ExecutorService executor = new ForkJoinPool();
+        try {
+            return loadDataParallel(dbf, rowMapper, executor, ordered);
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    /**
+     * Loads data splitting records of the file into a few contiguous ranges per processor which
+     * are read and mapped in parallel, each one by its own memory mapped reader. Only first
+     * {@code numberOfRecords} records from the header are read.
+     *
+     * @param <T> Output type
+     * @param dbf .dbf file
+     * @param rowMapper Row mapper, it must be thread safe
+     * @param executor executor to run ranges in
+     * @param ordered if {@code true} rows are returned in order of the records in the file,
+     *                otherwise ranges of rows are appended to the result as soon as they are loaded
+     * @return Mapped rows
+     * @throws DbfException
+     */
+    public static <T> List<T> loadDataParallel(File dbf, final DbfRowMapper<T> rowMapper, ExecutorService executor,
+            boolean ordered) throws DbfException
+    {
+        return loadDataParallel(dbf, rowMapper, executor, ordered, null);
+    }
+
+    /**
+     * Loads data in parallel notifying the listener about the work done by readers of all ranges.
+     *
+     * @param listener listener of the readers, it must be thread safe, e.g.
+     *                 {@link org.jamel.dbf.metrics.DbfReaderMetrics}, or {@code null}
+     * @see #loadDataParallel(File, DbfRowMapper, ExecutorService, boolean)
+     */
+    public static <T> List<T> loadDataParallel(File dbf, final DbfRowMapper<T> rowMapper, ExecutorService executor,
+            boolean ordered, DbfReaderListener listener) throws DbfException
+    {
+        int recordCount = readRecordCount(dbf);
+        int[] bounds = splitRanges(recordCount);
+        CompletionService<List<T>> completionService = new ExecutorCompletionService<>(executor);
+        List<Future<List<T>>> futures = new ArrayList<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        try {
+            for (int i = 0; i + 1 < bounds.length; i++) {
+                futures.add(completionService.submit(
+                        loadRange(dbf, bounds[i], bounds[i + 1], rowMapper, listener, stopped)));
+            }
+
+            List<T> result = new ArrayList<>(recordCount);
+            for (int i = 0; i < futures.size(); i++) {
+                Future<List<T>> future = ordered ? futures.get(i) : completionService.take();
+                result.addAll(await(future));
+            }
+            return result;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbfException("Interrupted while loading " + dbf, e);
+        } finally {
+            stop(stopped, futures);
+        }
+    }
+
+    /**
+     * Processes rows using a temporary fork-join pool with parallelism equal to the number of processors.
+     *
+     * @see #processDbfParallel(File, DbfRowProcessor, ExecutorService, boolean)
+     */
+    public static void processDbfParallel(File dbf, DbfRowProcessor rowProcessor, boolean ordered)
+            throws DbfException
+    {
+        ExecutorService executor = new ForkJoinPool();
+        try {
+            processDbfParallel(dbf, rowProcessor, executor, ordered);
+        } finally {
+            shutdown(executor);
+        }
+    }
+
+    /**
+     * Processes rows reading records of the file in parallel by memory mapped readers. Only first
+     * {@code numberOfRecords} records from the header are read.
+     *
+     * @param dbf .dbf file
+     * @param rowProcessor Row processor
+     * @param executor executor to run the tasks in
+     * @param ordered if {@code true} chunks of rows are decoded in parallel by readers reused across
+     *                the chunks, but processed in order of the records in the calling thread, otherwise
+     *                records are split into a few contiguous ranges per processor, each one read by its
+     *                own reader, and rows are processed concurrently by the executor threads and row
+     *                processor must be thread safe
+     * @throws DbfException
+     */
+    public static void processDbfParallel(File dbf, final DbfRowProcessor rowProcessor, ExecutorService executor,
+            boolean ordered) throws DbfException
+    {
+        processDbfParallel(dbf, rowProcessor, executor, ordered, null);
+    }
+
+    /**
+     * Processes rows in parallel notifying the listener about the work done by all readers.
+     *
+     * @param listener listener of the readers, it must be thread safe, e.g.
+     *                 {@link org.jamel.dbf.metrics.DbfReaderMetrics}, or {@code null}
+     * @see #processDbfParallel(File, DbfRowProcessor, ExecutorService, boolean)
+     */
+    public static void processDbfParallel(File dbf, final DbfRowProcessor rowProcessor, ExecutorService executor,
+            boolean ordered, DbfReaderListener listener) throws DbfException
+    {
+        int recordCount = readRecordCount(dbf);
+        if (!ordered) {
+            int[] bounds = splitRanges(recordCount);
+            List<Future<Void>> futures = new ArrayList<>();
+            AtomicBoolean stopped = new AtomicBoolean();
+            try {
+                for (int i = 0; i + 1 < bounds.length; i++) {
+                    futures.add(executor.submit(
+                            processRange(dbf, bounds[i], bounds[i + 1], rowProcessor, listener, stopped)));
+                }
+                for (Future<Void> future : futures) {
+                    await(future);
+                }
+            } finally {
+                stop(stopped, futures);
+            }
+            return;
+        }
+
+        // limit number of decoded chunks waiting to be processed
+        int window = 2 * Runtime.getRuntime().availableProcessors();
+        Deque<Future<List<Object[]>>> pending = new ArrayDeque<>();
+        AtomicBoolean stopped = new AtomicBoolean();
+        try (ReaderPool readers = new ReaderPool(dbf, listener)) {
+            try {
+                int from = 0;
+                while (from < recordCount || !pending.isEmpty()) {
+                    while (from < recordCount && pending.size() < window) {
+                        int to = Math.min(recordCount, from + CHUNK_SIZE);
+                        pending.add(executor.submit(decodeChunk(readers, from, to, stopped)));
+                        from += CHUNK_SIZE;
+                    }
+
+                    List<Object[]> rows = await(pending.peek());
+                    pending.poll();
+                    for (Object[] row : rows) {
+                        rowProcessor.processRow(row);
+                    }
+                }
+            } finally {
+                stop(stopped, pending);
+            }
+        }
+    }
+
+    private static int readRecordCount(File dbf) {
+        try (DbfReader reader = new DbfReader(dbf)) {
+            return reader.getRecordCount();
+        }
+    }
+
+    /**
+     * Splits records into a few contiguous ranges per processor, of at least {@code CHUNK_SIZE} records.
+     *
+     * @return bounds of the ranges, range i is [bounds[i], bounds[i + 1])
+     */
+    private static int[] splitRanges(int recordCount) {
+        int maxRanges = RANGES_PER_PROCESSOR * Runtime.getRuntime().availableProcessors();
+        int count = Math.min(maxRanges, (recordCount + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        int[] bounds = new int[count + 1];
+        for (int i = 1; i <= count; i++) {
+            bounds[i] = (int) ((long) recordCount * i / count);
+        }
+        return bounds;
+    }
+
+    private static DbfReader openRange(File dbf, int from, int to, DbfReaderListener listener) {
+        DbfReader reader = new DbfReader(dbf, true);
+        try {
+            reader.setListener(listener);
+            return restrict(reader, from, to);
+        } catch (RuntimeException e) {
+            reader.close();
+            throw e;
+        }
+    }
+
+    private static DbfReader restrict(DbfReader reader, int from, int to) {
+        reader.seekToRecord(from);
+        reader.setRecordLimit(to);
+        return reader;
+    }
+
+    private static <T> Callable<List<T>> loadRange(final File dbf, final int from, final int to,
+            final DbfRowMapper<T> rowMapper, final DbfReaderListener listener, final AtomicBoolean stopped)
+    {
+        return new Callable<List<T>>() {
+            @Override
+            public List<T> call() {
+                if (stopped.get()) {
+                    return null;
+                }
+                try (DbfReader reader = openRange(dbf, from, to, listener)) {
+                    List<T> result = new ArrayList<>(to - from);
+                    Object[] row;
+                    while (!stopped.get() && (row = reader.nextRecord()) != null) {
+                        result.add(rowMapper.mapRow(row));
+                    }
+                    return result;
+                }
+            }
+        };
+    }
+
+    private static Callable<Void> processRange(final File dbf, final int from, final int to,
+            final DbfRowProcessor rowProcessor, final DbfReaderListener listener, final AtomicBoolean stopped)
+    {
+        return new Callable<Void>() {
+            @Override
+            public Void call() {
+                if (stopped.get()) {
+                    return null;
+                }
+                try (DbfReader reader = openRange(dbf, from, to, listener)) {
+                    Object[] row;
+                    while (!stopped.get() && (row = reader.nextRecord()) != null) {
+                        rowProcessor.processRow(row);
+                    }
+                    return null;
+                }
+            }
+        };
+    }
+
+    private static Callable<List<Object[]>> decodeChunk(final ReaderPool readers, final int from, final int to,
+            final AtomicBoolean stopped)
+    {
+        return new Callable<List<Object[]>>() {
+            @Override
+            public List<Object[]> call() {
+                if (stopped.get()) {
+                    return null;
+                }
+                DbfReader reader = readers.borrow(from, to);
+                try {
+                    List<Object[]> result = new ArrayList<>(to - from);
+                    Object[] row;
+                    while (!stopped.get() && (row = reader.nextRecord()) != null) {
+                        result.add(row);
+                    }
+                    return result;
+                } finally {
+                    readers.release(reader);
+                }
+            }
+        };
+    }
+
+    private static <T> T await(Future<T> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DbfException("Interrupted while waiting for Dbf chunk", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new DbfException("Cannot process Dbf chunk", e.getCause());
+        }
+    }
+
+    /**
+     * Stops the tasks and waits for them to finish, so that none of them reads the file or calls
+     * the row processor after the parallel call returned. Reads of memory mapped files ignore
+     * interrupts, so instead of being cancelled the tasks check the flag between records.
+     */
+    private static void stop(AtomicBoolean stopped, Collection<? extends Future<?>> futures) {
+        stopped.set(true);
+        boolean interrupted = false;
+        for (Future<?> future : futures) {
+            while (true) {
+                try {
+                    future.get();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                } catch (ExecutionException | CancellationException e) {
+                    // the failure which stopped the tasks is thrown by the caller
+                    break;
+                }
+            }
+        }
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static void shutdown(ExecutorService executor) {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Memory mapped readers of a file shared by the chunks, so the file is mapped once per
+     * executor thread instead of once per chunk. Readers released after the pool is closed
+     * are closed at once.
+     */
+    private static final class ReaderPool implements Closeable {
+        private final File dbf;
+        private final DbfReaderListener listener;
+        private final Deque<DbfReader> idle = new ArrayDeque<>();
+        private boolean closed;
+
+        ReaderPool(File dbf, DbfReaderListener listener) {
+            this.dbf = dbf;
+            this.listener = listener;
+        }
+
+        /**
+         * @return reader restricted to the records [from, to)
+         */
+        DbfReader borrow(int from, int to) {
+            DbfReader reader;
+            synchronized (this) {
+                reader = idle.poll();
+            }
+            if (reader == null) {
+                return openRange(dbf, from, to, listener);
+            }
+            try {
+                return restrict(reader, from, to);
+            } catch (RuntimeException e) {
+                reader.close();
+                throw e;
+            }
+        }
+
+        synchronized void release(DbfReader reader) {
+            if (closed) {
+                reader.close();
+            } else {
+                idle.push(reader);
+            }
+        }
+
+        @Override
+        public synchronized void close() {
+            closed = true;
+            for (DbfReader reader : idle) {
+                reader.close();
+            }
+            idle.clear();
+        }
+    }
+
     public static void writeToTxtFile(File dbf, File txt, Charset dbfEncoding) {
         try (
                 DbfReader reader = new DbfReader(dbf);
@@ -96,13 +629,19 @@ public final class DbfProcessor {
             for (String title : titles) writer.print(title);
             writer.println();
 
+            StringDecoder decoder = new StringDecoder(dbfEncoding);
             Object[] row;
             while ((row = reader.nextRecord()) != null) {
                 for (int i = 0; i < header.getFieldsCount(); i++) {
                     DbfField field = header.getField(i);
-                    String value = field.getDataType() == DbfDataType.CHAR
-                            ? new String((byte[]) row[i], dbfEncoding)
-                            : String.valueOf(row[i]);
+                    DbfDataType type = field.getDataType();
+                    String value;
+                    if ((type == DbfDataType.CHAR || type == DbfDataType.VARCHAR) && row[i] != null) {
+                        byte[] bytes = (byte[]) row[i];
+                        value = decoder.decode(bytes, 0, bytes.length);
+                    } else {
+                        value = String.valueOf(row[i]);
+                    }
                     writer.print(StringUtils.rightPad(value, field.getFieldLength(), ' '));
                 }
                 writer.println();
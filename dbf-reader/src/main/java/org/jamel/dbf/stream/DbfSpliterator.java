@@ -0,0 +1,157 @@
+package org.jamel.dbf.stream;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.util.Collections;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.io.MappedDataInput;
+import org.jamel.dbf.structure.DbfHeader;
+
+/**
+ * Spliterator over a range of records of a dbf file. Splitting halves the range
+ * of record indexes, each part is read by its own memory mapped {@link DbfReader}
+ * which is opened on the first traversal and closed when the range is exhausted.
+ * Readers of unfinished traversals are closed by {@link #close()}, which closes
+ * readers of all spliterators split from the same root.
+ */
+public class DbfSpliterator implements Spliterator<Object[]>, Closeable {
+
+    /** Ranges smaller than this are not split further */
+    private static final int MIN_SPLIT_SIZE = 1024;
+
+    private final File file;
+    private final boolean sized;
+    private final Set<DbfReader> openReaders;
+    private int from;
+    private final int to;
+    private DbfReader reader;
+
+    /**
+     * Creates spliterator over all records of the file.
+     *
+     * @param file Dbf file
+     * @param exactSize if {@code true} deletion flags of all records are checked once, and when
+     *                  there are no deleted records the spliterator reports {@link #SIZED} and
+     *                  {@link #SUBSIZED}; otherwise sizes are only estimates
+     */
+    public DbfSpliterator(File file, boolean exactSize) throws DbfException {
+        this.file = file;
+        this.openReaders = Collections.newSetFromMap(new ConcurrentHashMap<DbfReader, Boolean>());
+        try (DbfReader headerReader = new DbfReader(file)) {
+            DbfHeader header = headerReader.getHeader();
+            this.from = 0;
+            this.to = header.getNumberOfRecords();
+            this.sized = exactSize && !hasDeletedRecords(file, header);
+        }
+    }
+
+    private DbfSpliterator(DbfSpliterator parent, int from, int to) {
+        this.file = parent.file;
+        this.sized = parent.sized;
+        this.openReaders = parent.openReaders;
+        this.from = from;
+        this.to = to;
+    }
+
+    private static boolean hasDeletedRecords(File file, DbfHeader header) {
+        int count = header.getNumberOfRecords();
+        try (MappedDataInput in = new MappedDataInput(file)) {
+            if (in.length() < header.getRecordPosition(count)) {
+                return true; // truncated file, number of records is not known
+            }
+            for (int i = 0; i < count; i++) {
+                in.seek(header.getRecordPosition(i));
+                if (in.readByte() == '*') {
+                    return true;
+                }
+            }
+            return false;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read Dbf file " + file, e);
+        }
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super Object[]> action) {
+        Object[] record = nextRecord();
+        if (record == null) {
+            return false;
+        }
+        action.accept(record);
+        return true;
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super Object[]> action) {
+        Object[] record;
+        while ((record = nextRecord()) != null) {
+            action.accept(record);
+        }
+    }
+
+    private Object[] nextRecord() {
+        if (from >= to) {
+            return null;
+        }
+        if (reader == null) {
+            reader = new DbfReader(file, true);
+            openReaders.add(reader);
+            reader.seekToRecord(from);
+            reader.setRecordLimit(to);
+        }
+        Object[] record = reader.nextRecord();
+        if (record == null) {
+            from = to;
+            closeReader();
+        } else {
+            from++; // exact when there are no deleted records
+        }
+        return record;
+    }
+
+    private void closeReader() {
+        openReaders.remove(reader);
+        reader.close();
+        reader = null;
+    }
+
+    @Override
+    public Spliterator<Object[]> trySplit() {
+        if (reader != null || to - from < 2 * MIN_SPLIT_SIZE) {
+            return null; // traversal started or range is too small
+        }
+        int mid = from + (to - from) / 2;
+        DbfSpliterator prefix = new DbfSpliterator(this, from, mid);
+        from = mid;
+        return prefix;
+    }
+
+    @Override
+    public long estimateSize() {
+        return to - from;
+    }
+
+    @Override
+    public int characteristics() {
+        int characteristics = ORDERED | NONNULL | IMMUTABLE;
+        return sized ? characteristics | SIZED | SUBSIZED : characteristics;
+    }
+
+    /**
+     * Closes readers opened by this spliterator and by all spliterators split from the same root.
+     */
+    @Override
+    public void close() {
+        for (DbfReader openReader : openReaders) {
+            openReader.close();
+        }
+        openReaders.clear();
+    }
+}
@@ -0,0 +1,94 @@
+package org.jamel.dbf.stream;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.structure.DbfRow;
+
+/**
+ * Streams of dbf records backed by {@link DbfSpliterator}, so parallel streams
+ * split the file by ranges of records. Streams should be closed to release
+ * readers of unfinished traversals:
+ * <pre>
+ * try (Stream&lt;DbfRow&gt; rows = DbfStreams.rows(file, charset, true)) {
+ *     total = rows.mapToDouble(row -&gt; row.getDouble("PRICE")).sum();
+ * }
+ * </pre>
+ */
+public final class DbfStreams {
+
+    private DbfStreams() {
+    }
+
+    public static Stream<Object[]> records(File dbf) throws DbfException {
+        return records(dbf, false);
+    }
+
+    /**
+     * Creates stream whose size is only estimated, it is never {@link java.util.Spliterator#SIZED}
+     * since deleted records are known only when they are read.
+     *
+     * @param dbf .dbf file
+     * @param parallel if {@code true} then the returned stream is a parallel stream
+     * @return stream of the records
+     * @see #records(File, boolean, boolean)
+     */
+    public static Stream<Object[]> records(File dbf, boolean parallel) throws DbfException {
+        return records(dbf, parallel, false);
+    }
+
+    /**
+     * @param dbf .dbf file
+     * @param parallel if {@code true} then the returned stream is a parallel stream
+     * @param exactSize if {@code true} deletion flags of all records are checked before the stream
+     *                  is created, and if there are no deleted records the stream is
+     *                  {@link java.util.Spliterator#SIZED}, so e.g. {@code toArray()} and {@code count()}
+     *                  of parallel streams don't need to buffer the parts
+     * @return stream of the records
+     * @see DbfSpliterator#DbfSpliterator(File, boolean)
+     */
+    public static Stream<Object[]> records(File dbf, boolean parallel, boolean exactSize) throws DbfException {
+        return stream(new DbfSpliterator(dbf, exactSize), parallel);
+    }
+
+    /**
+     * Creates stream from the given spliterator, which is closed together with the stream.
+     *
+     * @param spliterator spliterator over the records
+     * @param parallel if {@code true} then the returned stream is a parallel stream
+     * @return stream of the records
+     */
+    public static Stream<Object[]> stream(DbfSpliterator spliterator, boolean parallel) {
+        return StreamSupport.stream(spliterator, parallel).onClose(spliterator::close);
+    }
+
+    /**
+     * Creates stream of rows which decode strings with the code page marked in the header.
+     *
+     * @see DbfReader#DbfReader(File)
+     */
+    public static Stream<DbfRow> rows(File dbf, boolean parallel) throws DbfException {
+        return rows(dbf, null, parallel);
+    }
+
+    /**
+     * @param dbf .dbf file
+     * @param charset charset used by rows to decode strings, {@code null} to detect it by the header
+     * @param parallel if {@code true} then the returned stream is a parallel stream
+     * @return stream of the rows
+     */
+    public static Stream<DbfRow> rows(File dbf, Charset charset, boolean parallel) throws DbfException {
+        DbfHeader header;
+        Charset rowCharset;
+        try (DbfReader reader = new DbfReader(dbf)) {
+            header = reader.getHeader();
+            rowCharset = charset == null ? reader.getCharset() : charset;
+        }
+        return records(dbf, parallel).map(record -> new DbfRow(header, rowCharset, record));
+    }
+}
@@ -3,6 +3,9 @@ package org.jamel.dbf.structure;
 /**
  * The supported Dbf field types.
  * Source: http://www.fship.com/dbfspecs.txt
+ *
+ * Values of binary types are little-endian in Visual FoxPro files. In dBASE 7 files
+ * they are big-endian with the sign bit flipped, see {@link DbfField#isBigEndian()}.
  */
 public enum DbfDataType {
     CHAR('C'),
@@ -10,7 +13,27 @@ public enum DbfDataType {
     FLOAT('F'),
     LOGICAL('L'),
     MEMO('M'),
-    NUMERIC('N');
+    NUMERIC('N'),
+    /** 4 byte signed integer */
+    INTEGER('I'),
+    /** 8 byte signed integer with 4 implied decimal places */
+    CURRENCY('Y'),
+    /** 4 byte julian day followed by 4 byte milliseconds since midnight */
+    DATE_TIME('T'),
+    /** 8 byte IEEE double of Visual FoxPro, 'B' fields of other lengths are binary MEMO */
+    DOUBLE('B'),
+    /** 8 byte IEEE double of dBASE 7 */
+    DBASE_DOUBLE('O'),
+    /** 8 byte double of milliseconds since the start of julian day 0, dBASE 7 */
+    TIMESTAMP('@'),
+    /** 4 byte signed integer, dBASE 7 */
+    AUTOINCREMENT('+'),
+    /** Character value of variable length, the length is kept in the last byte unless the value is full */
+    VARCHAR('V'),
+    /** Binary value of variable length, the length is kept like for {@link #VARCHAR} */
+    VARBINARY('Q'),
+    /** System field _NullFlags of Visual FoxPro with bits of NULL values and lengths of variable length values */
+    NULL_FLAGS('0');
 
     public final byte byteValue;
 
@@ -4,7 +4,9 @@ import org.jamel.dbf.exception.DbfException;
 import org.jamel.dbf.utils.DbfUtils;
 
 import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
 
 /**
@@ -17,6 +19,10 @@ public class DbfField {
 
     public static final int HEADER_TERMINATOR = 0x0d;
 
+    /** Flags of Visual FoxPro fields */
+    public static final int SYSTEM_FLAG = 0x01;
+    public static final int NULLABLE_FLAG = 0x02;
+
     private String fieldName;                   /* 0-10  */
     private DbfDataType dataType;               /* 11    */
     private int reserv1;                        /* 12-15 */
@@ -28,12 +34,61 @@ public class DbfField {
     private byte setFieldsFlag;                 /* 23    */
     private byte[] reserv4 = new byte[7];       /* 24-30 */
     private byte indexFieldFlag;                /* 31    */
-    private final int fieldIndex;
+    private int fieldIndex;
+    private int offset;
+    private boolean bigEndian;
+    private int nullBit = -1;
+    private int lengthBit = -1;
 
     private DbfField(int fieldIndex) {
         this.fieldIndex = fieldIndex;
     }
 
+    /**
+     * Creates definition of a field without decimal places.
+     *
+     * @see #create(String, DbfDataType, int, int)
+     */
+    public static DbfField create(String name, DbfDataType dataType, int length) throws DbfException {
+        return create(name, dataType, length, 0);
+    }
+
+    /**
+     * Creates definition of a field for a new dbf file, see {@link DbfHeader#create(java.util.List)}.
+     *
+     * @param name field name, up to 10 ASCII characters
+     * @param dataType type of the field
+     * @param length length of the field value in bytes, from 1 to 255
+     * @param decimalCount number of decimal places of NUMERIC and FLOAT fields
+     * @return created DbfField object.
+     * @throws DbfException if the definition is not valid.
+     */
+    public static DbfField create(String name, DbfDataType dataType, int length, int decimalCount)
+            throws DbfException {
+        if (name.isEmpty() || name.length() > 10 || !isAscii(name)) {
+            throw new DbfException(String.format("Invalid field name \"%s\"", name));
+        }
+        if (length < 1 || length > 255) {
+            throw new DbfException(String.format("Invalid length %d of field \"%s\"", length, name));
+        }
+        if (decimalCount < 0 || decimalCount > 0 && decimalCount > length - 2) {
+            throw new DbfException(String.format("Invalid decimal count %d of field \"%s\"", decimalCount, name));
+        }
+        DbfField field = new DbfField(0);
+        field.fieldName = name;
+        field.dataType = dataType;
+        field.fieldLength = length;
+        field.decimalCount = (byte) decimalCount;
+        return field;
+    }
+
+    private static boolean isAscii(String name) {
+        for (int i = 0; i < name.length(); i++) {
+            if (name.charAt(i) >= 0x80) return false;
+        }
+        return true;
+    }
+
     /**
      * <p>Creates a DBFField object from the data read from the given DataInputStream.</p>
      * <p>The data in the DataInputStream object is supposed to be organised correctly
@@ -53,32 +108,50 @@ public class DbfField {
                 return null;
             }
 
-            byte[] nameBuf = new byte[11];                      /* 1-10  */
-            in.readFully(nameBuf, 1, 10);
-            nameBuf[0] = firstByte;
-
-            int zeroIndex = 0;
-            while (zeroIndex < nameBuf.length && nameBuf[zeroIndex] != 0) zeroIndex++;
-            field.fieldName = new String(nameBuf, 0, zeroIndex);
-            byte fieldType  = in.readByte();
-            field.dataType = DbfDataType.valueOf(fieldType);    /* 11    */
-            if (field.dataType == null) {
-                throw new DbfException(
-                    String.format(
-                        "Unsupported Dbf field type: %s",
-                        Integer.toString(fieldType, 16)
-                    )
-                );
-            }
+            field.fieldName = readName(in, firstByte, 11);      /* 1-10  */
+            field.dataType = readDataType(in);                  /* 11    */
             field.reserv1 = DbfUtils.readLittleEndianInt(in);   /* 12-15 */
             field.fieldLength = in.readUnsignedByte();          /* 16    */
             field.decimalCount = in.readByte();                 /* 17    */
             field.reserv2 = DbfUtils.readLittleEndianShort(in); /* 18-19 */
             field.workAreaId = in.readByte();                   /* 20    */
-            field.reserv2 = DbfUtils.readLittleEndianShort(in); /* 21-22 */
+            field.reserv3 = DbfUtils.readLittleEndianShort(in); /* 21-22 */
             field.setFieldsFlag = in.readByte();                /* 23    */
             in.readFully(field.reserv4);                        /* 24-30 */
             field.indexFieldFlag = in.readByte();               /* 31    */
+            field.resolveBinaryMemo();
+
+            return field;
+        } catch (IOException e) {
+            throw new DbfException("Cannot read Dbf field", e);
+        }
+    }
+
+    /**
+     * Reads field descriptor of dBASE 7 file (fix 48 bytes), binary values of such fields are big-endian.
+     *
+     * @see #read(DataInput, int)
+     */
+    public static DbfField readLevel7(DataInput in, int fieldIndex) throws DbfException {
+        try {
+            DbfField field = new DbfField(fieldIndex);
+
+            byte firstByte = in.readByte();                     /* 0     */
+            if (firstByte == HEADER_TERMINATOR) {
+                return null;
+            }
+
+            field.fieldName = readName(in, firstByte, 32);      /* 1-31  */
+            field.dataType = readDataType(in);                  /* 32    */
+            field.fieldLength = in.readUnsignedByte();          /* 33    */
+            field.decimalCount = in.readByte();                 /* 34    */
+            in.readFully(new byte[2]);                          /* 35-36 */
+            field.indexFieldFlag = in.readByte();               /* 37    */
+            in.readFully(new byte[2]);                          /* 38-39 */
+            field.reserv1 = DbfUtils.readLittleEndianInt(in);   /* 40-43 next autoincrement value */
+            in.readFully(new byte[4]);                          /* 44-47 */
+            field.bigEndian = true;
+            field.resolveBinaryMemo();
 
             return field;
         } catch (IOException e) {
@@ -86,6 +159,64 @@ public class DbfField {
         }
     }
 
+    private static String readName(DataInput in, byte firstByte, int length) throws IOException {
+        byte[] nameBuf = new byte[length];
+        in.readFully(nameBuf, 1, length - 1);
+        nameBuf[0] = firstByte;
+
+        int zeroIndex = 0;
+        while (zeroIndex < nameBuf.length && nameBuf[zeroIndex] != 0) zeroIndex++;
+        return new String(nameBuf, 0, zeroIndex);
+    }
+
+    private static DbfDataType readDataType(DataInput in) throws IOException {
+        byte fieldType = in.readByte();
+        DbfDataType dataType = DbfDataType.valueOf(fieldType);
+        if (dataType == null) {
+            throw new DbfException(
+                String.format(
+                    "Unsupported Dbf field type: %s",
+                    Integer.toString(fieldType, 16)
+                )
+            );
+        }
+        return dataType;
+    }
+
+    private void resolveBinaryMemo() {
+        // 'B' is double in Visual FoxPro and link to binary memo in dBASE
+        if (dataType == DbfDataType.DOUBLE && fieldLength != 8) {
+            dataType = DbfDataType.MEMO;
+        }
+    }
+
+    /**
+     * Writes the field descriptor in the format it is read by {@link #read(DataInput, int)}.
+     *
+     * @param out DataOutput
+     * @throws DbfException if any stream writing problems occurs.
+     */
+    public void write(DataOutput out) throws DbfException {
+        try {
+            byte[] nameBuf = new byte[11];                      /* 0-10  */
+            byte[] name = fieldName.getBytes(StandardCharsets.US_ASCII);
+            System.arraycopy(name, 0, nameBuf, 0, name.length);
+            out.write(nameBuf);
+            out.writeByte(dataType.byteValue);                  /* 11    */
+            DbfUtils.writeLittleEndianInt(out, reserv1);        /* 12-15 */
+            out.writeByte(fieldLength);                         /* 16    */
+            out.writeByte(decimalCount);                        /* 17    */
+            DbfUtils.writeLittleEndianShort(out, reserv2);      /* 18-19 */
+            out.writeByte(workAreaId);                          /* 20    */
+            DbfUtils.writeLittleEndianShort(out, reserv3);      /* 21-22 */
+            out.writeByte(setFieldsFlag);                       /* 23    */
+            out.write(reserv4);                                 /* 24-30 */
+            out.writeByte(indexFieldFlag);                      /* 31    */
+        } catch (IOException e) {
+            throw new DbfException("Cannot write Dbf field", e);
+        }
+    }
+
     public String getName() {
         return fieldName;
     }
@@ -105,6 +236,68 @@ public class DbfField {
     public int getFieldIndex() {
         return fieldIndex;
     }
+
+    /**
+     * @return {@code true} if the field may be NULL, NULL values are marked in
+     * {@link DbfDataType#NULL_FLAGS} field (Visual FoxPro).
+     */
+    public boolean isNullable() {
+        return (reserv2 & NULLABLE_FLAG) != 0;
+    }
+
+    /**
+     * @return {@code true} if the field is a hidden system field like _NullFlags (Visual FoxPro).
+     */
+    public boolean isSystem() {
+        return (reserv2 & SYSTEM_FLAG) != 0 || dataType == DbfDataType.NULL_FLAGS;
+    }
+
+    /**
+     * @return {@code true} if binary values of the field are big-endian with the sign bit flipped
+     * (dBASE 7), {@code false} if they are little-endian (Visual FoxPro).
+     */
+    public boolean isBigEndian() {
+        return bigEndian;
+    }
+
+    /**
+     * @return offset of the field value from the beginning of the record
+     * (the first byte of each record is the deletion flag).
+     */
+    public int getOffset() {
+        return offset;
+    }
+
+    /* package */ void setOffset(int offset) {
+        this.offset = offset;
+    }
+
+    /* package */ void setFieldIndex(int fieldIndex) {
+        this.fieldIndex = fieldIndex;
+    }
+
+    /**
+     * @return index of the bit of NULL value in _NullFlags, -1 if the field is not nullable.
+     */
+    /* package */ int getNullBit() {
+        return nullBit;
+    }
+
+    /* package */ void setNullBit(int nullBit) {
+        this.nullBit = nullBit;
+    }
+
+    /**
+     * @return index of the bit in _NullFlags which is set if the variable length value is
+     * shorter than the field, -1 if the field is not of variable length.
+     */
+    /* package */ int getLengthBit() {
+        return lengthBit;
+    }
+
+    /* package */ void setLengthBit(int lengthBit) {
+        this.lengthBit = lengthBit;
+    }
 }
 
 
@@ -1,10 +1,14 @@
 package org.jamel.dbf.structure;
 
 import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.utils.CodePages;
 import org.jamel.dbf.utils.DbfUtils;
 
 import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
@@ -23,8 +27,8 @@ public class DbfHeader {
     private byte month;                  /* 2     */
     private byte day;                    /* 3     */
     private int numberOfRecords;         /* 4-7   */
-    private short headerLength;          /* 8-9   */
-    private short recordLength;          /* 10-11 */
+    private int headerLength;            /* 8-9   */
+    private int recordLength;            /* 10-11 */
     private short reserv1;               /* 12-13 */
     private byte incompleteTransaction;  /* 14    */
     private byte encryptionFlag;         /* 15    */
@@ -34,9 +38,13 @@ public class DbfHeader {
     private byte mdxFlag;                /* 28    */
     private byte languageDriver;         /* 29    */
     private short reserv4;               /* 30-31 */
-    private List<DbfField> fields;       /* each 32 bytes */
+    private List<DbfField> fields;       /* each 32 bytes, 48 bytes in dBASE 7 */
 
-    private Map<String, Integer> fieldIndexesByNames;
+    /** Built on the first lookup, published once it is filled, so the header can be shared by threads */
+    private volatile Map<String, Integer> fieldIndexesByNames;
+    private int descriptorLength;
+    /** Field with bits of NULL values, {@code null} if there is none */
+    private DbfField nullFlags;
 
 
     public static DbfHeader read(DataInput dataInput) throws DbfException {
@@ -48,9 +56,13 @@ public class DbfHeader {
             header.month = dataInput.readByte();                               /* 2     */
             header.day = dataInput.readByte();                                 /* 3     */
             header.numberOfRecords = DbfUtils.readLittleEndianInt(dataInput);  /* 4-7   */
+            if (header.numberOfRecords < 0) {
+                throw new DbfException("Number of records exceeds the maximum of "
+                        + Integer.MAX_VALUE + ": " + (header.numberOfRecords & 0xffffffffL));
+            }
 
-            header.headerLength = DbfUtils.readLittleEndianShort(dataInput);   /* 8-9   */
-            header.recordLength = DbfUtils.readLittleEndianShort(dataInput);   /* 10-11 */
+            header.headerLength = DbfUtils.readLittleEndianUnsignedShort(dataInput); /* 8-9   */
+            header.recordLength = DbfUtils.readLittleEndianUnsignedShort(dataInput); /* 10-11 */
 
             header.reserv1 = DbfUtils.readLittleEndianShort(dataInput);        /* 12-13 */
             header.incompleteTransaction = dataInput.readByte();               /* 14    */
@@ -62,12 +74,26 @@ public class DbfHeader {
             header.languageDriver = dataInput.readByte();                      /* 29    */
             header.reserv4 = DbfUtils.readLittleEndianShort(dataInput);        /* 30-31 */
 
+            boolean level7 = header.isLevel7();
+            if (level7) {
+                dataInput.readFully(new byte[36]);                             /* 32-67 language driver name */
+            }
+
             header.fields = new ArrayList<>();
             DbfField field;
             int fieldIndex = 0;
-            while ((field = DbfField.read(dataInput, fieldIndex++)) != null) { /* 32 each */
+            int fieldOffset = 1; // skip deletion flag
+            while ((field = level7
+                    ? DbfField.readLevel7(dataInput, fieldIndex++)             /* 48 each */
+                    : DbfField.read(dataInput, fieldIndex++)) != null) {       /* 32 each */
+                field.setOffset(fieldOffset);
+                fieldOffset += field.getFieldLength();
                 header.fields.add(field);
             }
+            header.descriptorLength = level7
+                    ? 68 + 48 * header.fields.size() + 1
+                    : 32 + 32 * header.fields.size() + 1;
+            header.assignNullBits();
 
             return header;
         } catch (IOException e) {
@@ -75,10 +101,164 @@ public class DbfHeader {
         }
     }
 
-    public short getHeaderLength() {
+    /**
+     * Creates header of a new dBASE III file without records, the date of
+     * the last update is set to the current date.
+     *
+     * @param fields definitions of the fields, see {@link DbfField#create(String, DbfDataType, int, int)}
+     * @return created header.
+     * @throws DbfException if there are no fields, names of the fields are not unique or records are too long.
+     */
+    public static DbfHeader create(List<DbfField> fields) throws DbfException {
+        if (fields.isEmpty()) {
+            throw new DbfException("Dbf file must have at least one field");
+        }
+        DbfHeader header = new DbfHeader();
+        header.signature = 0x03;
+        LocalDate today = LocalDate.now();
+        header.year = (byte) (today.getYear() - 1900);
+        header.month = (byte) today.getMonthValue();
+        header.day = (byte) today.getDayOfMonth();
+        header.headerLength = 32 * (fields.size() + 1) + 1;
+        if (header.headerLength > 0xffff) {
+            throw new DbfException("Header length " + header.headerLength + " exceeds the maximum of 65535 bytes");
+        }
+        header.descriptorLength = header.headerLength;
+
+        header.fields = new ArrayList<>(fields.size());
+        int fieldOffset = 1; // skip deletion flag
+        for (DbfField field : fields) {
+            if (header.getFieldIndex(field.getName()) >= 0) {
+                throw new DbfException(String.format("Field \"%s\" is defined twice", field.getName()));
+            }
+            DbfField copy = DbfField.create(field.getName(), field.getDataType(),
+                    field.getFieldLength(), field.getDecimalCount());
+            copy.setFieldIndex(header.fields.size());
+            copy.setOffset(fieldOffset);
+            fieldOffset += field.getFieldLength();
+            header.fields.add(copy);
+            header.fieldIndexesByNames.put(copy.getName(), copy.getFieldIndex());
+        }
+        if (fieldOffset > 0xffff) {
+            throw new DbfException("Record length " + fieldOffset + " exceeds the maximum of 65535 bytes");
+        }
+        header.recordLength = fieldOffset;
+        return header;
+    }
+
+    /**
+     * Writes the header and the field descriptors followed by the header terminator.
+     *
+     * @param dataOutput DataOutput
+     * @throws DbfException if any stream writing problems occurs.
+     */
+    public void write(DataOutput dataOutput) throws DbfException {
+        try {
+            dataOutput.writeByte(signature);                                   /* 0     */
+            dataOutput.writeByte(year);                                        /* 1     */
+            dataOutput.writeByte(month);                                       /* 2     */
+            dataOutput.writeByte(day);                                         /* 3     */
+            DbfUtils.writeLittleEndianInt(dataOutput, numberOfRecords);        /* 4-7   */
+
+            DbfUtils.writeLittleEndianShort(dataOutput, headerLength);         /* 8-9   */
+            DbfUtils.writeLittleEndianShort(dataOutput, recordLength);         /* 10-11 */
+
+            DbfUtils.writeLittleEndianShort(dataOutput, reserv1);              /* 12-13 */
+            dataOutput.writeByte(incompleteTransaction);                       /* 14    */
+            dataOutput.writeByte(encryptionFlag);                              /* 15    */
+            DbfUtils.writeLittleEndianInt(dataOutput, freeRecordThread);       /* 16-19 */
+            dataOutput.writeInt(reserv2);                                      /* 20-23 */
+            dataOutput.writeInt(reserv3);                                      /* 24-27 */
+            dataOutput.writeByte(mdxFlag);                                     /* 28    */
+            dataOutput.writeByte(languageDriver);                              /* 29    */
+            DbfUtils.writeLittleEndianShort(dataOutput, reserv4);              /* 30-31 */
+
+            for (DbfField field : fields) {                                    /* 32 each */
+                field.write(dataOutput);
+            }
+            dataOutput.writeByte(DbfField.HEADER_TERMINATOR);
+        } catch (IOException e) {
+            throw new DbfException("Cannot write Dbf header", e);
+        }
+    }
+
+    private boolean isLevel7() {
+        // 0x04 and 0x8C
+        return (signature & 0x07) == 4;
+    }
+
+    /**
+     * Assigns bits of _NullFlags in the order of the fields: a bit of the length of
+     * each variable length field, then a bit of NULL value of each nullable field.
+     */
+    private void assignNullBits() {
+        for (DbfField field : fields) {
+            if (field.getDataType() == DbfDataType.NULL_FLAGS) {
+                nullFlags = field;
+            }
+        }
+        if (nullFlags == null) {
+            return;
+        }
+        int bit = 0;
+        for (DbfField field : fields) {
+            if (field == nullFlags) {
+                continue;
+            }
+            DbfDataType type = field.getDataType();
+            if (type == DbfDataType.VARCHAR || type == DbfDataType.VARBINARY) {
+                field.setLengthBit(bit++);
+            }
+            if (field.isNullable()) {
+                field.setNullBit(bit++);
+            }
+        }
+    }
+
+    /**
+     * Checks the bit of NULL value of the field in _NullFlags of the record (Visual FoxPro).
+     *
+     * @param field field of this header
+     * @param record raw bytes of the record, starting with the deletion flag
+     * @return {@code true} if the value is marked as NULL, {@code false} if it is not or the field is not nullable
+     */
+    public boolean isNull(DbfField field, byte[] record) {
+        return isFlagSet(record, field.getNullBit());
+    }
+
+    /**
+     * @param field VARCHAR or VARBINARY field of this header
+     * @param record raw bytes of the record, starting with the deletion flag
+     * @return length of the value of the variable length field in the record, the length of
+     * the field for other fields.
+     */
+    public int getValueLength(DbfField field, byte[] record) {
+        int length = field.getFieldLength();
+        if (isFlagSet(record, field.getLengthBit())) {
+            length = Math.min(length - 1, record[field.getOffset() + length - 1] & 0xff);
+        }
+        return length;
+    }
+
+    private boolean isFlagSet(byte[] record, int bit) {
+        return bit >= 0 && (record[nullFlags.getOffset() + (bit >>> 3)] & (1 << (bit & 7))) != 0;
+    }
+
+    /**
+     * @return offset of the first record from the beginning of the file, from 0 to 65535.
+     */
+    public int getHeaderLength() {
         return headerLength;
     }
 
+    /**
+     * @return number of bytes of the header structure and the field descriptors with the terminator,
+     * the records start at the header length which may be larger.
+     */
+    public int getDescriptorLength() {
+        return descriptorLength;
+    }
+
     public int getFieldsCount() {
         return fields.size();
     }
@@ -107,23 +287,58 @@ public class DbfHeader {
         return numberOfRecords;
     }
 
-    public short getRecordLength() {
+    /**
+     * @return length of the record with the deletion flag, from 0 to 65535.
+     */
+    public int getRecordLength() {
         return recordLength;
     }
 
+    /**
+     * @param n the zero-based record index
+     * @return offset of the record from the beginning of the file, files may be larger than 4 GB.
+     */
+    public long getRecordPosition(long n) {
+        return headerLength + n * recordLength;
+    }
+
+    /**
+     * @return {@code true} if the file has production index (.mdx or .cdx file with the same name).
+     */
+    public boolean hasProductionIndex() {
+        return mdxFlag != 0;
+    }
+
+    /**
+     * @return id of the language driver, which defines the code page of the file, 0 if it is not set.
+     */
+    public byte getLanguageDriver() {
+        return languageDriver;
+    }
+
+    /**
+     * @return charset of the code page marked by the language driver, {@code null} if it is not known.
+     */
+    public Charset getCodePage() {
+        return CodePages.forLanguageDriver(languageDriver);
+    }
+
     public int getFieldIndex(String fieldName) {
-        if (fieldIndexesByNames == null) {
-            initFieldIndexesByNames();
+        Map<String, Integer> indexes = fieldIndexesByNames;
+        if (indexes == null) {
+            indexes = initFieldIndexesByNames();
         }
-        Integer index = fieldIndexesByNames.get(fieldName);
+        Integer index = indexes.get(fieldName);
         return index == null ? -1 : index;
     }
 
-    private void initFieldIndexesByNames() {
-        fieldIndexesByNames = new HashMap<>(fields.size());
+    private Map<String, Integer> initFieldIndexesByNames() {
+        Map<String, Integer> indexes = new HashMap<>(fields.size());
         for (int i = 0; i < fields.size(); i++) {
             DbfField field = fields.get(i);
-            fieldIndexesByNames.put(field.getName(), i);
+            indexes.put(field.getName(), i);
         }
+        fieldIndexesByNames = indexes;
+        return indexes;
     }
 }
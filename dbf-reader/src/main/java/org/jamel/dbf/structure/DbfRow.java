@@ -1,13 +1,19 @@
 package org.jamel.dbf.structure;
 
 import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.memo.DbfMemoFile;
+import org.jamel.dbf.utils.StringDecoder;
 
 import java.math.BigDecimal;
 import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.ZoneId;
 import java.util.Date;
 
 import static java.lang.String.format;
-import static org.jamel.dbf.utils.DbfUtils.trimLeftSpaces;
+import static org.jamel.dbf.utils.DbfUtils.trimmedLength;
 
 /**
  * Represents a DBF row (record) with ability to get field's value by its name.
@@ -21,11 +27,20 @@ public class DbfRow {
     private final DbfHeader header;
     private final Charset defaultCharset;
     private final Object[] row;
+    private final DbfMemoFile memoFile;
 
     public DbfRow(DbfHeader header, Charset defaultCharset, Object[] row) {
+        this(header, defaultCharset, row, null);
+    }
+
+    /**
+     * @param memoFile memo file to read values of MEMO fields from, may be {@code null}
+     */
+    public DbfRow(DbfHeader header, Charset defaultCharset, Object[] row, DbfMemoFile memoFile) {
         this.header = header;
         this.defaultCharset = defaultCharset;
         this.row = row;
+        this.memoFile = memoFile;
     }
 
     /**
@@ -48,8 +63,59 @@ public class DbfRow {
      * @throws DbfException if there's no field with name fieldName
      */
     public Date getDate(String fieldName) throws DbfException {
-        Date value = (Date) get(fieldName);
-        return value == null ? null : value;
+        Object value = get(fieldName);
+        if (value == null || value instanceof Date) {
+            return (Date) value;
+        }
+        if (value instanceof LocalDateTime || value instanceof Long) {
+            return Date.from(getLocalDateTime(fieldName).atZone(ZoneId.systemDefault()).toInstant());
+        }
+        return Date.from(getLocalDate(fieldName).atStartOfDay(ZoneId.systemDefault()).toInstant());
+    }
+
+    /**
+     * Retrieves the value of the designated field as java.time.LocalDate.
+     *
+     * @param fieldName the name of the field
+     * @return the field value, or null (if the dbf value is NULL)
+     * @throws DbfException if there's no field with name fieldName
+     */
+    public LocalDate getLocalDate(String fieldName) throws DbfException {
+        Object value = get(fieldName);
+        if (value == null || value instanceof LocalDate) {
+            return (LocalDate) value;
+        }
+        if (value instanceof Date) {
+            return ((Date) value).toInstant().atZone(ZoneId.systemDefault()).toLocalDate();
+        }
+        if (value instanceof LocalDateTime || value instanceof Long) {
+            return getLocalDateTime(fieldName).toLocalDate();
+        }
+        return LocalDate.ofEpochDay(((Number) value).longValue());
+    }
+
+    /**
+     * Retrieves the value of the designated field as java.time.LocalDateTime,
+     * dates are returned as the start of the day.
+     *
+     * @param fieldName the name of the field
+     * @return the field value, or null (if the dbf value is NULL)
+     * @throws DbfException if there's no field with name fieldName
+     */
+    public LocalDateTime getLocalDateTime(String fieldName) throws DbfException {
+        Object value = get(fieldName);
+        if (value == null || value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        if (value instanceof Date) {
+            return LocalDateTime.ofInstant(((Date) value).toInstant(), ZoneId.systemDefault());
+        }
+        if (value instanceof Long) {
+            // milliseconds of date times in EPOCH_DAY mode
+            return LocalDateTime.ofEpochSecond(Math.floorDiv((Long) value, 1000L),
+                    (int) Math.floorMod((Long) value, 1000L) * 1000000, ZoneOffset.UTC);
+        }
+        return getLocalDate(fieldName).atStartOfDay();
     }
 
     /**
@@ -73,10 +139,10 @@ public class DbfRow {
      * @throws DbfException if there's no field with name fieldName
      */
     public String getString(String fieldName, Charset charset) throws DbfException {
-        Object value = get(fieldName);
+        byte[] value = (byte[]) get(fieldName);
         return value == null
                 ? null
-                : new String(trimLeftSpaces((byte[]) value), charset);
+                : StringDecoder.decode(value, 0, trimmedLength(value, 0, value.length), charset);
     }
 
     /**
@@ -157,6 +223,56 @@ public class DbfRow {
         return getNumber(fieldName).doubleValue();
     }
 
+    /**
+     * Retrieves the value of the designated MEMO field. The value is looked up in the LRU cache
+     * of the memo file and read from the disk only if it is not cached, each call returns a new
+     * copy of the bytes. The memo file must not be closed yet.
+     *
+     * @param fieldName the name of the field
+     * @return the field value, or null (if the field is empty)
+     * @throws DbfException if there's no field with name fieldName or the memo file is not available
+     */
+    public byte[] getMemo(String fieldName) throws DbfException {
+        return memoFile(fieldName).read(memoBlock(fieldName));
+    }
+
+    /**
+     * Retrieves the value of the designated MEMO field as String.
+     *
+     * @param fieldName the name of the field
+     * @return the field value, or null (if the field is empty)
+     * @throws DbfException if there's no field with name fieldName or the memo file is not available
+     * @see #getMemo(String)
+     */
+    public String getMemoString(String fieldName) throws DbfException {
+        return getMemoString(fieldName, defaultCharset);
+    }
+
+    /**
+     * Retrieves the value of the designated MEMO field as String using given charset.
+     *
+     * @param fieldName the name of the field
+     * @param charset the charset to be used to decode field value
+     * @return the field value, or null (if the field is empty)
+     * @throws DbfException if there's no field with name fieldName or the memo file is not available
+     * @see #getMemo(String)
+     */
+    public String getMemoString(String fieldName, Charset charset) throws DbfException {
+        return memoFile(fieldName).readString(memoBlock(fieldName), charset);
+    }
+
+    private DbfMemoFile memoFile(String fieldName) {
+        if (memoFile == null) {
+            throw new DbfException(format("Memo file of field \"%s\" is not available", fieldName));
+        }
+        return memoFile;
+    }
+
+    private int memoBlock(String fieldName) {
+        Number link = (Number) get(fieldName);
+        return link == null ? 0 : link.intValue();
+    }
+
     /**
      * Retrieves the value of the designated field as Object.
      *
@@ -0,0 +1,70 @@
+package org.jamel.dbf.utils;
+
+import java.nio.charset.Charset;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Code pages of dbf files by the language driver id (byte 29 of the header),
+ * as they are marked by dBASE, FoxPro and Visual FoxPro.
+ */
+public final class CodePages {
+
+    private static final Map<Integer, String> CHARSET_NAMES = new HashMap<>();
+
+    static {
+        names("IBM437", 0x01, 0x09, 0x0B, 0x0D, 0x0F, 0x11, 0x15, 0x18, 0x19, 0x1B);
+        names("IBM850", 0x02, 0x0A, 0x0E, 0x10, 0x12, 0x14, 0x16, 0x1A, 0x1D, 0x25, 0x37);
+        names("windows-1252", 0x03, 0x57, 0x58, 0x59);
+        names("x-MacRoman", 0x04);
+        names("IBM865", 0x08, 0x17, 0x66);
+        names("IBM863", 0x1C, 0x6C);
+        names("IBM852", 0x1F, 0x22, 0x23, 0x40, 0x64, 0x87);
+        names("IBM860", 0x24);
+        names("IBM866", 0x26, 0x65);
+        names("IBM861", 0x67);
+        names("x-IBM737", 0x6A, 0x86);
+        names("IBM857", 0x6B, 0x88);
+        names("windows-31j", 0x13, 0x7B);
+        names("GBK", 0x4D, 0x7A);
+        names("x-windows-949", 0x4E, 0x79);
+        names("x-windows-950", 0x4F, 0x78);
+        names("x-windows-874", 0x50, 0x7C);
+        names("windows-1255", 0x7D);
+        names("windows-1256", 0x7E);
+        names("x-MacCyrillic", 0x96);
+        names("x-MacCentralEurope", 0x97);
+        names("x-MacGreek", 0x98);
+        names("windows-1250", 0xC8);
+        names("windows-1251", 0xC9);
+        names("windows-1254", 0xCA);
+        names("windows-1253", 0xCB);
+        names("windows-1257", 0xCC);
+    }
+
+    private CodePages() {
+    }
+
+    private static void names(String charsetName, int... languageDrivers) {
+        for (int languageDriver : languageDrivers) {
+            CHARSET_NAMES.put(languageDriver, charsetName);
+        }
+    }
+
+    /**
+     * @param languageDriver language driver id from the dbf header
+     * @return charset of the code page or {@code null} if the id is not known
+     * or the charset is not supported by the JVM.
+     */
+    public static Charset forLanguageDriver(byte languageDriver) {
+        String name = CHARSET_NAMES.get(languageDriver & 0xff);
+        if (name == null) {
+            return null;
+        }
+        try {
+            return Charset.forName(name);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package org.jamel.dbf.utils;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.Date;
+
+/**
+ * Converts epoch days of DATE fields to {@link LocalDate} and {@link Date} without
+ * calendars. Conversions of recently seen days are cached, dates of a ledger usually
+ * repeat, so most values are converted once. Cached {@link Date} values are mutable,
+ * so a new instance is returned each time. This class is not thread safe.
+ */
+public class DateDecoder {
+
+    private static final int CACHE_SIZE = 64;
+
+    private final ZoneId zone;
+    private final int[] days;
+    private final LocalDate[] dates;
+    private final long[] millis;
+
+    /**
+     * @param cached whether conversions of recently seen days are cached
+     */
+    public DateDecoder(boolean cached) {
+        this.zone = ZoneId.systemDefault();
+        int size = cached ? CACHE_SIZE : 0;
+        this.days = new int[size];
+        this.dates = new LocalDate[size];
+        this.millis = new long[size];
+        Arrays.fill(days, DbfUtils.INVALID_DATE);
+    }
+
+    public LocalDate toLocalDate(int epochDay) {
+        if (days.length == 0) {
+            return LocalDate.ofEpochDay(epochDay);
+        }
+        int slot = slot(epochDay);
+        if (dates[slot] == null) {
+            dates[slot] = LocalDate.ofEpochDay(epochDay);
+        }
+        return dates[slot];
+    }
+
+    /**
+     * @return new date of the start of the day in the default time zone.
+     */
+    public Date toDate(int epochDay) {
+        if (days.length == 0) {
+            return new Date(startOfDay(LocalDate.ofEpochDay(epochDay)));
+        }
+        int slot = slot(epochDay);
+        if (millis[slot] == Long.MIN_VALUE) {
+            millis[slot] = startOfDay(toLocalDate(epochDay));
+        }
+        return new Date(millis[slot]);
+    }
+
+    private long startOfDay(LocalDate date) {
+        return date.atStartOfDay(zone).toInstant().toEpochMilli();
+    }
+
+    /**
+     * @return slot of the day in the cache, it is cleared if it kept another day.
+     */
+    private int slot(int epochDay) {
+        int slot = epochDay & (CACHE_SIZE - 1);
+        if (days[slot] != epochDay) {
+            days[slot] = epochDay;
+            dates[slot] = null;
+            millis[slot] = Long.MIN_VALUE;
+        }
+        return slot;
+    }
+}
@@ -1,13 +1,43 @@
 package org.jamel.dbf.utils;
 
 import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
 
 /**
  * @author Sergey Polovko
  */
 public final class DbfUtils {
 
+    /** Result of {@link #parseEpochDay(byte[], int)} for blank and invalid dates */
+    public static final int INVALID_DATE = Integer.MIN_VALUE;
+
+    /** Number of days from 0000-01-01 to 1970-01-01 in the proleptic Gregorian calendar */
+    private static final int DAYS_0000_TO_1970 = 719528;
+
+    /** Mantissas below this bound have at most 15 digits and are exactly representable as double */
+    private static final long MAX_DOUBLE_MANTISSA = 1000000000000000L;
+
+    private static final double[] DOUBLE_POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10,
+            1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22
+    };
+
+    /** Mantissas below this bound have at most 7 digits and are exactly representable as float */
+    private static final long MAX_FLOAT_MANTISSA = 10000000L;
+
+    private static final float[] FLOAT_POW10 = {
+            1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+    };
+
+    private static final long[] LONG_POW10 = {
+            1L, 10L, 100L, 1000L, 10000L, 100000L, 1000000L, 10000000L, 100000000L, 1000000000L,
+            10000000000L, 100000000000L, 1000000000000L, 10000000000000L, 100000000000000L,
+            1000000000000000L, 10000000000000000L, 100000000000000000L, 1000000000000000000L
+    };
+
     private DbfUtils() {
     }
 
@@ -20,9 +50,48 @@ public final class DbfUtils {
     }
 
     public static short readLittleEndianShort(DataInput in) throws IOException {
-        int low = in.readUnsignedByte() & 0xff;
+        return (short) readLittleEndianUnsignedShort(in);
+    }
+
+    public static int readLittleEndianUnsignedShort(DataInput in) throws IOException {
+        int low = in.readUnsignedByte();
         int high = in.readUnsignedByte();
-        return (short) (high << 8 | low);
+        return high << 8 | low;
+    }
+
+    public static void writeLittleEndianInt(DataOutput out, int value) throws IOException {
+        for (int shiftBy = 0; shiftBy < 32; shiftBy += 8) {
+            out.writeByte(value >>> shiftBy);
+        }
+    }
+
+    public static void writeLittleEndianShort(DataOutput out, int value) throws IOException {
+        out.writeByte(value);
+        out.writeByte(value >>> 8);
+    }
+
+    public static int readLittleEndianInt(byte[] buf, int offset) {
+        return (buf[offset] & 0xff)
+                | (buf[offset + 1] & 0xff) << 8
+                | (buf[offset + 2] & 0xff) << 16
+                | (buf[offset + 3] & 0xff) << 24;
+    }
+
+    public static long readLittleEndianLong(byte[] buf, int offset) {
+        return (readLittleEndianInt(buf, offset) & 0xffffffffL)
+                | (long) readLittleEndianInt(buf, offset + 4) << 32;
+    }
+
+    public static int readBigEndianInt(byte[] buf, int offset) {
+        return (buf[offset] & 0xff) << 24
+                | (buf[offset + 1] & 0xff) << 16
+                | (buf[offset + 2] & 0xff) << 8
+                | (buf[offset + 3] & 0xff);
+    }
+
+    public static long readBigEndianLong(byte[] buf, int offset) {
+        return (long) readBigEndianInt(buf, offset) << 32
+                | (readBigEndianInt(buf, offset + 4) & 0xffffffffL);
     }
 
     public static byte[] trimLeftSpaces(byte[] arr) {
@@ -33,6 +102,18 @@ public final class DbfUtils {
         return result;
     }
 
+    /**
+     * @param arr   bytes of string value
+     * @param from  index to start from
+     * @param to    index to end at
+     * @return length of the value in range [from, to) without trailing spaces
+     */
+    public static int trimmedLength(byte[] arr, int from, int to) {
+        int i = to;
+        while (--i >= from && arr[i] == ' ') /* EMPTY LOOP */ ;
+        return i + 1 - from;
+    }
+
     public static boolean contains(byte[] arr, byte value) {
         for (byte anArr : arr) {
             if (anArr == value) return true;
@@ -41,6 +122,14 @@ public final class DbfUtils {
         return false;
     }
 
+    public static boolean contains(byte[] arr, int from, int to, byte value) {
+        for (int i = from; i < to; i++) {
+            if (arr[i] == value) return true;
+        }
+
+        return false;
+    }
+
     /**
      * parses only positive numbers
      *
@@ -110,4 +199,226 @@ public final class DbfUtils {
         }
         return result;
     }
+
+    /**
+     * Checks if bytes of numeric field denote NULL value, i.e. the value is blank or contains '?'.
+     *
+     * @param bytes   bytes of string value
+     * @param from    index to start from
+     * @param to      index to end at
+     * @return {@code true} if the value is NULL
+     */
+    public static boolean isNullNumber(byte[] bytes, int from, int to) {
+        int length = trimmedLength(bytes, from, to);
+        return length == 0 || contains(bytes, from, from + length, (byte) '?');
+    }
+
+    /**
+     * Parses decimal number written in ASCII without creating intermediate objects.
+     * The value may be surrounded by spaces and have a sign. Plain values with up to 15
+     * significant digits and up to 22 fraction digits are computed directly, all others are
+     * passed to {@link Double#parseDouble(String)}, so the result is always the same as of
+     * {@code Double.valueOf(new String(bytes, from, to - from))}.
+     *
+     * @param bytes   bytes of string value
+     * @param from    index to start from
+     * @param to      index to end at
+     * @return double value
+     * @throws NumberFormatException if the value is not a number
+     */
+    public static double parseDouble(byte[] bytes, int from, int to) {
+        long mantissa = scanMantissa(bytes, from, to, MAX_DOUBLE_MANTISSA);
+        int scale = mantissa < 0 ? 0 : scanScale(bytes, from, to);
+        if (mantissa < 0 || scale >= DOUBLE_POW10.length) {
+            // exponent, too many digits or malformed value
+            return Double.parseDouble(new String(bytes, from, to - from));
+        }
+
+        double value = scale > 0 ? mantissa / DOUBLE_POW10[scale] : (double) mantissa;
+        return isNegative(bytes, from, to) ? -value : value;
+    }
+
+    /**
+     * Parses decimal number written in ASCII without creating intermediate objects.
+     * Plain values with up to 7 significant digits and up to 10 fraction digits are
+     * computed directly, all others are passed to {@link Float#parseFloat(String)}, so
+     * the result is always the same as of {@code Float.valueOf(new String(bytes, from, to - from))}.
+     *
+     * @param bytes   bytes of string value
+     * @param from    index to start from
+     * @param to      index to end at
+     * @return float value
+     * @throws NumberFormatException if the value is not a number
+     */
+    public static float parseFloat(byte[] bytes, int from, int to) {
+        long mantissa = scanMantissa(bytes, from, to, MAX_FLOAT_MANTISSA);
+        int scale = mantissa < 0 ? 0 : scanScale(bytes, from, to);
+        if (mantissa < 0 || scale >= FLOAT_POW10.length) {
+            return Float.parseFloat(new String(bytes, from, to - from));
+        }
+
+        float value = scale > 0 ? mantissa / FLOAT_POW10[scale] : (float) mantissa;
+        return isNegative(bytes, from, to) ? -value : value;
+    }
+
+    /**
+     * Parses decimal number written in ASCII to fixed point value with the given number
+     * of fraction digits, e.g. "-12.5" with scale 2 gives -1250. Extra fraction digits
+     * are truncated. Values which don't fit into the fast path (exponent, 19 digits or more)
+     * are converted through {@link BigDecimal}.
+     *
+     * @param bytes   bytes of string value
+     * @param from    index to start from
+     * @param to      index to end at
+     * @param scale   number of fraction digits of the result
+     * @return value multiplied by 10<sup>scale</sup>
+     * @throws NumberFormatException if the value is not a number or the result doesn't fit into long
+     */
+    public static long parseScaledLong(byte[] bytes, int from, int to, int scale) {
+        long mantissa = scanMantissa(bytes, from, to, LONG_POW10[LONG_POW10.length - 1]);
+        if (mantissa >= 0) {
+            int fraction = scanScale(bytes, from, to);
+            long value = -1;
+            if (fraction - scale >= LONG_POW10.length) {
+                value = 0;
+            } else if (fraction >= scale) {
+                value = mantissa / LONG_POW10[fraction - scale];
+            } else if (scale - fraction < LONG_POW10.length) {
+                long multiplier = LONG_POW10[scale - fraction];
+                if (mantissa <= Long.MAX_VALUE / multiplier) {
+                    value = mantissa * multiplier;
+                }
+            }
+            if (value >= 0) {
+                return isNegative(bytes, from, to) ? -value : value;
+            }
+        }
+        String text = new String(bytes, from, to - from).trim();
+        try {
+            return new BigDecimal(text)
+                    .movePointRight(scale)
+                    .setScale(0, RoundingMode.DOWN)
+                    .longValueExact();
+        } catch (ArithmeticException e) {
+            throw new NumberFormatException("Value " + text + " with scale " + scale + " is out of range of long");
+        }
+    }
+
+    /**
+     * Scans plain decimal value: optional spaces, sign, digits with optional decimal point
+     * and spaces.
+     *
+     * @return absolute value of the number without decimal point, or -1 if the value has other
+     * format or its mantissa reaches the limit
+     */
+    private static long scanMantissa(byte[] bytes, int from, int to, long maxMantissa) {
+        int i = from;
+        while (i < to && bytes[i] == ' ') i++;
+        int end = to;
+        while (end > i && bytes[end - 1] == ' ') end--;
+        if (i < end && (bytes[i] == '-' || bytes[i] == '+')) i++;
+
+        long mantissa = 0;
+        boolean point = false;
+        int digits = 0;
+        for (; i < end; i++) {
+            byte b = bytes[i];
+            if (b >= '0' && b <= '9') {
+                mantissa = mantissa * 10 + (b - '0');
+                if (mantissa >= maxMantissa) return -1;
+                digits++;
+            } else if (b == '.' && !point) {
+                point = true;
+            } else {
+                return -1;
+            }
+        }
+        return digits > 0 ? mantissa : -1;
+    }
+
+    /**
+     * @return number of digits after decimal point of the plain decimal value
+     */
+    private static int scanScale(byte[] bytes, int from, int to) {
+        int end = to;
+        while (bytes[end - 1] == ' ') end--;
+        int i = end;
+        while (--i >= from && bytes[i] >= '0' && bytes[i] <= '9') /* EMPTY LOOP */ ;
+        return (i >= from && bytes[i] == '.') ? end - i - 1 : 0;
+    }
+
+    private static boolean isNegative(byte[] bytes, int from, int to) {
+        int i = from;
+        while (i < to && bytes[i] == ' ') i++;
+        return i < to && bytes[i] == '-';
+    }
+
+    /**
+     * Converts date to the number of days since 1970-01-01
+     * in the proleptic Gregorian calendar.
+     *
+     * @param year    year
+     * @param month   month from 1 to 12
+     * @param day     day of month from 1 to 31
+     * @return epoch day
+     */
+    public static int toEpochDay(int year, int month, int day) {
+        long y = year;
+        long total = 365 * y;
+        if (y >= 0) {
+            total += (y + 3) / 4 - (y + 99) / 100 + (y + 399) / 400;
+        } else {
+            total -= y / -4 - y / -100 + y / -400;
+        }
+        total += (367 * month - 362) / 12;
+        total += day - 1;
+        if (month > 2) {
+            total--;
+            if (!isLeapYear(year)) {
+                total--;
+            }
+        }
+        return (int) (total - DAYS_0000_TO_1970);
+    }
+
+    /**
+     * Parses date written as 8 ASCII digits YYYYMMDD without creating intermediate objects.
+     *
+     * @param bytes   bytes of the record
+     * @param from    index of the first digit
+     * @return number of days since 1970-01-01, or {@link #INVALID_DATE} if the value is blank
+     * or is not a valid date
+     */
+    public static int parseEpochDay(byte[] bytes, int from) {
+        int value = 0;
+        for (int i = from; i < from + 8; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return INVALID_DATE;
+            }
+            value = value * 10 + digit;
+        }
+        int year = value / 10000;
+        int month = value / 100 % 100;
+        int day = value % 100;
+        if (month < 1 || month > 12 || day < 1 || day > lengthOfMonth(year, month)) {
+            return INVALID_DATE;
+        }
+        return toEpochDay(year, month, day);
+    }
+
+    private static int lengthOfMonth(int year, int month) {
+        switch (month) {
+            case 2: return isLeapYear(year) ? 29 : 28;
+            case 4:
+            case 6:
+            case 9:
+            case 11: return 30;
+            default: return 31;
+        }
+    }
+
+    public static boolean isLeapYear(int year) {
+        return (year & 3) == 0 && (year % 100 != 0 || year % 400 == 0);
+    }
 }
@@ -0,0 +1,112 @@
+package org.jamel.dbf.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Decoder of strings which reuses {@link CharsetDecoder} and its buffers. Values which
+ * consist of ASCII characters only are copied into strings without decoding if the
+ * charset is ASCII compatible. Malformed input is replaced as by {@link String#String(byte[], Charset)}.
+ * This class is not thread safe.
+ */
+public class StringDecoder {
+
+    private static final Map<Charset, Boolean> ASCII_COMPATIBLE = new ConcurrentHashMap<>();
+
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private CharsetDecoder decoder;
+    private CharBuffer chars;
+    private byte[] wrapped;
+    private ByteBuffer bytes;
+
+    public StringDecoder(Charset charset) {
+        this.charset = charset;
+        this.asciiCompatible = isAsciiCompatible(charset);
+    }
+
+    public Charset getCharset() {
+        return charset;
+    }
+
+    /**
+     * Decodes bytes in range [offset, offset + length) into string.
+     */
+    public String decode(byte[] buf, int offset, int length) {
+        if (asciiCompatible && isAscii(buf, offset, length)) {
+            return new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        if (decoder == null) {
+            decoder = charset.newDecoder()
+                    .onMalformedInput(CodingErrorAction.REPLACE)
+                    .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        }
+        int capacity = (int) (length * (double) decoder.maxCharsPerByte()) + 1;
+        if (chars == null || chars.capacity() < capacity) {
+            chars = CharBuffer.allocate(Math.max(capacity, 256));
+        }
+        if (buf != wrapped) {
+            // records are read into the same buffer, so it is wrapped once
+            wrapped = buf;
+            bytes = ByteBuffer.wrap(buf);
+        }
+        bytes.limit(offset + length).position(offset);
+        chars.clear();
+        decoder.reset();
+        decoder.decode(bytes, chars, true);
+        decoder.flush(chars);
+        return new String(chars.array(), 0, chars.position());
+    }
+
+    /**
+     * Decodes bytes of the value without trailing spaces.
+     */
+    public String decodeTrimmed(byte[] buf, int offset, int length) {
+        return decode(buf, offset, DbfUtils.trimmedLength(buf, offset, offset + length));
+    }
+
+    /**
+     * Decodes bytes into string with ASCII fast path, without reusing a decoder.
+     * It can be used by many threads at once.
+     */
+    public static String decode(byte[] buf, int offset, int length, Charset charset) {
+        if (isAsciiCompatible(charset) && isAscii(buf, offset, length)) {
+            return new String(buf, offset, length, StandardCharsets.ISO_8859_1);
+        }
+        return new String(buf, offset, length, charset);
+    }
+
+    /**
+     * @return {@code true} if ASCII characters are encoded by the charset as single ASCII bytes.
+     */
+    public static boolean isAsciiCompatible(Charset charset) {
+        Boolean compatible = ASCII_COMPATIBLE.get(charset);
+        if (compatible == null) {
+            byte[] ascii = new byte[128];
+            for (int i = 0; i < ascii.length; i++) {
+                ascii[i] = (byte) i;
+            }
+            String decoded = new String(ascii, StandardCharsets.US_ASCII);
+            compatible = Arrays.equals(ascii, decoded.getBytes(charset))
+                    && decoded.equals(new String(ascii, charset));
+            ASCII_COMPATIBLE.put(charset, compatible);
+        }
+        return compatible;
+    }
+
+    private static boolean isAscii(byte[] buf, int offset, int length) {
+        for (int i = offset, end = offset + length; i < end; i++) {
+            if (buf[i] < 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
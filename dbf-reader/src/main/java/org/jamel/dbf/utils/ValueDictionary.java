@@ -0,0 +1,143 @@
+package org.jamel.dbf.utils;
+
+import java.nio.charset.Charset;
+import java.util.Arrays;
+
+import org.jamel.dbf.exception.DbfException;
+
+/**
+ * Dictionary of distinct values of a field: equal values get the same code and share
+ * one canonical byte array and one decoded string. The number of values is bounded,
+ * a new value which doesn't fit is not added, so fields with high cardinality can
+ * fall back to plain values. This class is not thread safe.
+ */
+public class ValueDictionary {
+
+    public static final int DEFAULT_MAX_SIZE = 4096;
+    /** Codes fit into char */
+    public static final int MAX_SIZE = 1 << 16;
+
+    private final int maxSize;
+    private byte[][] values = new byte[16][];
+    /** Code + 1 of the value, 0 for empty slots */
+    private int[] slots = new int[32];
+    private int size;
+    private String[] strings;
+    private Charset stringsCharset;
+
+    public ValueDictionary() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * @param maxSize maximal number of distinct values, from 1 to {@link #MAX_SIZE}
+     */
+    public ValueDictionary(int maxSize) {
+        if (maxSize < 1 || maxSize > MAX_SIZE) {
+            throw new DbfException("Dictionary size must be between 1 and " + MAX_SIZE + ": " + maxSize);
+        }
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Finds code of the value in range [offset, offset + length), the value is added if it is new.
+     *
+     * @return code of the value or -1 if the value is new and the dictionary is full.
+     */
+    public int code(byte[] buf, int offset, int length) {
+        int mask = slots.length - 1;
+        for (int i = hash(buf, offset, length) & mask; ; i = (i + 1) & mask) {
+            int slot = slots[i];
+            if (slot == 0) {
+                if (size == maxSize) {
+                    return -1;
+                }
+                if (size == values.length) {
+                    values = Arrays.copyOf(values, 2 * size);
+                }
+                values[size] = Arrays.copyOfRange(buf, offset, offset + length);
+                slots[i] = ++size;
+                if (2 * size > slots.length) {
+                    rehash();
+                }
+                return size - 1;
+            }
+            if (equals(values[slot - 1], buf, offset, length)) {
+                return slot - 1;
+            }
+        }
+    }
+
+    /**
+     * @return canonical bytes of the value, they must not be modified.
+     */
+    public byte[] bytes(int code) {
+        return values[code];
+    }
+
+    /**
+     * @return value decoded with the given charset without trailing spaces, it is decoded once.
+     */
+    public String string(int code, Charset charset) {
+        if (strings == null || !charset.equals(stringsCharset)) {
+            strings = new String[values.length];
+            stringsCharset = charset;
+        } else if (code >= strings.length) {
+            strings = Arrays.copyOf(strings, values.length);
+        }
+        String value = strings[code];
+        if (value == null) {
+            byte[] bytes = values[code];
+            value = StringDecoder.decode(bytes, 0, DbfUtils.trimmedLength(bytes, 0, bytes.length), charset);
+            strings[code] = value;
+        }
+        return value;
+    }
+
+    /**
+     * @return number of distinct values.
+     */
+    public int size() {
+        return size;
+    }
+
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    private void rehash() {
+        int[] rehashed = new int[2 * slots.length];
+        int mask = rehashed.length - 1;
+        for (int code = 0; code < size; code++) {
+            byte[] value = values[code];
+            int i = hash(value, 0, value.length) & mask;
+            while (rehashed[i] != 0) {
+                i = (i + 1) & mask;
+            }
+            rehashed[i] = code + 1;
+        }
+        slots = rehashed;
+    }
+
+    private static int hash(byte[] buf, int offset, int length) {
+        int hash = 1;
+        for (int i = offset, end = offset + length; i < end; i++) {
+            hash = 31 * hash + buf[i];
+        }
+        // spread the bits, the table size is a power of two
+        hash *= 0x9E3779B9;
+        return hash ^ (hash >>> 16);
+    }
+
+    private static boolean equals(byte[] value, byte[] buf, int offset, int length) {
+        if (value.length != length) {
+            return false;
+        }
+        for (int i = 0; i < length; i++) {
+            if (value[i] != buf[offset + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,202 @@
+package org.jamel.dbf;
+
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.time.LocalDateTime;
+
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class BinaryFieldsTest {
+
+    private static final LocalDateTime STAMP = LocalDateTime.of(2013, 7, 15, 12, 30);
+    /** Julian day of 2013-07-15 */
+    private static final int STAMP_JULIAN_DAY = 2456489;
+    private static final int STAMP_MILLIS_OF_DAY = 45000000;
+
+    private final DbfBuilder foxPro = new DbfBuilder()
+            .signature(0x30)
+            .field("ID", 'I', 4)
+            .field("PRICE", 'Y', 8, 4)
+            .field("RATE", 'B', 8, 2)
+            .field("STAMP", 'T', 8)
+            .field("NOTE", 'V', 10)
+            .field("QTY", 'N', 5, 0, DbfField.NULLABLE_FLAG)
+            .field("_NullFlags", '0', 1, 0, DbfField.SYSTEM_FLAG)
+            .record(ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(42)
+                    .putLong(123456)
+                    .putDouble(2.5)
+                    .putInt(STAMP_JULIAN_DAY).putInt(STAMP_MILLIS_OF_DAY)
+                    .put("abc\0\0\0\0\0\0\3".getBytes())
+                    .put("    7".getBytes())
+                    .put((byte) 0x01) // length of NOTE
+                    .array())
+            .record(ByteBuffer.allocate(44).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(-1)
+                    .putLong(-5000)
+                    .putDouble(-0.125)
+                    .putInt(0).putInt(0)
+                    .put("0123456789".getBytes())
+                    .put("     ".getBytes())
+                    .put((byte) 0x02) // QTY is NULL
+                    .array());
+
+    private final DbfBuilder dBase7 = new DbfBuilder()
+            .signature(0x04)
+            .field("ID", '+', 4)
+            .field("COUNT_OF_ITEMS_IN_ORDER", 'I', 4)
+            .field("AMOUNT", 'O', 8, 2)
+            .field("STAMP", '@', 8)
+            .record(ByteBuffer.allocate(24)
+                    .putInt(1 ^ Integer.MIN_VALUE)
+                    .putInt(-5 ^ Integer.MIN_VALUE)
+                    .putLong(sortable(-1234.5))
+                    .putLong(sortable((STAMP_JULIAN_DAY * 86400000.0) + STAMP_MILLIS_OF_DAY))
+                    .array())
+            .record(ByteBuffer.allocate(24)
+                    .putInt(2 ^ Integer.MIN_VALUE)
+                    .putInt(7 ^ Integer.MIN_VALUE)
+                    .putLong(sortable(0.25))
+                    .putLong(0)
+                    .array());
+
+    @Test
+    public void foxProHeader() {
+        try (DbfReader reader = foxPro.reader()) {
+            DbfHeader header = reader.getHeader();
+            assertEquals(7, header.getFieldsCount());
+            assertEquals(DbfDataType.DOUBLE, header.getField(2).getDataType());
+            assertTrue(header.getField(5).isNullable());
+            assertTrue(header.getField(6).isSystem());
+            assertEquals(2, reader.getRecordCount());
+        }
+    }
+
+    @Test
+    public void foxProRecords() {
+        try (DbfReader reader = foxPro.reader()) {
+            reader.setDateMode(DbfDateMode.LOCAL_DATE);
+
+            Object[] row = reader.nextRecord();
+            assertEquals(42, row[0]);
+            assertEquals(new BigDecimal("12.3456"), row[1]);
+            assertEquals(2.5, row[2]);
+            assertEquals(STAMP, row[3]);
+            assertArrayEquals("abc".getBytes(), (byte[]) row[4]);
+            assertEquals(7, ((Number) row[5]).intValue());
+
+            row = reader.nextRecord();
+            assertEquals(-1, row[0]);
+            assertEquals(new BigDecimal("-0.5000"), row[1]);
+            assertNull(row[3]);
+            assertArrayEquals("0123456789".getBytes(), (byte[]) row[4]);
+            assertNull(row[5]);
+        }
+    }
+
+    @Test
+    public void foxProCursor() {
+        try (DbfReader reader = foxPro.reader()) {
+            DbfCursor cursor = reader.cursor();
+            byte[] note = new byte[10];
+
+            assertTrue(cursor.next());
+            assertEquals(42, cursor.getInt(0));
+            assertEquals(123456, cursor.getScaledLong(1));
+            assertEquals(12, cursor.getLong(1));
+            assertEquals(12.3456, cursor.getDouble(1), 0);
+            assertEquals(250, cursor.getScaledLong(2));
+            assertEquals(STAMP, cursor.getLocalDateTime(3));
+            assertEquals("abc", cursor.getString(4));
+            assertEquals(3, cursor.getBytes(4, note));
+            assertFalse(cursor.isNull(5));
+            assertEquals(7, cursor.getInt(5));
+
+            assertTrue(cursor.next());
+            assertEquals(-12, cursor.getScaledLong(2));
+            assertTrue(cursor.isNull(3));
+            assertNull(cursor.getLocalDateTime(3));
+            assertEquals("0123456789", cursor.getString(4));
+            assertTrue(cursor.isNull(5));
+            assertEquals(0, cursor.getInt(5));
+
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void foxProTable() {
+        try (DbfReader reader = foxPro.reader()) {
+            DbfTable table = DbfTable.load(reader);
+            assertEquals(4, table.getColumnCount());
+            assertEquals("QTY", table.getField(3).getName());
+
+            assertEquals(41, table.sum(0), 0);
+            assertEquals(123456, table.getScaledLong(0, 1));
+            assertEquals(-0.5, table.getDouble(1, 1), 0);
+            assertEquals(2.375, table.sum(2), 0);
+            assertEquals(1, table.count(3));
+            assertTrue(table.isNull(1, 3));
+        }
+    }
+
+    @Test
+    public void dBase7() {
+        try (DbfReader reader = dBase7.reader()) {
+            DbfHeader header = reader.getHeader();
+            assertEquals("COUNT_OF_ITEMS_IN_ORDER", header.getField(1).getName());
+            assertEquals(DbfDataType.AUTOINCREMENT, header.getField(0).getDataType());
+
+            DbfCursor cursor = reader.cursor();
+            assertTrue(cursor.next());
+            assertEquals(1, cursor.getInt(0));
+            assertEquals(-5, cursor.getInt(1));
+            assertEquals(-1234.5, cursor.getDouble(2), 0);
+            assertEquals(-123450, cursor.getScaledLong(2));
+            assertEquals(STAMP, cursor.getLocalDateTime(3));
+
+            assertTrue(cursor.next());
+            assertEquals(2, cursor.getInt(0));
+            assertEquals(0.25, cursor.getDouble(2), 0);
+            assertTrue(cursor.isNull(3));
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void dBase7Table() {
+        try (DbfReader reader = dBase7.reader()) {
+            DbfTable table = DbfTable.load(reader);
+            assertEquals(3, table.getColumnCount());
+            assertEquals(3, table.sum(0), 0);
+            assertEquals(-5, table.min(1), 0);
+            assertEquals(0.25, table.max(2), 0);
+        }
+    }
+
+    @Test
+    public void binaryMemoOfDBase5() {
+        DbfBuilder dbf = new DbfBuilder().field("DOC", 'B', 10);
+        try (DbfReader reader = dbf.reader()) {
+            assertEquals(DbfDataType.MEMO, reader.getHeader().getField(0).getDataType());
+        }
+    }
+
+    /**
+     * Encodes double as dBASE 7 does, so that the bytes sort like the numbers.
+     */
+    private static long sortable(double value) {
+        long bits = Double.doubleToLongBits(value);
+        return value >= 0 ? bits ^ Long.MIN_VALUE : ~bits;
+    }
+}
@@ -0,0 +1,199 @@
+package org.jamel.dbf;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Builds small dbf files for tests. Values are given as text and padded
+ * to the field length: numbers are right aligned, all other values are left aligned.
+ * Records of binary fields are given as raw bytes.
+ */
+public class DbfBuilder {
+
+    private final List<String> names = new ArrayList<>();
+    private final List<Character> types = new ArrayList<>();
+    private final List<Integer> lengths = new ArrayList<>();
+    private final List<Integer> decimals = new ArrayList<>();
+    private final List<Integer> flags = new ArrayList<>();
+    private final List<byte[]> records = new ArrayList<>();
+    private boolean endMarker = true;
+    private int signature = 0x03;
+    private int languageDriver;
+    private Charset charset = Charset.defaultCharset();
+
+    public DbfBuilder field(String name, char type, int length) {
+        return field(name, type, length, 0);
+    }
+
+    public DbfBuilder field(String name, char type, int length, int decimalCount) {
+        return field(name, type, length, decimalCount, 0);
+    }
+
+    /**
+     * @param flags field flags of Visual FoxPro, e.g. {@link org.jamel.dbf.structure.DbfField#NULLABLE_FLAG}
+     */
+    public DbfBuilder field(String name, char type, int length, int decimalCount, int flags) {
+        names.add(name);
+        types.add(type);
+        lengths.add(length);
+        decimals.add(decimalCount);
+        this.flags.add(flags);
+        return this;
+    }
+
+    public DbfBuilder record(String... values) {
+        records.add(encode(' ', values));
+        return this;
+    }
+
+    /**
+     * @param values raw bytes of the record without the deletion flag, padded with zeros
+     */
+    public DbfBuilder record(byte[] values) {
+        byte[] record = new byte[recordLength()];
+        record[0] = ' ';
+        System.arraycopy(values, 0, record, 1, values.length);
+        records.add(record);
+        return this;
+    }
+
+    /**
+     * Sets the first byte of the header: 0x30 writes Visual FoxPro header with the backlink,
+     * 0x04 writes dBASE 7 header with 48 byte field descriptors.
+     */
+    public DbfBuilder signature(int signature) {
+        this.signature = signature;
+        return this;
+    }
+
+    public DbfBuilder deletedRecord(String... values) {
+        records.add(encode('*', values));
+        return this;
+    }
+
+    /**
+     * Marks code page of the file, values are encoded with the given charset.
+     */
+    public DbfBuilder languageDriver(int languageDriver, Charset charset) {
+        this.languageDriver = languageDriver;
+        this.charset = charset;
+        return this;
+    }
+
+    public DbfBuilder withoutEndMarker() {
+        endMarker = false;
+        return this;
+    }
+
+    public int recordLength() {
+        int length = 1;
+        for (int fieldLength : lengths) length += fieldLength;
+        return length;
+    }
+
+    public int headerLength() {
+        if (isLevel7()) {
+            return 68 + 48 * names.size() + 1;
+        }
+        return 32 * (names.size() + 1) + 1 + (signature == 0x30 ? 263 : 0);
+    }
+
+    private boolean isLevel7() {
+        return signature == 0x04;
+    }
+
+    private byte[] encode(char flag, String[] values) {
+        byte[] record = new byte[recordLength()];
+        Arrays.fill(record, (byte) ' ');
+        record[0] = (byte) flag;
+        int offset = 1;
+        for (int i = 0; i < names.size(); i++) {
+            int length = lengths.get(i);
+            byte[] value = values[i].getBytes(charset);
+            char type = types.get(i);
+            int shift = (type == 'N' || type == 'F') ? length - value.length : 0;
+            System.arraycopy(value, 0, record, offset + shift, value.length);
+            offset += length;
+        }
+        return record;
+    }
+
+    public byte[] build() {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] header = new byte[32];
+        header[0] = (byte) signature;
+        header[1] = 114;
+        header[2] = 1;
+        header[3] = 1;
+        writeInt(header, 4, records.size());
+        writeShort(header, 8, headerLength());
+        writeShort(header, 10, recordLength());
+        header[29] = (byte) languageDriver;
+        out.write(header, 0, header.length);
+        if (isLevel7()) {
+            // language driver name
+            out.write(new byte[36], 0, 36);
+        }
+
+        for (int i = 0; i < names.size(); i++) {
+            byte[] name = names.get(i).getBytes();
+            if (isLevel7()) {
+                byte[] field = new byte[48];
+                System.arraycopy(name, 0, field, 0, Math.min(name.length, 32));
+                field[32] = (byte) types.get(i).charValue();
+                field[33] = (byte) lengths.get(i).intValue();
+                field[34] = (byte) decimals.get(i).intValue();
+                out.write(field, 0, field.length);
+            } else {
+                byte[] field = new byte[32];
+                System.arraycopy(name, 0, field, 0, Math.min(name.length, 10));
+                field[11] = (byte) types.get(i).charValue();
+                field[16] = (byte) lengths.get(i).intValue();
+                field[17] = (byte) decimals.get(i).intValue();
+                field[18] = (byte) flags.get(i).intValue();
+                out.write(field, 0, field.length);
+            }
+        }
+        out.write(0x0d);
+        if (signature == 0x30) {
+            // backlink to the database container
+            out.write(new byte[263], 0, 263);
+        }
+
+        for (byte[] record : records) {
+            out.write(record, 0, record.length);
+        }
+        if (endMarker) {
+            out.write(0x1a);
+        }
+        return out.toByteArray();
+    }
+
+    public DbfReader reader() {
+        return new DbfReader(new ByteArrayInputStream(build()));
+    }
+
+    public File writeTo(File file) throws IOException {
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(build());
+        }
+        return file;
+    }
+
+    private static void writeInt(byte[] buf, int offset, int value) {
+        writeShort(buf, offset, value);
+        writeShort(buf, offset + 2, value >>> 16);
+    }
+
+    private static void writeShort(byte[] buf, int offset, int value) {
+        buf[offset] = (byte) value;
+        buf[offset + 1] = (byte) (value >>> 8);
+    }
+}
@@ -0,0 +1,113 @@
+package org.jamel.dbf;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.Charset;
+
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DbfCursorTest {
+
+    private final DbfBuilder dbf = new DbfBuilder()
+            .field("NAME", 'C', 6)
+            .field("PRICE", 'N', 8, 2)
+            .field("RATE", 'F', 5, 1)
+            .field("ACTIVE", 'L', 1)
+            .field("CREATED", 'D', 8)
+            .record("apple", "-12.50", "0.5", "T", "20130715")
+            .deletedRecord("pear", "1.00", "1.0", "F", "20130716")
+            .record("plum", "?", "", "N", "");
+
+    @Test
+    public void typedAccessors() {
+        try (DbfReader reader = dbf.reader()) {
+            DbfCursor cursor = reader.cursor();
+            byte[] name = new byte[6];
+
+            assertTrue(cursor.next());
+            assertEquals(5, cursor.getBytes(0, name));
+            assertEquals("apple ", new String(name));
+            assertFalse(cursor.isNull(1));
+            assertEquals(-12.5, cursor.getDouble(1), 0);
+            assertEquals(-12, cursor.getLong(1));
+            assertEquals(-12, cursor.getInt(1));
+            assertEquals(-1250, cursor.getScaledLong(1));
+            assertEquals(0.5, cursor.getDouble(2), 0);
+            assertTrue(cursor.getBoolean(3));
+            assertEquals(15901, cursor.getEpochDay(4));
+
+            assertTrue(cursor.next());
+            assertEquals(4, cursor.getBytes(0, name));
+            assertTrue(cursor.isNull(1));
+            assertEquals(0, cursor.getDouble(1), 0);
+            assertTrue(cursor.isNull(2));
+            assertFalse(cursor.getBoolean(3));
+            assertTrue(cursor.isNull(4));
+
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void codePageOfHeader() {
+        Charset cp866 = Charset.forName("cp866");
+        DbfBuilder cyrillic = new DbfBuilder()
+                .languageDriver(0x26, cp866)
+                .field("NAME", 'C', 10)
+                .record("Иванов")
+                .record("Smith")
+                .record("Иванов");
+        try (DbfReader reader = cyrillic.reader()) {
+            assertEquals(cp866, reader.getCharset());
+            DbfCursor cursor = reader.cursor();
+            assertTrue(cursor.next());
+            assertEquals("Иванов", cursor.getString(0));
+            assertEquals("Smith", reader.nextRow().getString("NAME"));
+        }
+        try (DbfReader reader = cyrillic.reader()) {
+            reader.setDictionary("NAME");
+            DbfCursor cursor = reader.cursor();
+            assertTrue(cursor.next());
+            String first = cursor.getString(0);
+            assertTrue(cursor.next());
+            assertTrue(cursor.next());
+            assertSame(first, cursor.getString(0));
+        }
+        try (DbfReader reader = new DbfReader(new ByteArrayInputStream(cyrillic.build()), Charset.forName("cp1251"))) {
+            assertEquals(Charset.forName("cp1251"), reader.getCharset());
+        }
+    }
+
+    @Test
+    public void sharesPositionWithReader() {
+        try (DbfReader reader = dbf.reader()) {
+            DbfCursor cursor = reader.cursor();
+            assertTrue(cursor.next());
+            assertEquals(-12.5, cursor.getDouble(1), 0);
+            assertNull(reader.nextRecord()[1]);
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void notNumeric() {
+        try (DbfReader reader = dbf.reader()) {
+            DbfCursor cursor = reader.cursor();
+            cursor.next();
+            cursor.getDouble(0);
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void notPositioned() {
+        try (DbfReader reader = dbf.reader()) {
+            reader.cursor().getDouble(1);
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.metrics.DbfReaderMetrics;
+import org.jamel.dbf.structure.DbfRow;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DbfRandomAccessReaderTest {
+
+    private static final int RECORD_COUNT = 1000;
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile() throws IOException {
+        DbfBuilder dbf = new DbfBuilder()
+                .field("ID", 'N', 6)
+                .field("NAME", 'C', 12)
+                .field("CREATED", 'D', 8);
+        for (int i = 0; i < RECORD_COUNT; i++) {
+            String created = LocalDate.ofEpochDay(i).toString().replace("-", "");
+            if (i % 100 == 99) {
+                dbf.deletedRecord(String.valueOf(i), "name " + i, created);
+            } else {
+                dbf.record(String.valueOf(i), "name " + i, created);
+            }
+        }
+        return dbf.writeTo(folder.newFile("records.dbf"));
+    }
+
+    @Test
+    public void readRecord() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            assertEquals(RECORD_COUNT, reader.getRecordCount());
+            reader.setDateMode(DbfDateMode.LOCAL_DATE);
+
+            Object[] record = reader.readRecord(42);
+            assertEquals(42, ((Number) record[0]).intValue());
+            assertEquals("name 42", new String((byte[]) record[1]).trim());
+            assertEquals(LocalDate.ofEpochDay(42), record[2]);
+
+            assertEquals("name 7", reader.readRow(7).getString("NAME"));
+            assertNull(reader.readRecord(99));
+            assertEquals(RECORD_COUNT - 2, reader.readRow(RECORD_COUNT - 2).getInt("ID"));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void indexOutOfRange() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            reader.readRecord(RECORD_COUNT);
+        }
+    }
+
+    @Test
+    public void concurrentReads() throws Exception {
+        DbfReaderMetrics metrics = new DbfReaderMetrics();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (final DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            reader.setListener(metrics);
+            List<Future<Integer>> futures = new ArrayList<>();
+            for (int t = 0; t < 8; t++) {
+                final long seed = t;
+                futures.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    int deleted = 0;
+                    for (int i = 0; i < 5000; i++) {
+                        int n = random.nextInt(RECORD_COUNT);
+                        if (i % 2 == 0) {
+                            Object[] record = reader.readRecord(n);
+                            if (record == null) {
+                                assertEquals(99, n % 100);
+                                deleted++;
+                            } else {
+                                assertEquals(n, ((Number) record[0]).intValue());
+                                assertEquals("name " + n, new String((byte[]) record[1]).trim());
+                            }
+                        } else {
+                            // lookups by names share the field indexes of the header
+                            DbfRow row = reader.readRow(n);
+                            if (row == null) {
+                                assertEquals(99, n % 100);
+                                deleted++;
+                            } else {
+                                assertEquals(n, row.getInt("ID"));
+                                assertEquals("name " + n, row.getString("NAME"));
+                            }
+                        }
+                    }
+                    return deleted;
+                }));
+            }
+            int deleted = 0;
+            for (Future<Integer> future : futures) {
+                deleted += future.get();
+            }
+            assertEquals(8 * 5000 - deleted, metrics.getRecordsRead());
+            assertEquals(deleted, metrics.getDeletedRecordsSkipped());
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
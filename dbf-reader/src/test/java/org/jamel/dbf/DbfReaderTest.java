@@ -0,0 +1,160 @@
+package org.jamel.dbf;
+
+import java.time.LocalDate;
+import java.util.GregorianCalendar;
+
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DbfReaderTest {
+
+    private final DbfBuilder dbf = new DbfBuilder()
+            .field("NAME", 'C', 6)
+            .field("PRICE", 'N', 8, 2)
+            .field("RATE", 'F', 5, 1)
+            .field("ACTIVE", 'L', 1)
+            .field("CREATED", 'D', 8)
+            .record("apple", "12.50", "0.5", "T", "20130715")
+            .deletedRecord("pear", "1.00", "1.0", "F", "20130716")
+            .record("plum", "?", "", "N", "20140101");
+
+    @Test
+    public void nextRecord() {
+        try (DbfReader reader = dbf.reader()) {
+            Object[] row = reader.nextRecord();
+            assertArrayEquals("apple ".getBytes(), (byte[]) row[0]);
+            assertEquals(12.5, row[1]);
+            assertEquals(0.5f, row[2]);
+            assertEquals(Boolean.TRUE, row[3]);
+            assertEquals(new GregorianCalendar(2013, 6, 15).getTime(), row[4]);
+
+            Object[] next = reader.nextRecord();
+            assertArrayEquals("plum  ".getBytes(), (byte[]) next[0]);
+            assertNull(next[1]);
+            assertNull(next[2]);
+            assertEquals(Boolean.FALSE, next[3]);
+
+            // values of the previous record are not affected by the reused record buffer
+            assertArrayEquals("apple ".getBytes(), (byte[]) row[0]);
+
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void noEndMarker() {
+        try (DbfReader reader = dbf.withoutEndMarker().reader()) {
+            assertEquals(12.5, reader.nextRecord()[1]);
+            assertNull(reader.nextRecord()[1]);
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void projection() {
+        try (DbfReader reader = dbf.reader()) {
+            reader.setProjection("PRICE", "NAME");
+            Object[] row = reader.nextRecord();
+            assertEquals(5, row.length);
+            assertArrayEquals("apple ".getBytes(), (byte[]) row[0]);
+            assertEquals(12.5, row[1]);
+            assertNull(row[2]);
+            assertNull(row[3]);
+            assertNull(row[4]);
+
+            reader.setProjection(new String[0]);
+            assertEquals(Boolean.FALSE, reader.nextRecord()[3]);
+        }
+    }
+
+    @Test
+    public void nextRecords() {
+        try (DbfReader reader = dbf.record("quince", "3", "1", "T", "").reader()) {
+            DbfRecordBatch batch = new DbfRecordBatch(1);
+            assertEquals(2, reader.nextRecords(2, batch));
+            Object[] first = batch.get(0);
+            assertArrayEquals("apple ".getBytes(), (byte[]) first[0]);
+            assertEquals(Boolean.FALSE, batch.get(1)[3]);
+
+            reader.setProjection("PRICE");
+            assertEquals(1, reader.nextRecords(2, batch));
+            // arrays of the values are reused, values of skipped fields are cleared
+            assertSame(first, batch.get(0));
+            assertNull(first[0]);
+            assertEquals(3.0, first[1]);
+            for (Object[] row : batch) {
+                assertSame(first, row);
+            }
+
+            assertEquals(0, reader.nextRecords(2, batch));
+            assertTrue(batch.isEmpty());
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void projectionOfUnknownField() {
+        try (DbfReader reader = dbf.reader()) {
+            reader.setProjection("PRICE", "COLOR");
+        }
+    }
+
+    @Test
+    public void dictionary() {
+        DbfBuilder cities = new DbfBuilder()
+                .field("CITY", 'C', 8)
+                .record("MOSCOW")
+                .record("KAZAN")
+                .record("MOSCOW")
+                .record("TULA")
+                .record("KAZAN");
+        try (DbfReader reader = cities.reader()) {
+            reader.setDictionary(2, "CITY");
+            byte[] moscow = (byte[]) reader.nextRecord()[0];
+            byte[] kazan = (byte[]) reader.nextRecord()[0];
+            assertSame(moscow, reader.nextRecord()[0]);
+            // the third distinct value doesn't fit, the dictionary is dropped
+            assertArrayEquals("TULA    ".getBytes(), (byte[]) reader.nextRecord()[0]);
+            byte[] last = (byte[]) reader.nextRecord()[0];
+            assertNotSame(kazan, last);
+            assertArrayEquals(kazan, last);
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void dictionaryOfNumericField() {
+        try (DbfReader reader = dbf.reader()) {
+            reader.setDictionary("PRICE");
+        }
+    }
+
+    @Test
+    public void dateModes() {
+        DbfBuilder dates = new DbfBuilder()
+                .field("CREATED", 'D', 8)
+                .record("20130715")
+                .record("")
+                .record("20131301");
+        try (DbfReader reader = dates.reader()) {
+            assertEquals(new GregorianCalendar(2013, 6, 15).getTime(), reader.nextRecord()[0]);
+            assertNull(reader.nextRecord()[0]);
+            assertNull(reader.nextRecord()[0]);
+        }
+        try (DbfReader reader = dates.reader()) {
+            reader.setDateMode(DbfDateMode.LOCAL_DATE);
+            assertEquals(LocalDate.of(2013, 7, 15), reader.nextRecord()[0]);
+            assertNull(reader.nextRecord()[0]);
+        }
+        try (DbfReader reader = dates.reader()) {
+            reader.setDateMode(DbfDateMode.EPOCH_DAY, false);
+            assertEquals(15901, reader.nextRecord()[0]);
+            assertNull(reader.nextRecord()[0]);
+        }
+    }
+}
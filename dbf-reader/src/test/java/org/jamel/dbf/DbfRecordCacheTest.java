@@ -0,0 +1,126 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Date;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+public class DbfRecordCacheTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile() throws IOException {
+        DbfBuilder dbf = new DbfBuilder()
+                .field("ID", 'N', 6)
+                .field("NAME", 'C', 12)
+                .field("CREATED", 'D', 8);
+        for (int i = 0; i < 1000; i++) {
+            if (i == 5) {
+                dbf.deletedRecord(String.valueOf(i), "name " + i, "20200101");
+            } else {
+                dbf.record(String.valueOf(i), "name " + i, "20200101");
+            }
+        }
+        return dbf.writeTo(folder.newFile("records.dbf"));
+    }
+
+    @Test
+    public void leastRecentlyUsedRecordsAreEvicted() throws IOException {
+        checkLru(false);
+    }
+
+    @Test
+    public void rawRecords() throws IOException {
+        checkLru(true);
+    }
+
+    private void checkLru(boolean raw) throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            DbfRecordCache cache = new DbfRecordCache(reader, 3, raw);
+            for (int n : new int[]{0, 1, 2, 0, 3, 1, 0}) {
+                assertEquals(n, ((Number) cache.readRecord(n)[0]).intValue());
+            }
+            assertEquals(5, cache.getMisses());
+            assertEquals(2, cache.getHits());
+            assertEquals(2, cache.getEvictions());
+            assertEquals(3, cache.size());
+            assertEquals(2.0 / 7, cache.getHitRatio(), 1e-9);
+            assertEquals("name 3", cache.readRow(3).getString("NAME"));
+        }
+    }
+
+    @Test
+    public void decodedRecordsAreCopied() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            DbfRecordCache cache = new DbfRecordCache(reader, 10);
+            Object[] record = cache.readRecord(7);
+            ((byte[]) record[1])[0] = 'X';
+            ((Date) record[2]).setTime(0);
+            record[0] = null;
+
+            Object[] cached = cache.readRecord(7);
+            assertNotSame(record, cached);
+            assertEquals(7, ((Number) cached[0]).intValue());
+            assertEquals("name 7", new String((byte[]) cached[1]).trim());
+            assertEquals(reader.readRecord(7)[2], cached[2]);
+            assertEquals(1, cache.getMisses());
+
+            cache.invalidate(7);
+            cache.readRecord(7);
+            assertEquals(2, cache.getMisses());
+        }
+    }
+
+    @Test
+    public void dateModeChangeDropsDecodedRecords() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            DbfRecordCache cache = new DbfRecordCache(reader, 10);
+            assertTrue(cache.readRecord(7)[2] instanceof Date);
+
+            reader.setDateMode(DbfDateMode.LOCAL_DATE);
+            assertEquals(LocalDate.of(2020, 1, 1), cache.readRecord(7)[2]);
+            assertEquals(LocalDate.of(2020, 1, 1), cache.readRecord(7)[2]);
+            assertEquals(2, cache.getMisses());
+            assertEquals(1, cache.getHits());
+        }
+    }
+
+    @Test
+    public void deletedRecordsAreCached() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            DbfRecordCache cache = new DbfRecordCache(reader, 10);
+            assertNull(cache.readRecord(5));
+            assertNull(cache.readRecord(5));
+            assertEquals(1, cache.getMisses());
+            assertEquals(1, cache.getHits());
+
+            cache.clear();
+            cache.resetStatistics();
+            assertEquals(0, cache.size());
+            assertEquals(0, cache.getHits());
+        }
+    }
+
+    @Test
+    public void segmentsKeepMaxRecords() throws IOException {
+        try (DbfRandomAccessReader reader = new DbfRandomAccessReader(createFile())) {
+            DbfRecordCache cache = new DbfRecordCache(reader, 500);
+            for (int n = 0; n < 1000; n++) {
+                cache.readRecord(n);
+            }
+            assertEquals(1000, cache.getMisses());
+            assertEquals(1000, cache.size() + cache.getEvictions());
+            assertTrue(cache.size() <= 500);
+        }
+    }
+}
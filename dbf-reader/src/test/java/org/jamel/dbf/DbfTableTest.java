@@ -0,0 +1,182 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+public class DbfTableTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void columns() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NAME", 'C', 8)
+                .field("AMOUNT", 'N', 8, 2)
+                .field("RATE", 'F', 20, 4)
+                .field("BORN", 'D', 8)
+                .field("ACTIVE", 'L', 1)
+                .field("NOTES", 'M', 10)
+                .record("ANNA", "12.50", "0.1250", "19800101", "T", "")
+                .deletedRecord("BOB", "1.00", "1", "19800101", "F", "")
+                .record("DAN", "", "-3", "", "?", "")
+                .record("EVA", "-0.25", "", "20000229", "n", "")
+                .writeTo(folder.newFile("people.dbf"));
+
+        DbfTable table = DbfTable.load(dbf, StandardCharsets.US_ASCII);
+        assertEquals(3, table.getRowCount());
+        assertEquals(5, table.getColumnCount());
+        assertEquals(-1, table.getColumnIndex("NOTES"));
+        assertEquals(1, table.getColumnIndex("AMOUNT"));
+
+        assertEquals("ANNA", table.getString(0, 0));
+        byte[] name = new byte[8];
+        assertEquals(3, table.getBytes(1, 0, name));
+        assertEquals("DAN     ", new String(name, StandardCharsets.US_ASCII));
+
+        assertEquals(1250, table.getScaledLong(0, 1));
+        assertEquals(-0.25, table.getDouble(2, 1), 0);
+        assertTrue(table.isNull(1, 1));
+        assertEquals(0, table.getDouble(1, 1), 0);
+
+        assertEquals(0.125, table.getDouble(0, 2), 0);
+        assertEquals(-30000, table.getScaledLong(1, 2));
+        assertTrue(table.isNull(2, 2));
+
+        assertEquals(LocalDate.of(1980, 1, 1).toEpochDay(), table.getEpochDay(0, 3));
+        assertEquals(LocalDate.of(2000, 2, 29).toEpochDay(), table.getEpochDay(2, 3));
+        assertTrue(table.isNull(1, 3));
+
+        assertTrue(table.getBoolean(0, 4));
+        assertTrue(table.isNull(1, 4));
+        assertFalse(table.getBoolean(2, 4));
+        assertFalse(table.isNull(2, 4));
+        assertFalse(table.isNull(0, 0));
+
+        assertEquals(12.25, table.sum(1), 0);
+        assertEquals(2, table.count(1));
+        assertEquals(-0.25, table.min(1), 0);
+        assertEquals(12.5, table.max(1), 0);
+        assertEquals(-3, table.min(2), 0);
+    }
+
+    @Test
+    public void selectedFields() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NAME", 'C', 4)
+                .field("AMOUNT", 'N', 4)
+                .record("A", "1")
+                .record("B", "")
+                .writeTo(folder.newFile("selected.dbf"));
+
+        DbfTable table = DbfTable.load(dbf, "AMOUNT");
+        assertEquals(1, table.getColumnCount());
+        assertEquals("AMOUNT", table.getField(0).getName());
+        assertEquals(1, table.sum(0), 0);
+        assertEquals(1, table.min(0), 0);
+        assertEquals(1, table.count(0));
+    }
+
+    @Test
+    public void codePageOfHeader() throws IOException {
+        File dbf = new DbfBuilder()
+                .languageDriver(0x26, Charset.forName("cp866"))
+                .field("NAME", 'C', 10)
+                .record("Иванов")
+                .writeTo(folder.newFile("cyrillic.dbf"));
+
+        assertEquals("Иванов", DbfTable.load(dbf).getString(0, 0));
+    }
+
+    @Test
+    public void sumBeyondLong() throws IOException {
+        DbfBuilder builder = new DbfBuilder().field("AMOUNT", 'N', 18, 2);
+        for (int i = 0; i < 110; i++) {
+            builder.record("900000000000000.00");
+        }
+        DbfTable table = DbfTable.load(builder.writeTo(folder.newFile("ledger.dbf")));
+        assertEquals(9.9e16, table.sum(0), 1e3);
+    }
+
+    @Test
+    public void manyChunks() throws IOException {
+        DbfBuilder builder = new DbfBuilder()
+                .field("ID", 'N', 6)
+                .field("FLAG", 'L', 1)
+                .field("CODE", 'C', 3);
+        int rows = 70000;
+        for (int i = 0; i < rows; i++) {
+            builder.record(String.valueOf(i), i % 3 == 0 ? "T" : "F", i % 2 == 0 ? "EVN" : "ODD");
+        }
+        File dbf = builder.writeTo(folder.newFile("chunks.dbf"));
+
+        DbfTable table = DbfTable.load(dbf);
+        assertEquals(rows, table.getRowCount());
+        assertEquals((double) rows * (rows - 1) / 2, table.sum(0), 0);
+        assertEquals(rows - 1, table.max(0), 0);
+        assertEquals(0, table.min(0), 0);
+        assertEquals(69999, table.getScaledLong(69999, 0));
+        assertTrue(table.getBoolean(69999, 1));
+        assertFalse(table.getBoolean(65537, 1));
+        assertEquals("ODD", table.getString(65537, 2));
+        assertEquals("EVN", table.getString(65536, 2));
+    }
+
+    @Test
+    public void dictionary() throws IOException {
+        DbfBuilder builder = new DbfBuilder()
+                .field("CITY", 'C', 10)
+                .field("STREET", 'C', 10);
+        String[] cities = {"MOSCOW", "KAZAN", "TULA"};
+        for (int i = 0; i < 100; i++) {
+            builder.record(cities[i % 3], "STREET " + i);
+        }
+        File dbf = builder.writeTo(folder.newFile("addresses.dbf"));
+
+        try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setDictionary(10, "CITY", "STREET");
+            DbfTable table = DbfTable.load(reader);
+            assertEquals(100, table.getRowCount());
+            for (int i = 0; i < 100; i++) {
+                assertEquals(cities[i % 3], table.getString(i, 0));
+                assertEquals("STREET " + i, table.getString(i, 1));
+            }
+            byte[] street = new byte[10];
+            assertEquals(9, table.getBytes(42, 1, street));
+            assertEquals("STREET 42 ", new String(street, StandardCharsets.US_ASCII));
+            assertEquals(5, table.getBytes(43, 0, street));
+            assertSame(table.getString(0, 0), table.getString(99, 0));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void wrongType() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NAME", 'C', 4)
+                .record("A")
+                .writeTo(folder.newFile("wrong.dbf"));
+        DbfTable.load(dbf).getDouble(0, 0);
+    }
+
+    @Test(expected = DbfException.class)
+    public void memoField() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NOTES", 'M', 10)
+                .record("")
+                .writeTo(folder.newFile("memo.dbf"));
+        DbfTable.load(dbf, "NOTES");
+    }
+}
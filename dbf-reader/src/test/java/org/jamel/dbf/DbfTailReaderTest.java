@@ -0,0 +1,170 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.util.concurrent.TimeUnit;
+
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DbfTailReaderTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dbf;
+
+    @Before
+    public void createFile() throws IOException {
+        dbf = builder()
+                .record("0", "first")
+                .record("1", "second")
+                .writeTo(folder.newFile("journal.dbf"));
+    }
+
+    private static DbfBuilder builder() {
+        return new DbfBuilder()
+                .field("ID", 'N', 6)
+                .field("NAME", 'C', 10);
+    }
+
+    @Test
+    public void followAppendedRecords() throws IOException {
+        try (DbfTailReader reader = new DbfTailReader(dbf)) {
+            assertId(0, reader.nextRecord());
+            assertId(1, reader.nextRecord());
+            assertNull(reader.nextRecord());
+
+            append(2, false);
+            append(3, true);
+            append(4, false);
+            assertId(2, reader.nextRecord());
+            assertId(4, reader.nextRecord());
+            assertNull(reader.nextRecord());
+            assertEquals(5, reader.getPosition());
+        }
+    }
+
+    @Test
+    public void recordIsReadWhenCountedAndWritten() throws IOException {
+        try (DbfTailReader reader = new DbfTailReader(dbf, 2)) {
+            assertNull(reader.nextRecord());
+
+            // the data is written but the header is not updated yet
+            try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+                out.seek(out.length() - 1);
+                out.write(record(2));
+                out.write(0x1a);
+            }
+            assertNull(reader.nextRecord());
+
+            // the header counts one more record than is written
+            setRecordCount(4);
+            assertId(2, reader.nextRecord());
+            assertNull(reader.nextRecord());
+
+            // the file is extended, but the end marker is still in place of the counted record
+            long recordPosition = builder().headerLength() + 3L * builder().recordLength();
+            try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+                out.setLength(recordPosition + builder().recordLength());
+            }
+            assertNull(reader.nextRecord());
+
+            try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+                out.seek(recordPosition);
+                out.write(record(3));
+                out.write(0x1a);
+            }
+            assertId(3, reader.nextRecord());
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void waitForRecords() throws Exception {
+        try (final DbfTailReader reader = new DbfTailReader(dbf, 2)) {
+            reader.setPollInterval(10, TimeUnit.MILLISECONDS);
+            assertNull(reader.nextRecord(50, TimeUnit.MILLISECONDS));
+
+            Thread writer = new Thread(() -> {
+                try {
+                    Thread.sleep(100);
+                    append(2, false);
+                } catch (Exception e) {
+                    throw new RuntimeException(e);
+                }
+            });
+            writer.start();
+            assertId(2, reader.nextRecord(10, TimeUnit.SECONDS));
+            writer.join();
+        }
+    }
+
+    @Test
+    public void batches() throws IOException {
+        try (DbfTailReader reader = new DbfTailReader(dbf)) {
+            DbfRecordBatch batch = new DbfRecordBatch();
+            assertEquals(2, reader.nextRecords(10, batch));
+            for (int i = 2; i < 5; i++) {
+                append(i, false);
+            }
+            assertEquals(2, reader.nextRecords(2, batch));
+            assertId(3, batch.get(1));
+            assertEquals(1, reader.nextRecords(2, batch));
+            assertEquals(0, reader.nextRecords(2, batch));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void truncatedFile() throws IOException {
+        try (DbfTailReader reader = new DbfTailReader(dbf)) {
+            reader.nextRecord();
+            reader.nextRecord();
+            setRecordCount(1);
+            reader.nextRecord();
+        }
+    }
+
+    private static void assertId(int id, Object[] record) {
+        assertEquals(id, ((Number) record[0]).intValue());
+    }
+
+    /**
+     * Appends the record as a legacy application does: overwrites the end marker
+     * with the record, writes the end marker and updates the number of records.
+     */
+    private void append(int id, boolean deleted) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+            out.seek(out.length() - 1);
+            byte[] record = record(id);
+            if (deleted) {
+                record[0] = '*';
+            }
+            out.write(record);
+            out.write(0x1a);
+        }
+        setRecordCount(id + 1);
+    }
+
+    private void setRecordCount(int count) throws IOException {
+        try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+            out.seek(4);
+            out.write(new byte[]{(byte) count, (byte) (count >>> 8), (byte) (count >>> 16), (byte) (count >>> 24)});
+        }
+    }
+
+    private static byte[] record(int id) {
+        DbfBuilder builder = builder().record(String.valueOf(id), "name " + id);
+        byte[] bytes = builder.build();
+        byte[] record = new byte[builder.recordLength()];
+        System.arraycopy(bytes, builder.headerLength(), record, 0, record.length);
+        return record;
+    }
+}
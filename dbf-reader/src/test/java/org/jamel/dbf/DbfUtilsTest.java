@@ -2,6 +2,9 @@ package org.jamel.dbf;
 
 import java.io.ByteArrayInputStream;
 import java.io.DataInputStream;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.Random;
 
 import org.jamel.dbf.utils.DbfUtils;
 import org.junit.Test;
@@ -23,6 +26,13 @@ public class DbfUtilsTest {
         assertEquals(0xffdebc9a, DbfUtils.readLittleEndianInt(in));
     }
 
+    @Test
+    public void readLittleEndianIntFromBuffer() throws Exception {
+        byte[] buf = {0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc, (byte) 0xde, (byte) 0xff};
+        assertEquals(0x78563412, DbfUtils.readLittleEndianInt(buf, 0));
+        assertEquals(0xffdebc9a, DbfUtils.readLittleEndianInt(buf, 4));
+    }
+
     @Test
     public void readLittleEndianShort() throws Exception {
         byte[] buf = {0x12, 0x34, 0x56, 0x78, (byte) 0x9a, (byte) 0xbc, (byte) 0xde, (byte) 0xff};
@@ -43,10 +53,21 @@ public class DbfUtilsTest {
         assertEquals("",     new String(DbfUtils.trimLeftSpaces("".getBytes())));
     }
 
+    @Test
+    public void trimmedLength() throws Exception {
+        assertEquals(4, DbfUtils.trimmedLength("asdf".getBytes(), 0, 4));
+        assertEquals(2, DbfUtils.trimmedLength("asd ".getBytes(), 1, 4));
+        assertEquals(1, DbfUtils.trimmedLength(" a  ".getBytes(), 1, 4));
+        assertEquals(0, DbfUtils.trimmedLength("a   ".getBytes(), 1, 4));
+        assertEquals(0, DbfUtils.trimmedLength("".getBytes(), 0, 0));
+    }
+
     @Test
     public void contains() throws Exception {
         assertTrue(DbfUtils.contains("some?string".getBytes(), (byte) '?'));
         assertFalse(DbfUtils.contains("some".getBytes(), (byte) '?'));
+        assertTrue(DbfUtils.contains("some?string".getBytes(), 2, 5, (byte) '?'));
+        assertFalse(DbfUtils.contains("some?string".getBytes(), 5, 11, (byte) '?'));
     }
 
     @Test
@@ -74,4 +95,113 @@ public class DbfUtilsTest {
         assertEquals(3456,       DbfUtils.parseLong("1234567890".getBytes(), 2, 6));
         assertEquals(1234567890, DbfUtils.parseLong("1234567890".getBytes(), 0, 1000));
     }
+
+    @Test
+    public void parseDouble() throws Exception {
+        String[] values = {"1234", "  12.50", "-0.5 ", "+7", "-0.00", "0.1", ".5", "1.", "999999999999999",
+                "1234567890123456.5", "0.0000000000000000000000001", "1e3", " 1.5E-2"};
+        for (String value : values) {
+            byte[] bytes = (" " + value + " ").getBytes();
+            assertEquals(value, Double.valueOf(value), Double.valueOf(DbfUtils.parseDouble(bytes, 1, bytes.length - 1)));
+        }
+    }
+
+    @Test
+    public void parseDoubleSameAsJdk() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            String value = randomDecimal(random);
+            byte[] bytes = value.getBytes();
+            assertEquals(value,
+                    Double.doubleToRawLongBits(Double.valueOf(value)),
+                    Double.doubleToRawLongBits(DbfUtils.parseDouble(bytes, 0, bytes.length)));
+        }
+    }
+
+    @Test
+    public void parseFloatSameAsJdk() throws Exception {
+        Random random = new Random(42);
+        for (int i = 0; i < 200000; i++) {
+            String value = randomDecimal(random);
+            byte[] bytes = value.getBytes();
+            assertEquals(value,
+                    Float.floatToRawIntBits(Float.valueOf(value)),
+                    Float.floatToRawIntBits(DbfUtils.parseFloat(bytes, 0, bytes.length)));
+        }
+    }
+
+    @Test
+    public void parseScaledLong() throws Exception {
+        assertEquals(1250,   DbfUtils.parseScaledLong("  12.5 ".getBytes(), 0, 7, 2));
+        assertEquals(-1250,  DbfUtils.parseScaledLong(" -12.50".getBytes(), 0, 7, 2));
+        assertEquals(-12,    DbfUtils.parseScaledLong(" -12.99".getBytes(), 0, 7, 0));
+        assertEquals(123,    DbfUtils.parseScaledLong("0.1239".getBytes(), 0, 6, 3));
+        assertEquals(0,      DbfUtils.parseScaledLong("0.00000000000000000000001".getBytes(), 0, 25, 2));
+        assertEquals(1500,   DbfUtils.parseScaledLong("1.5e3".getBytes(), 0, 5, 0));
+        assertEquals(1234567890123456789L, DbfUtils.parseScaledLong("1234567890123456789".getBytes(), 0, 19, 0));
+        assertEquals(-9223372036854775807L, DbfUtils.parseScaledLong("-9223372036854775807".getBytes(), 0, 20, 0));
+        assertEquals(-1,     DbfUtils.parseScaledLong("-1.59e-2".getBytes(), 0, 8, 2));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseScaledLongOverflow() throws Exception {
+        DbfUtils.parseScaledLong("92233720368547758.08".getBytes(), 0, 20, 2);
+    }
+
+    @Test
+    public void isNullNumber() throws Exception {
+        assertTrue(DbfUtils.isNullNumber("    ".getBytes(), 0, 4));
+        assertTrue(DbfUtils.isNullNumber(" ?  ".getBytes(), 0, 4));
+        assertTrue(DbfUtils.isNullNumber("".getBytes(), 0, 0));
+        assertFalse(DbfUtils.isNullNumber("  1 ".getBytes(), 0, 4));
+    }
+
+    @Test(expected = NumberFormatException.class)
+    public void parseDoubleMalformed() throws Exception {
+        DbfUtils.parseDouble("12-3".getBytes(), 0, 4);
+    }
+
+    @Test
+    public void toEpochDay() throws Exception {
+        assertEquals(0, DbfUtils.toEpochDay(1970, 1, 1));
+        assertEquals(15901, DbfUtils.toEpochDay(2013, 7, 15));
+        assertEquals(11016, DbfUtils.toEpochDay(2000, 2, 29));
+        assertEquals(-25508, DbfUtils.toEpochDay(1900, 3, 1));
+        assertEquals(-719162, DbfUtils.toEpochDay(1, 1, 1));
+    }
+
+    @Test
+    public void parseEpochDay() throws Exception {
+        assertEquals(15901, DbfUtils.parseEpochDay("x20130715".getBytes(), 1));
+        assertEquals(11016, DbfUtils.parseEpochDay("20000229".getBytes(), 0));
+        assertEquals(-719162, DbfUtils.parseEpochDay("00010101".getBytes(), 0));
+        assertEquals(DbfUtils.INVALID_DATE, DbfUtils.parseEpochDay("        ".getBytes(), 0));
+        assertEquals(DbfUtils.INVALID_DATE, DbfUtils.parseEpochDay("00000000".getBytes(), 0));
+        assertEquals(DbfUtils.INVALID_DATE, DbfUtils.parseEpochDay("19000229".getBytes(), 0));
+        assertEquals(DbfUtils.INVALID_DATE, DbfUtils.parseEpochDay("20131301".getBytes(), 0));
+        assertEquals(DbfUtils.INVALID_DATE, DbfUtils.parseEpochDay("2013 7 1".getBytes(), 0));
+        for (int epochDay = -719528; epochDay <= 2932896; epochDay += 997) {
+            String text = LocalDate.ofEpochDay(epochDay).format(DateTimeFormatter.BASIC_ISO_DATE);
+            assertEquals(epochDay, DbfUtils.parseEpochDay(text.getBytes(), 0));
+        }
+    }
+
+    private static String randomDecimal(Random random) {
+        StringBuilder sb = new StringBuilder();
+        for (int i = random.nextInt(3); i > 0; i--) sb.append(' ');
+        switch (random.nextInt(4)) {
+            case 0: sb.append('-'); break;
+            case 1: sb.append('+'); break;
+            default: break;
+        }
+        int intDigits = random.nextInt(12);
+        int fractionDigits = random.nextInt(10) == 0 ? 15 + random.nextInt(10) : random.nextInt(8);
+        for (int i = 0; i < intDigits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        if (fractionDigits > 0 || intDigits == 0) {
+            sb.append('.');
+            for (int i = 0; i <= fractionDigits; i++) sb.append((char) ('0' + random.nextInt(10)));
+        }
+        for (int i = random.nextInt(3); i > 0; i--) sb.append(' ');
+        return sb.toString();
+    }
 }
@@ -0,0 +1,120 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Reads a sparse file larger than 4 GB, only the records which are read are written.
+ */
+public class LargeFileTest {
+
+    private static final int RECORD_COUNT = 45000000;
+    /** Records at the beginning, past 2 GB, past 4 GB and at the end */
+    private static final int[] SAMPLES = {0, 1, 21262215, 42524429, RECORD_COUNT - 3, RECORD_COUNT - 2, RECORD_COUNT - 1};
+
+    @ClassRule
+    public static TemporaryFolder folder = new TemporaryFolder();
+
+    private static File dbf;
+
+    @BeforeClass
+    public static void createFile() throws IOException {
+        DbfBuilder builder = builder();
+        int headerLength = builder.headerLength();
+        int recordLength = builder.recordLength();
+        dbf = folder.newFile("large.dbf");
+        try (RandomAccessFile out = new RandomAccessFile(dbf, "rw")) {
+            out.write(builder.build(), 0, headerLength);
+            out.seek(4);
+            out.write(new byte[]{(byte) RECORD_COUNT, (byte) (RECORD_COUNT >>> 8),
+                    (byte) (RECORD_COUNT >>> 16), (byte) (RECORD_COUNT >>> 24)});
+            for (int n : SAMPLES) {
+                byte[] record = builder().record(String.valueOf(n), "name " + n).build();
+                out.seek(headerLength + (long) n * recordLength);
+                out.write(record, headerLength, recordLength);
+            }
+            out.seek(headerLength + (long) RECORD_COUNT * recordLength);
+            out.write(0x1a);
+        }
+    }
+
+    private static DbfBuilder builder() {
+        return new DbfBuilder()
+                .field("ID", 'N', 10)
+                .field("NAME", 'C', 90);
+    }
+
+    @Test
+    public void fileIsLargerThanFourGigabytes() {
+        assertTrue(dbf.length() > 4L * 1024 * 1024 * 1024);
+        try (DbfReader reader = new DbfReader(dbf)) {
+            assertEquals(RECORD_COUNT, reader.getRecordCount());
+            assertEquals(101, reader.getHeader().getRecordLength());
+            assertEquals(dbf.length() - 1, reader.getHeader().getRecordPosition(RECORD_COUNT));
+        }
+    }
+
+    @Test
+    public void seekToRecord() {
+        try (DbfReader reader = new DbfReader(dbf)) {
+            checkSamples(reader);
+        }
+    }
+
+    @Test
+    public void seekToRecordOfMappedFile() {
+        try (DbfReader reader = new DbfReader(dbf, true)) {
+            checkSamples(reader);
+        }
+    }
+
+    private static void checkSamples(DbfReader reader) {
+        for (int i = SAMPLES.length - 1; i >= 0; i--) {
+            int n = SAMPLES[i];
+            reader.seekToRecord(n);
+            Object[] record = reader.nextRecord();
+            assertEquals(n, ((Number) record[0]).intValue());
+            assertEquals("name " + n, new String((byte[]) record[1]).trim());
+        }
+    }
+
+    @Test
+    public void readToTheEnd() {
+        try (DbfReader reader = new DbfReader(dbf, true)) {
+            reader.seekToRecord(RECORD_COUNT - 3);
+            DbfCursor cursor = reader.cursor();
+            for (int n = RECORD_COUNT - 3; n < RECORD_COUNT; n++) {
+                assertTrue(cursor.next());
+                assertEquals(n, cursor.getInt(0));
+                assertEquals(n, cursor.getRecordIndex());
+            }
+            assertFalse(cursor.next());
+        }
+    }
+
+    @Test
+    public void recordLongerThan32Kilobytes() {
+        DbfBuilder builder = new DbfBuilder();
+        String[] values = new String[130];
+        for (int i = 0; i < values.length; i++) {
+            builder.field("F" + i, 'C', 255);
+            values[i] = "value " + i;
+        }
+        try (DbfReader reader = builder.record(values).reader()) {
+            assertEquals(130 * 255 + 1, reader.getHeader().getRecordLength());
+            Object[] record = reader.nextRecord();
+            assertEquals("value 129", new String((byte[]) record[129]).trim());
+            assertEquals(values.length, record.length);
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package org.jamel.dbf;
+
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.util.Arrays;
+
+import org.jamel.dbf.io.MappedDataInput;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class MappedReaderTest {
+
+    private final File dbf = resourceFile("memo/vfp3-memo4.DBF");
+
+    @Test
+    public void readsSameRecordsAsStreamReader() throws Exception {
+        try (DbfReader expected = new DbfReader(new FileInputStream(dbf));
+             DbfReader mapped = new DbfReader(dbf, true)) {
+            assertTrue(mapped.canSeek());
+            assertEquals(expected.getRecordCount(), mapped.getRecordCount());
+
+            Object[] row;
+            while ((row = expected.nextRecord()) != null) {
+                assertTrue(Arrays.deepEquals(row, mapped.nextRecord()));
+            }
+            assertNull(mapped.nextRecord());
+        }
+    }
+
+    @Test
+    public void seekToRecord() throws Exception {
+        try (DbfReader raf = new DbfReader(dbf);
+             DbfReader mapped = new DbfReader(dbf, true)) {
+            for (int i : new int[] {19, 0, 7, 7, 12}) {
+                raf.seekToRecord(i);
+                mapped.seekToRecord(i);
+                assertTrue("record " + i, Arrays.deepEquals(raf.nextRecord(), mapped.nextRecord()));
+            }
+        }
+    }
+
+    @Test
+    public void remapsWindows() throws Exception {
+        byte[] content = new byte[(int) dbf.length()];
+        try (DataInputStream in = new DataInputStream(new FileInputStream(dbf))) {
+            in.readFully(content);
+        }
+
+        try (MappedDataInput in = new MappedDataInput(dbf, 7)) {
+            byte[] buf = new byte[content.length];
+            in.readFully(buf, 0, 3);
+            assertEquals(content[3], in.readByte());
+            in.readFully(buf, 4, buf.length - 4);
+            System.arraycopy(content, 0, buf, 0, 4);
+            assertArrayEquals(content, buf);
+            assertEquals(content.length, in.getFilePointer());
+
+            try {
+                in.readByte();
+                fail("EOF expected");
+            } catch (EOFException e) {
+                // expected
+            }
+
+            in.seek(100);
+            assertEquals(content[100], in.readByte());
+            in.seek(10);
+            assertEquals(content[10], in.readByte());
+            assertEquals(5, in.skipBytes(5));
+            assertEquals(content[16], in.readByte());
+        }
+    }
+
+    private File resourceFile(String name) {
+        try {
+            return new File(getClass().getResource(name).toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -1,13 +1,23 @@
 package org.jamel.dbf;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
 import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfRow;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import static junit.framework.Assert.assertEquals;
 import static junit.framework.Assert.assertNull;
 
 public class MemoTest {
 
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
     @Test
     public void testMemo4() {
         DbfReader reader = new DbfReader(getClass().getResourceAsStream("memo/vfp3-memo4.DBF"));
@@ -25,4 +35,32 @@ public class MemoTest {
         }
         assertNull("end", reader.nextRecord());
     }
+
+    @Test
+    public void memoValues() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NAME", 'C', 5)
+                .field("NOTES", 'M', 10)
+                .record("one", "1")
+                .record("two", "")
+                .record("three", "1")
+                .writeTo(folder.newFile("notes.dbf"));
+        byte[] memo = new byte[1024];
+        memo[16] = 3;
+        byte[] value = "shared note\u001a\u001a".getBytes();
+        System.arraycopy(value, 0, memo, 512, value.length);
+        try (FileOutputStream out = new FileOutputStream(folder.newFile("notes.dbt"))) {
+            out.write(memo);
+        }
+
+        try (DbfReader reader = new DbfReader(dbf)) {
+            DbfRow row = reader.nextRow();
+            assertEquals("shared note", row.getMemoString("NOTES"));
+            assertNull(reader.nextRow().getMemo("NOTES"));
+
+            DbfCursor cursor = reader.cursor();
+            cursor.next();
+            assertEquals("shared note", cursor.getMemoString(1));
+        }
+    }
 }
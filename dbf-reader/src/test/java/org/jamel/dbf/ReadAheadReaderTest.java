@@ -0,0 +1,159 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.io.ReadAheadInputStream;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class ReadAheadReaderTest {
+
+    private final File dbf = resourceFile("memo/vfp3-memo4.DBF");
+
+    @Test
+    public void readsSameRecordsAsStreamReader() throws Exception {
+        try (DbfReader expected = new DbfReader(new FileInputStream(dbf));
+             DbfReader pipelined = new DbfReader(new RandomAccessFile(dbf, "r").getChannel(), 100, 2)) {
+            assertFalse(pipelined.canSeek());
+            assertEquals(expected.getRecordCount(), pipelined.getRecordCount());
+
+            Object[] row;
+            while ((row = expected.nextRecord()) != null) {
+                assertTrue(Arrays.deepEquals(row, pipelined.nextRecord()));
+            }
+            assertNull(pipelined.nextRecord());
+            assertNull(pipelined.nextRecord());
+        }
+    }
+
+    @Test
+    public void partialReads() throws Exception {
+        byte[] content = new byte[(int) dbf.length()];
+        try (FileInputStream in = new FileInputStream(dbf)) {
+            assertEquals(content.length, in.read(content));
+        }
+
+        FileChannel file = new RandomAccessFile(dbf, "r").getChannel();
+        try (ReadAheadInputStream in = new ReadAheadInputStream(new TrickleChannel(file, 3, -1), 16, 3)) {
+            byte[] buf = new byte[content.length];
+            assertEquals(1, in.read(buf, 0, 1));
+            assertEquals(content[1], (byte) in.read());
+            assertEquals(10, in.skip(10));
+            int offset = 12;
+            int n;
+            while ((n = in.read(buf, offset, buf.length - offset)) > 0) {
+                offset += n;
+            }
+            assertEquals(content.length, offset);
+            assertArrayEquals(Arrays.copyOfRange(content, 12, content.length),
+                    Arrays.copyOfRange(buf, 12, content.length));
+            assertEquals(-1, in.read());
+        }
+        assertFalse(file.isOpen());
+    }
+
+    @Test
+    public void failure() throws Exception {
+        FileChannel file = new RandomAccessFile(dbf, "r").getChannel();
+        try (DbfReader reader = new DbfReader(new TrickleChannel(file, 64, 2000), 64, 2)) {
+            while (reader.nextRecord() != null) {
+            }
+            fail("failure of the channel expected");
+        } catch (DbfException e) {
+            assertEquals("broken channel", e.getCause().getCause().getMessage());
+        }
+        assertFalse(file.isOpen());
+    }
+
+    @Test(timeout = 10000)
+    public void uncheckedFailure() throws Exception {
+        final FileChannel file = new RandomAccessFile(dbf, "r").getChannel();
+        TrickleChannel channel = new TrickleChannel(file, 64, -1) {
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                if (file.position() >= 2000) {
+                    throw new IllegalStateException("broken channel");
+                }
+                return super.read(dst);
+            }
+        };
+        try (DbfReader reader = new DbfReader(channel, 64, 2)) {
+            while (reader.nextRecord() != null) {
+            }
+            fail("failure of the channel expected");
+        } catch (DbfException e) {
+            assertEquals("broken channel", e.getCause().getCause().getMessage());
+        }
+        assertFalse(file.isOpen());
+    }
+
+    @Test(expected = IOException.class)
+    public void closed() throws Exception {
+        FileChannel file = new RandomAccessFile(dbf, "r").getChannel();
+        ReadAheadInputStream in = new ReadAheadInputStream(file, 16, 2);
+        in.close();
+        assertFalse(file.isOpen());
+        in.read();
+    }
+
+    /**
+     * Returns at most given number of bytes per read and fails after the given position.
+     */
+    private static class TrickleChannel implements ReadableByteChannel {
+        private final FileChannel file;
+        private final int step;
+        private final long failAt;
+
+        TrickleChannel(FileChannel file, int step, long failAt) {
+            this.file = file;
+            this.step = step;
+            this.failAt = failAt;
+        }
+
+        @Override
+        public int read(ByteBuffer dst) throws IOException {
+            if (failAt >= 0 && file.position() >= failAt) {
+                throw new IOException("broken channel");
+            }
+            ByteBuffer slice = dst.slice();
+            slice.limit(Math.min(step, slice.remaining()));
+            int n = file.read(slice);
+            if (n > 0) {
+                dst.position(dst.position() + n);
+            }
+            return n;
+        }
+
+        @Override
+        public boolean isOpen() {
+            return file.isOpen();
+        }
+
+        @Override
+        public void close() throws IOException {
+            file.close();
+        }
+    }
+
+    private File resourceFile(String name) {
+        try {
+            return new File(getClass().getResource(name).toURI());
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package org.jamel.dbf;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.jamel.dbf.utils.CodePages;
+import org.jamel.dbf.utils.StringDecoder;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+public class StringDecoderTest {
+
+    @Test
+    public void decodesAsNewString() {
+        Charset cp1251 = Charset.forName("windows-1251");
+        StringDecoder decoder = new StringDecoder(cp1251);
+        byte[] buf = "  Привет, world  ".getBytes(cp1251);
+        assertEquals("Привет, world", decoder.decode(buf, 2, buf.length - 4));
+        assertEquals("world", decoder.decode(buf, 10, 5));
+        assertEquals("  Привет, world", decoder.decodeTrimmed(buf, 0, buf.length));
+
+        byte[] longValue = new byte[1000];
+        for (int i = 0; i < longValue.length; i++) {
+            longValue[i] = (byte) (0xC0 + i % 32);
+        }
+        assertEquals(new String(longValue, cp1251), decoder.decode(longValue, 0, longValue.length));
+
+        byte[] malformed = {'a', (byte) 0xC3, 'b', (byte) 0xFF};
+        assertEquals(new String(malformed, StandardCharsets.UTF_8),
+                new StringDecoder(StandardCharsets.UTF_8).decode(malformed, 0, malformed.length));
+    }
+
+    @Test
+    public void asciiIncompatibleCharset() {
+        assertTrue(StringDecoder.isAsciiCompatible(Charset.forName("cp866")));
+        assertFalse(StringDecoder.isAsciiCompatible(StandardCharsets.UTF_16LE));
+
+        byte[] buf = "ab".getBytes(StandardCharsets.UTF_16LE);
+        assertEquals("ab", new StringDecoder(StandardCharsets.UTF_16LE).decode(buf, 0, buf.length));
+        assertEquals("ab", StringDecoder.decode(buf, 0, buf.length, StandardCharsets.UTF_16LE));
+    }
+
+    @Test
+    public void codePages() {
+        assertEquals(Charset.forName("cp866"), CodePages.forLanguageDriver((byte) 0x26));
+        assertEquals(Charset.forName("windows-1251"), CodePages.forLanguageDriver((byte) 0xC9));
+        assertEquals(Charset.forName("cp437"), CodePages.forLanguageDriver((byte) 0x01));
+        assertNull(CodePages.forLanguageDriver((byte) 0));
+        assertNull(CodePages.forLanguageDriver((byte) 0xFE));
+    }
+}
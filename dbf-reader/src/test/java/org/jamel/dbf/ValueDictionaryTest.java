@@ -0,0 +1,38 @@
+package org.jamel.dbf;
+
+import java.nio.charset.StandardCharsets;
+
+import org.jamel.dbf.utils.ValueDictionary;
+import org.junit.Test;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+
+public class ValueDictionaryTest {
+
+    @Test
+    public void codes() {
+        ValueDictionary dictionary = new ValueDictionary(1000);
+        byte[] buf = "xxMOSCOW  xxKAZAN   ".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(0, dictionary.code(buf, 2, 8));
+        assertEquals(1, dictionary.code(buf, 12, 8));
+        assertEquals(0, dictionary.code("MOSCOW  ".getBytes(StandardCharsets.US_ASCII), 0, 8));
+        assertEquals(2, dictionary.size());
+        assertArrayEquals("KAZAN   ".getBytes(StandardCharsets.US_ASCII), dictionary.bytes(1));
+
+        String moscow = dictionary.string(0, StandardCharsets.US_ASCII);
+        assertEquals("MOSCOW", moscow);
+        assertSame(moscow, dictionary.string(0, StandardCharsets.US_ASCII));
+
+        // rehashing keeps the codes
+        for (int i = 0; i < 998; i++) {
+            byte[] value = String.format("%8d", i).getBytes(StandardCharsets.US_ASCII);
+            assertEquals(i + 2, dictionary.code(value, 0, value.length));
+        }
+        assertEquals(1, dictionary.code(buf, 12, 8));
+        assertEquals(-1, dictionary.code("NEW     ".getBytes(StandardCharsets.US_ASCII), 0, 8));
+        assertEquals("KAZAN", dictionary.string(1, StandardCharsets.US_ASCII));
+        assertEquals("     997", dictionary.string(999, StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,89 @@
+package org.jamel.dbf.filter;
+
+import java.util.ArrayList;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.jamel.dbf.DbfBuilder;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Test;
+
+import static java.util.Arrays.asList;
+import static org.jamel.dbf.filter.DbfFilters.and;
+import static org.jamel.dbf.filter.DbfFilters.between;
+import static org.jamel.dbf.filter.DbfFilters.equalTo;
+import static org.jamel.dbf.filter.DbfFilters.greaterThan;
+import static org.jamel.dbf.filter.DbfFilters.lessThan;
+import static org.jamel.dbf.filter.DbfFilters.not;
+import static org.jamel.dbf.filter.DbfFilters.or;
+import static org.jamel.dbf.filter.DbfFilters.startsWith;
+import static org.junit.Assert.assertEquals;
+
+public class DbfFiltersTest {
+
+    private final DbfBuilder dbf = new DbfBuilder()
+            .field("ID", 'N', 3)
+            .field("REGION", 'C', 4)
+            .field("AMOUNT", 'N', 8, 2)
+            .field("CREATED", 'D', 8)
+            .record("1", "77", "1500.00", "20130715")
+            .record("2", "771", "999.99", "20130716")
+            .deletedRecord("3", "77", "5000.00", "20130717")
+            .record("4", "50", "1000.00", "")
+            .record("5", "77", "?", "20140101")
+            .record("6", "7", "2000.50", "20121231");
+
+    @Test
+    public void equality() {
+        assertEquals(asList(1, 5), ids(equalTo("REGION", "77")));
+        assertEquals(asList(1, 5), ids(equalTo("REGION", "77".getBytes())));
+        assertEquals(asList(1, 2, 5), ids(startsWith("REGION", "77")));
+        assertEquals(asList(1, 2, 5, 6), ids(startsWith("REGION", "7")));
+        assertEquals(asList(), ids(equalTo("REGION", "77777")));
+    }
+
+    @Test
+    public void numericRange() {
+        assertEquals(asList(1, 6), ids(greaterThan("AMOUNT", 1000)));
+        assertEquals(asList(2), ids(lessThan("AMOUNT", 1000)));
+        assertEquals(asList(1, 2, 4), ids(between("AMOUNT", 999.99, 1500)));
+    }
+
+    @Test
+    public void dateRange() {
+        assertEquals(asList(1, 2), ids(between("CREATED",
+                new GregorianCalendar(2013, 0, 1).getTime(), new GregorianCalendar(2013, 11, 31).getTime())));
+        assertEquals(asList(5), ids(between("CREATED", new GregorianCalendar(2014, 0, 1).getTime(), null)));
+        assertEquals(asList(6), ids(between("CREATED", null, new GregorianCalendar(2013, 0, 1).getTime())));
+    }
+
+    @Test
+    public void combinations() {
+        assertEquals(asList(1), ids(and(equalTo("REGION", "77"), greaterThan("AMOUNT", 1000))));
+        assertEquals(asList(1, 5, 6), ids(or(equalTo("REGION", "77"), greaterThan("AMOUNT", 1000))));
+        assertEquals(asList(2, 4, 6), ids(not(equalTo("REGION", "77"))));
+    }
+
+    @Test(expected = DbfException.class)
+    public void unsupportedType() {
+        ids(equalTo("AMOUNT", "1"));
+    }
+
+    @Test(expected = DbfException.class)
+    public void unknownField() {
+        ids(equalTo("COLOR", "red"));
+    }
+
+    private List<Integer> ids(DbfFilter filter) {
+        List<Integer> ids = new ArrayList<>();
+        try (DbfReader reader = dbf.reader()) {
+            reader.setFilter(filter);
+            Object[] row;
+            while ((row = reader.nextRecord()) != null) {
+                ids.add(((Number) row[0]).intValue());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,358 @@
+package org.jamel.dbf.index;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.Arrays;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class DbfIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void ndxCharacter() throws IOException {
+        ByteBuffer file = buffer(4 * 512);
+        file.putInt(0, 3).putShort(12, (short) 8).putShort(16, (short) 0).putShort(18, (short) 16);
+        put(file, 24, "NAME");
+        ndxLeaf(file, 1, new String[]{"ANNA", "BOB", "BOB"}, new int[]{3, 1, 5});
+        ndxLeaf(file, 2, new String[]{"CARL", "DAN"}, new int[]{2, 4});
+        // root: "BOB" is the greatest key of page 1, page 2 keeps greater keys
+        file.putInt(3 * 512, 1);
+        file.putInt(3 * 512 + 4, 1);
+        put(file, 3 * 512 + 12, pad("BOB", 8));
+        file.putInt(3 * 512 + 20, 2);
+
+        try (NdxIndex index = new NdxIndex(write("name.ndx", file))) {
+            assertEquals("NAME", index.getKeyExpression());
+            assertArrayEquals(new int[]{0, 4}, index.find("BOB"));
+            assertArrayEquals(new int[]{3}, index.find("DAN"));
+            assertArrayEquals(new int[0], index.find("BART"));
+            assertArrayEquals(new int[0], index.find("ZED"));
+            assertArrayEquals(new int[]{0, 4, 1}, index.findRange("B", "CZ"));
+            assertArrayEquals(new int[]{2, 0, 4, 1, 3}, index.findRange(null, null));
+        }
+    }
+
+    @Test
+    public void longKey() throws IOException {
+        ByteBuffer file = buffer(2 * 512);
+        file.putInt(0, 1).putShort(12, (short) 8).putShort(16, (short) 0).putShort(18, (short) 16);
+        ndxLeaf(file, 1, new String[]{"ANNA", "BOB"}, new int[]{1, 2});
+
+        try (NdxIndex index = new NdxIndex(write("name.ndx", file))) {
+            // trailing spaces don't count
+            assertArrayEquals(new int[]{1}, index.find("BOB          "));
+            try {
+                index.find("BOB     SMITH");
+                fail("key longer than the index key must be rejected");
+            } catch (DbfException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void ndxNumeric() throws IOException {
+        ByteBuffer file = buffer(2 * 512);
+        file.putInt(0, 1).putShort(12, (short) 8).putShort(16, (short) 1).putShort(18, (short) 16);
+        double[] keys = {-1.5, 2, 2, 10};
+        file.putInt(512, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            file.putInt(512 + 4 + i * 16 + 4, i + 1).putDouble(512 + 4 + i * 16 + 8, keys[i]);
+        }
+
+        try (NdxIndex index = new NdxIndex(write("amount.ndx", file))) {
+            assertArrayEquals(new int[]{1, 2}, index.find(2));
+            assertArrayEquals(new int[]{1, 2, 3}, index.findRange(0, null));
+            assertArrayEquals(new int[]{0}, index.findRange(null, 0L));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void keyOfWrongType() throws IOException {
+        ByteBuffer file = buffer(2 * 512);
+        file.putInt(0, 1).putShort(12, (short) 8).putShort(16, (short) 1).putShort(18, (short) 16);
+        try (NdxIndex index = new NdxIndex(write("amount.ndx", file))) {
+            index.find("2");
+        }
+    }
+
+    @Test
+    public void mdx() throws IOException {
+        ByteBuffer file = buffer(9 * 512);
+        file.putShort(22, (short) 1024).put(26, (byte) 32).putShort(28, (short) 1);
+        file.putInt(544, 2);
+        put(file, 548, "AMOUNT");
+        file.put(544 + 20, (byte) 'N');
+
+        file.putInt(2 * 512, 3).put(2 * 512 + 9, (byte) 'N').putShort(2 * 512 + 12, (short) 12)
+                .putShort(2 * 512 + 18, (short) 16);
+        put(file, 2 * 512 + 24, "AMOUNT");
+        mdxNode(file, 5, new double[]{-7, 5}, new int[]{4, 1});
+        mdxNode(file, 7, new double[]{12.5, 300}, new int[]{2, 3});
+        // root with the pointer to keys greater than 5 after the last key
+        mdxNode(file, 3, new double[]{5}, new int[]{5, 7});
+
+        try (MdxFile mdx = new MdxFile(write("data.mdx", file))) {
+            assertEquals(Arrays.asList("AMOUNT"), mdx.getTagNames());
+            DbfIndex index = mdx.getTag("amount");
+            assertArrayEquals(new int[]{1}, index.find(12.5));
+            assertArrayEquals(new int[]{0, 1}, index.findRange(0, 100));
+            assertArrayEquals(new int[]{3}, index.findRange(null, 0));
+            assertArrayEquals(new int[]{3, 0, 1, 2}, index.findRange(null, null));
+        }
+    }
+
+    @Test
+    public void cdx() throws IOException {
+        ByteBuffer file = buffer(5632);
+        cdxHeader(file, 0, 1024, 10, "");
+        cdxLeaf(file, 1024, new byte[][]{pad("AMOUNT", 10), pad("NAME", 10)}, new int[]{4096, 1536}, -1, (byte) ' ');
+
+        cdxHeader(file, 1536, 2560, 6, "UPPER(NAME)");
+        file.putShort(2560, (short) 1).putShort(2562, (short) 2).putInt(2564, -1).putInt(2568, -1);
+        file.order(ByteOrder.BIG_ENDIAN);
+        put(file, 2572, pad("BOB", 6));
+        file.putInt(2578, 5).putInt(2582, 3072);
+        put(file, 2586, pad("DAN", 6));
+        file.putInt(2592, 4).putInt(2596, 3584);
+        file.order(ByteOrder.LITTLE_ENDIAN);
+        cdxLeaf(file, 3072, new byte[][]{pad("ANNA", 6), pad("BOB", 6), pad("BOB", 6)}, new int[]{3, 1, 5}, 3584, (byte) ' ');
+        cdxLeaf(file, 3584, new byte[][]{pad("BOBBY", 6), pad("DAN", 6)}, new int[]{2, 4}, -1, (byte) ' ');
+
+        cdxHeader(file, 4096, 5120, 8, "AMOUNT");
+        cdxLeaf(file, 5120, new byte[][]{cdxNumber(-3), cdxNumber(0.5), cdxNumber(2), cdxNumber(2)},
+                new int[]{1, 2, 3, 4}, -1, (byte) 0);
+
+        try (CdxFile cdx = new CdxFile(write("data.cdx", file))) {
+            assertEquals(Arrays.asList("AMOUNT", "NAME"), cdx.getTagNames());
+
+            DbfIndex names = cdx.getTag("NAME");
+            assertEquals("UPPER(NAME)", names.getKeyExpression());
+            assertArrayEquals(new int[]{0, 4}, names.find("BOB"));
+            assertArrayEquals(new int[]{1}, names.find("BOBBY"));
+            assertArrayEquals(new int[]{2, 0, 4, 1, 3}, names.findRange(null, null));
+            assertArrayEquals(new int[0], names.find("ZED"));
+
+            DbfIndex amounts = cdx.getTag("AMOUNT");
+            assertArrayEquals(new int[]{2, 3}, amounts.find(2));
+            assertArrayEquals(new int[]{0, 1}, amounts.findRange(-10, 1));
+        }
+    }
+
+    /**
+     * The file is laid out per the Visual FoxPro CDX file structure and written byte by byte,
+     * so it does not share the assumptions of the parser or of the helpers below.
+     */
+    @Test
+    public void cdxKeyTypeIsDerivedFromTag() throws IOException {
+        ByteBuffer file = buffer(9 * 512);
+        // directory header: root node 0x400, key length 10, compact compound index
+        putHex(file, 0x0000, "00040000ffffffff");
+        putHex(file, 0x000c, "0a006001");
+        // directory leaf: root + leaf, 2 keys, 16 bit record numbers, 4 bit duplicate and trail counts
+        putHex(file, 0x0400, "03000200ffffffffffffffffd801ffff00000f0f10040403");
+        putHex(file, 0x0418, "000640" + "000c60");
+        putHex(file, 0x05f6, hex("NAME") + hex("AMOUNT"));
+        // tag AMOUNT: root node 0xa00, key length 8, expression AMOUNT
+        putHex(file, 0x0600, "000a0000ffffffff");
+        putHex(file, 0x060c, "08006001");
+        putHex(file, 0x07fe, "0600" + hex("AMOUNT"));
+        // keys -2.5, 1, 1, 300 of records 3, 1, 4, 2 as sortable doubles, trailing zeros trimmed
+        putHex(file, 0x0a00, "03000400ffffffffffffffffcf01ffff00000f0f10040403");
+        putHex(file, 0x0a18, "030000" + "010060" + "040062" + "020050");
+        putHex(file, 0x0bf3, "c072c0" + "bff0" + "3ffbffffffffffff");
+        // tag NAME: root node 0x1000, key length 8, expression UPPER(NAME)
+        putHex(file, 0x0c00, "00100000ffffffff");
+        putHex(file, 0x0c0c, "08006001");
+        putHex(file, 0x0dfe, "0b00" + hex("UPPER(NAME)"));
+        // keys ANNA, BOB, BOBBY of records 2, 1, 3, trailing spaces trimmed
+        putHex(file, 0x1000, "03000300ffffffffffffffffd601ffff00000f0f10040403");
+        putHex(file, 0x1018, "020040" + "010050" + "030033");
+        putHex(file, 0x11f7, hex("BY") + hex("BOB") + hex("ANNA"));
+        File cdxFile = write("independent.cdx", file);
+
+        try (CdxFile cdx = new CdxFile(cdxFile, StandardCharsets.US_ASCII)) {
+            DbfIndex names = cdx.getTag("NAME");
+            assertArrayEquals(new int[]{0}, names.find("BOB"));
+            assertArrayEquals(new int[]{2}, names.find("BOBBY"));
+            assertArrayEquals(new int[]{1}, names.find("ANNA"));
+            try {
+                names.find(1);
+                fail("UPPER() makes keys of the tag character");
+            } catch (DbfException e) {
+                // expected
+            }
+
+            // the type of a bare field is not known without the dbf header
+            DbfIndex amounts = cdx.getTag("AMOUNT");
+            assertArrayEquals(new int[0], amounts.find("1"));
+            assertArrayEquals(new int[]{0, 3}, amounts.find(1));
+            assertArrayEquals(new int[]{2}, amounts.findRange(null, 0));
+            assertArrayEquals(new int[]{1}, amounts.find(new BigDecimal("300")));
+        }
+
+        DbfHeader header = DbfHeader.create(Arrays.asList(
+                DbfField.create("AMOUNT", DbfDataType.NUMERIC, 10, 2),
+                DbfField.create("NAME", DbfDataType.CHAR, 8)));
+        try (CompoundIndex cdx = CompoundIndex.open(cdxFile, StandardCharsets.US_ASCII, header)) {
+            DbfIndex amounts = cdx.getTag("AMOUNT");
+            try {
+                amounts.find("1");
+                fail("AMOUNT is a numeric field");
+            } catch (DbfException e) {
+                // expected
+            }
+            assertArrayEquals(new int[]{0, 3}, amounts.find(1));
+        }
+    }
+
+    @Test
+    public void dateKeys() throws IOException {
+        ByteBuffer file = buffer(2 * 512);
+        file.putInt(0, 1).putShort(12, (short) 8).putShort(16, (short) 1).putShort(18, (short) 16);
+        file.putInt(512, 2);
+        // julian day numbers of 2014-01-01 and 2014-01-02
+        file.putInt(512 + 8, 1).putDouble(512 + 12, 2456659);
+        file.putInt(512 + 24, 2).putDouble(512 + 28, 2456660);
+
+        try (NdxIndex index = new NdxIndex(write("date.ndx", file))) {
+            assertArrayEquals(new int[]{1}, index.find(LocalDate.of(2014, 1, 2)));
+        }
+    }
+
+    private static ByteBuffer buffer(int length) {
+        return ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+    }
+
+    private static void put(ByteBuffer buf, int offset, String value) {
+        put(buf, offset, value.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    private static void put(ByteBuffer buf, int offset, byte[] value) {
+        System.arraycopy(value, 0, buf.array(), offset, value.length);
+    }
+
+    private static void putHex(ByteBuffer buf, int offset, String hex) {
+        for (int i = 0; i < hex.length(); i += 2) {
+            buf.put(offset + i / 2, (byte) Integer.parseInt(hex.substring(i, i + 2), 16));
+        }
+    }
+
+    private static String hex(String value) {
+        StringBuilder hex = new StringBuilder();
+        for (byte b : value.getBytes(StandardCharsets.US_ASCII)) {
+            hex.append(String.format("%02x", b));
+        }
+        return hex.toString();
+    }
+
+    private static byte[] pad(String value, int length) {
+        byte[] bytes = Arrays.copyOf(value.getBytes(StandardCharsets.US_ASCII), length);
+        Arrays.fill(bytes, value.length(), length, (byte) ' ');
+        return bytes;
+    }
+
+    private static void ndxLeaf(ByteBuffer file, int page, String[] keys, int[] records) {
+        int offset = page * 512;
+        file.putInt(offset, keys.length);
+        for (int i = 0; i < keys.length; i++) {
+            file.putInt(offset + 4 + i * 16 + 4, records[i]);
+            put(file, offset + 4 + i * 16 + 8, pad(keys[i], 8));
+        }
+    }
+
+    /**
+     * Writes node with 12 byte BCD keys, interior nodes have one more pointer than keys.
+     */
+    private static void mdxNode(ByteBuffer file, int page, double[] keys, int[] pointers) {
+        int offset = page * 512;
+        file.putInt(offset, keys.length);
+        for (int i = 0; i < pointers.length; i++) {
+            file.putInt(offset + 8 + i * 16, pointers[i]);
+            if (i < keys.length) {
+                put(file, offset + 8 + i * 16 + 4, bcd(keys[i]));
+            }
+        }
+    }
+
+    private static byte[] bcd(double value) {
+        BigDecimal decimal = BigDecimal.valueOf(Math.abs(value)).stripTrailingZeros();
+        String digits = decimal.unscaledValue().toString();
+        byte[] key = new byte[12];
+        key[0] = (byte) (0x34 + decimal.precision() - decimal.scale());
+        key[1] = (byte) (digits.length() << 2 | (value < 0 ? 0x80 : 0));
+        for (int i = 0; i < digits.length(); i++) {
+            key[2 + i / 2] |= (digits.charAt(i) - '0') << (i % 2 == 0 ? 4 : 0);
+        }
+        return key;
+    }
+
+    private static void cdxHeader(ByteBuffer file, int offset, int root, int keyLength, String expression) {
+        file.putInt(offset, root).putInt(offset + 4, -1).putShort(offset + 12, (short) keyLength);
+        file.put(offset + 14, (byte) 0x60);
+        put(file, offset + 512, expression);
+    }
+
+    /**
+     * Writes leaf node with compressed keys: 16 bits of record number, 4 bits of
+     * duplicate and 4 bits of trailing byte counts.
+     */
+    private static void cdxLeaf(ByteBuffer file, int offset, byte[][] keys, int[] records, int right, byte fill) {
+        file.putShort(offset, (short) (right == -1 ? 3 : 2)).putShort(offset + 2, (short) keys.length);
+        file.putInt(offset + 4, -1).putInt(offset + 8, right);
+        file.putInt(offset + 14, 0xffff);
+        file.put(offset + 18, (byte) 0x0f).put(offset + 19, (byte) 0x0f);
+        file.put(offset + 20, (byte) 16).put(offset + 21, (byte) 4).put(offset + 22, (byte) 4).put(offset + 23, (byte) 3);
+        byte[] previous = new byte[0];
+        int keyEnd = offset + 512;
+        for (int i = 0; i < keys.length; i++) {
+            byte[] key = keys[i];
+            int trail = 0;
+            while (trail < key.length && key[key.length - 1 - trail] == fill) trail++;
+            int duplicates = 0;
+            while (duplicates < previous.length && duplicates < key.length - trail
+                    && previous[duplicates] == key[duplicates]) duplicates++;
+            int length = key.length - duplicates - trail;
+            keyEnd -= length;
+            System.arraycopy(key, duplicates, file.array(), keyEnd, length);
+            int entry = records[i] | duplicates << 16 | trail << 20;
+            int entryOffset = offset + 24 + i * 3;
+            file.put(entryOffset, (byte) entry).put(entryOffset + 1, (byte) (entry >>> 8))
+                    .put(entryOffset + 2, (byte) (entry >>> 16));
+            previous = key;
+        }
+    }
+
+    private static byte[] cdxNumber(double value) {
+        long bits = Double.doubleToLongBits(value);
+        bits = value >= 0 ? bits ^ Long.MIN_VALUE : ~bits;
+        return ByteBuffer.allocate(8).putLong(bits).array();
+    }
+
+    private File write(String name, ByteBuffer content) throws IOException {
+        File file = folder.newFile(name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            out.write(content.array());
+        }
+        return file;
+    }
+}
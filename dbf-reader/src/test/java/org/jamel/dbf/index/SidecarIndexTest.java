@@ -0,0 +1,173 @@
+package org.jamel.dbf.index;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.jamel.dbf.DbfBuilder;
+import org.jamel.dbf.DbfRandomAccessReader;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.filter.DbfFilters;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class SidecarIndexTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private File dbf;
+
+    @Before
+    public void setUp() throws IOException {
+        dbf = new DbfBuilder()
+                .field("NAME", 'C', 8)
+                .field("AMOUNT", 'N', 6, 1)
+                .field("BORN", 'D', 8)
+                .field("ACTIVE", 'L', 1)
+                .record("DAN", "10.5", "19800101", "T")
+                .record("ANNA", "-2.0", "19991231", "F")
+                .deletedRecord("ANNA", "1.0", "20000101", "T")
+                .record("BOB", "", "", "?")
+                .record("ANNA", "7.0", "19800101", "Y")
+                .writeTo(folder.newFile("people.dbf"));
+    }
+
+    @Test
+    public void character() throws IOException {
+        File file = folder.newFile("name.idx");
+        SidecarIndex.build(dbf, "NAME", file);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, file, StandardCharsets.US_ASCII)) {
+            assertEquals("NAME", index.getFieldName());
+            assertEquals(4, index.size());
+            assertArrayEquals(new int[]{1, 4}, index.find("ANNA"));
+            assertArrayEquals(new int[]{0}, index.find("DAN".getBytes()));
+            assertArrayEquals(new int[0], index.find("CARL"));
+            assertArrayEquals(new int[]{3, 0}, index.findRange("B", "E"));
+            assertArrayEquals(new int[]{1, 4, 3, 0}, index.findRange(null, null));
+
+            try (DbfReader reader = new DbfReader(dbf)) {
+                List<Object[]> records = index.readRecords(reader, "ANNA");
+                assertEquals(2, records.size());
+                assertEquals(-2.0, ((Number) records.get(0)[1]).doubleValue(), 0);
+                assertEquals(7.0, ((Number) records.get(1)[1]).doubleValue(), 0);
+            }
+        }
+    }
+
+    @Test
+    public void readRecordsByRandomAccess() throws IOException {
+        File file = folder.newFile("name.idx");
+        SidecarIndex.build(dbf, "NAME", file);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, file, StandardCharsets.US_ASCII);
+             DbfRandomAccessReader reader = new DbfRandomAccessReader(dbf)) {
+            List<Object[]> records = index.readRecords(reader, "ANNA");
+            assertEquals(2, records.size());
+            assertEquals(7.0, ((Number) records.get(1)[1]).doubleValue(), 0);
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void recordSkippedByFilter() throws IOException {
+        File file = folder.newFile("name.idx");
+        SidecarIndex.build(dbf, "NAME", file);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, file, StandardCharsets.US_ASCII);
+             DbfReader reader = new DbfReader(dbf)) {
+            reader.setFilter(DbfFilters.equalTo("NAME", "DAN"));
+            assertEquals(1, index.readRecords(reader, "DAN").size());
+            // BOB doesn't match, seeking to it would return DAN
+            index.readRecords(reader, "BOB");
+        }
+    }
+
+    @Test
+    public void longKey() throws IOException {
+        File file = folder.newFile("name.idx");
+        SidecarIndex.build(dbf, "NAME", file);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, file, StandardCharsets.US_ASCII)) {
+            // trailing spaces don't count
+            assertArrayEquals(new int[]{1, 4}, index.find("ANNA        "));
+            try {
+                index.find("ANNA    SMITH");
+                fail("key longer than the field must be rejected");
+            } catch (DbfException e) {
+                // expected
+            }
+        }
+    }
+
+    @Test
+    public void numeric() throws IOException {
+        File file = folder.newFile("amount.idx");
+        SidecarIndex.build(dbf, "AMOUNT", file);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, file)) {
+            assertEquals(3, index.size());
+            assertArrayEquals(new int[]{4}, index.find(7));
+            assertArrayEquals(new int[]{1, 4}, index.findRange(-10, 7.0));
+            assertArrayEquals(new int[]{4, 0}, index.findRange(0, null));
+        }
+    }
+
+    @Test
+    public void dateAndLogical() throws IOException {
+        File born = folder.newFile("born.idx");
+        SidecarIndex.build(dbf, "BORN", born);
+        File active = folder.newFile("active.idx");
+        SidecarIndex.build(dbf, "ACTIVE", active);
+
+        try (SidecarIndex index = new SidecarIndex(dbf, born)) {
+            assertArrayEquals(new int[]{0, 4}, index.find(LocalDate.of(1980, 1, 1)));
+            assertArrayEquals(new int[]{1}, index.findRange(LocalDate.of(1990, 1, 1), null));
+        }
+        try (SidecarIndex index = new SidecarIndex(dbf, active)) {
+            assertArrayEquals(new int[]{0, 4}, index.find(true));
+            assertArrayEquals(new int[]{1}, index.find(false));
+        }
+    }
+
+    @Test
+    public void outOfDate() throws IOException {
+        File file = new File(folder.getRoot(), "name.idx");
+        assertFalse(SidecarIndex.isUpToDate(dbf, file));
+        SidecarIndex.build(dbf, "NAME", file);
+        assertTrue(SidecarIndex.isUpToDate(dbf, file));
+
+        assertTrue(dbf.setLastModified(dbf.lastModified() - 10000));
+        assertFalse(SidecarIndex.isUpToDate(dbf, file));
+        try {
+            new SidecarIndex(dbf, file);
+            fail();
+        } catch (DbfException e) {
+            assertTrue(e.getMessage().contains("out of date"));
+        }
+
+        try (SidecarIndex index = SidecarIndex.openOrBuild(dbf, "NAME", file, StandardCharsets.US_ASCII)) {
+            assertArrayEquals(new int[]{1, 4}, index.find("ANNA"));
+        }
+        try (SidecarIndex index = SidecarIndex.openOrBuild(dbf, "AMOUNT", file, StandardCharsets.US_ASCII)) {
+            assertEquals("AMOUNT", index.getFieldName());
+            assertArrayEquals(new int[]{0}, index.find(10.5));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void unknownField() throws IOException {
+        SidecarIndex.build(dbf, "AGE", folder.newFile("age.idx"));
+    }
+}
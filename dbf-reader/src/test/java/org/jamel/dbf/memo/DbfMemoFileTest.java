@@ -0,0 +1,139 @@
+package org.jamel.dbf.memo;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
+
+import org.jamel.dbf.exception.DbfException;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+public class DbfMemoFileTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void dBase3() throws IOException {
+        byte[] header = new byte[512];
+        header[16] = 3;
+        // the second value takes two blocks
+        String longValue = repeat('x', 700);
+        File file = write("test.dbt", header, block("first\u001a\u001a", 512),
+                block(longValue + "\u001a\u001a", 1024), block("last", 4));
+        try (DbfMemoFile memo = new DbfMemoFile(file)) {
+            assertEquals("first", memo.readString(1, StandardCharsets.US_ASCII));
+            assertEquals(longValue, memo.readString(2, StandardCharsets.US_ASCII));
+            assertEquals("last", memo.readString(4, StandardCharsets.US_ASCII));
+            assertNull(memo.read(0));
+        }
+    }
+
+    @Test
+    public void dBase4() throws IOException {
+        byte[] header = new byte[512];
+        ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN).putShort(20, (short) 64);
+        ByteBuffer value = ByteBuffer.allocate(64).order(ByteOrder.LITTLE_ENDIAN);
+        value.putInt(0x0008ffff).putInt(8 + 5).put("hello".getBytes());
+        File file = write("test.dbt", header, value.array());
+        try (DbfMemoFile memo = new DbfMemoFile(file)) {
+            assertEquals("hello", memo.readString(8, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void foxPro() throws IOException {
+        byte[] header = new byte[512];
+        ByteBuffer.wrap(header).putShort(6, (short) 32);
+        ByteBuffer first = ByteBuffer.allocate(32).putInt(1).putInt(3).put("abc".getBytes());
+        ByteBuffer second = ByteBuffer.allocate(64).putInt(1).putInt(40).put(repeat('y', 40).getBytes());
+        File file = write("test.fpt", header, first.array(), second.array());
+        try (DbfMemoFile memo = new DbfMemoFile(file)) {
+            assertEquals("abc", memo.readString(16, StandardCharsets.US_ASCII));
+            assertEquals(repeat('y', 40), memo.readString(17, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test
+    public void cache() throws IOException {
+        byte[] header = new byte[512];
+        ByteBuffer.wrap(header).putShort(6, (short) 16);
+        ByteBuffer blocks = ByteBuffer.allocate(16 * 3);
+        for (int i = 0; i < 3; i++) {
+            blocks.putInt(1).putInt(8).put(("value-" + i + "!").getBytes());
+        }
+        File file = write("test.fpt", header, blocks.array());
+        try (DbfMemoFile memo = new DbfMemoFile(file, 16)) {
+            memo.read(32);
+            memo.read(32);
+            memo.read(33);
+            assertEquals(2, memo.getDiskReads());
+
+            memo.read(34); // evicts the least recently used value of block 32
+            memo.read(33);
+            assertEquals(3, memo.getDiskReads());
+            memo.read(32);
+            assertEquals(4, memo.getDiskReads());
+
+            // returned values don't share the cached arrays
+            memo.read(32)[0] = 0;
+            assertEquals("value-0!", memo.readString(32, StandardCharsets.US_ASCII));
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void closed() throws IOException {
+        byte[] header = new byte[512];
+        header[16] = 3;
+        File file = write("test.dbt", header, block("text\u001a", 512));
+        DbfMemoFile memo = new DbfMemoFile(file);
+        assertEquals("text", memo.readString(1, StandardCharsets.US_ASCII));
+        memo.close();
+        memo.close();
+        memo.read(1);
+    }
+
+    @Test
+    public void companion() throws IOException {
+        File dbf = folder.newFile("data.dbf");
+        assertNull(DbfMemoFile.companionOf(dbf));
+        File memo = folder.newFile("data.FPT");
+        assertEquals(memo, DbfMemoFile.companionOf(dbf));
+    }
+
+    private File write(String name, byte[]... parts) throws IOException {
+        File file = folder.newFile(name);
+        try (FileOutputStream out = new FileOutputStream(file)) {
+            for (byte[] part : parts) {
+                out.write(part);
+            }
+        }
+        return file;
+    }
+
+    private static byte[] block(String value, int length) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream(length);
+        byte[] bytes = value.getBytes(StandardCharsets.US_ASCII);
+        out.write(bytes, 0, bytes.length);
+        for (int i = bytes.length; i < length; i++) {
+            out.write(0);
+        }
+        return out.toByteArray();
+    }
+
+    private static String repeat(char c, int count) {
+        StringBuilder sb = new StringBuilder(count);
+        for (int i = 0; i < count; i++) {
+            sb.append(c);
+        }
+        return sb.toString();
+    }
+}
@@ -0,0 +1,116 @@
+package org.jamel.dbf.metrics;
+
+import java.io.File;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.jamel.dbf.DbfBuilder;
+import org.jamel.dbf.DbfReader;
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DbfReaderMetricsTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void counters() throws IOException {
+        File dbf = new DbfBuilder()
+                .field("NAME", 'C', 8)
+                .field("AMOUNT", 'N', 8, 2)
+                .field("RATE", 'F', 10, 2)
+                .field("BORN", 'D', 8)
+                .record("ANNA", "12.50", "?", "19800101")
+                .deletedRecord("BOB", "1.00", "1", "19800101")
+                .record("DAN", "", "3", "")
+                .record("EVA", "1", "2", "20001332")
+                .record("IVAN", "1.2.3", "2", "20000101")
+                .writeTo(folder.newFile("people.dbf"));
+
+        DbfReaderMetrics metrics = new DbfReaderMetrics();
+        try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setListener(metrics);
+            for (int i = 0; i < 3; i++) {
+                reader.nextRecord();
+            }
+            try {
+                reader.nextRecord();
+                fail();
+            } catch (DbfException e) {
+                // malformed number
+            }
+        }
+
+        int recordLength = 1 + 8 + 8 + 10 + 8;
+        assertEquals(5 * recordLength, metrics.getBytesRead());
+        assertEquals(4, metrics.getRecordsRead());
+        assertEquals(1, metrics.getDeletedRecordsSkipped());
+        assertEquals(2, metrics.getNullNumbers());
+        assertEquals(2, metrics.getParseFailures());
+        assertEquals(4, metrics.getDecodeTime(DbfDataType.CHAR).getCount());
+        assertEquals(3, metrics.getDecodeTime(DbfDataType.DATE).getCount());
+        assertEquals(0, metrics.getDecodeTime(DbfDataType.LOGICAL).getCount());
+        assertTrue(metrics.getDecodeTimeNanos() > 0);
+        assertEquals(4, metrics.getDecodeTimes().length);
+        assertTrue(metrics.getDecodeTimes()[0].startsWith("CHAR: count=4, mean="));
+
+        metrics.reset();
+        assertEquals(0, metrics.getBytesRead());
+        assertEquals(0, metrics.getDecodeTimes().length);
+    }
+
+    @Test
+    public void histogram() {
+        DbfReaderMetrics.Histogram histogram = new DbfReaderMetrics.Histogram();
+        assertEquals(0, histogram.getPercentileNanos(50));
+        for (int i = 0; i < 98; i++) {
+            histogram.record(100);
+        }
+        histogram.record(0);
+        histogram.record(5000);
+        assertEquals(100, histogram.getCount());
+        assertEquals(98 * 100 + 5000, histogram.getTotalNanos());
+        assertEquals(0, histogram.getPercentileNanos(0));
+        assertEquals(127, histogram.getPercentileNanos(50));
+        assertEquals(127, histogram.getPercentileNanos(99));
+        assertEquals(8191, histogram.getPercentileNanos(100));
+    }
+
+    @Test
+    public void jmx() throws Exception {
+        File dbf = new DbfBuilder()
+                .field("ID", 'N', 4)
+                .record("1")
+                .record("2")
+                .writeTo(folder.newFile("ids.dbf"));
+
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        DbfReaderMetrics metrics = new DbfReaderMetrics().register("ids");
+        ObjectName name = metrics.getObjectName();
+        try (DbfReader reader = new DbfReader(dbf)) {
+            reader.setListener(metrics);
+            while (reader.nextRecord() != null) {
+            }
+            assertEquals(new ObjectName("org.jamel.dbf:type=DbfReaderMetrics,name=\"ids\""), name);
+            assertEquals(2L, server.getAttribute(name, "RecordsRead"));
+            assertEquals(1, ((String[]) server.getAttribute(name, "DecodeTimes")).length);
+        } finally {
+            metrics.unregister();
+        }
+        assertFalse(server.isRegistered(name));
+        assertNull(metrics.getObjectName());
+    }
+}
@@ -0,0 +1,162 @@
+package org.jamel.dbf.processor;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.LockSupport;
+
+import org.jamel.dbf.DbfBuilder;
+import org.jamel.dbf.DbfRecordBatch;
+import org.jamel.dbf.metrics.DbfReaderMetrics;
+import org.jamel.dbf.structure.DbfDataType;
+import org.junit.BeforeClass;
+import org.junit.ClassRule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+public class DbfProcessorTest {
+
+    private static final int RECORDS = 20000;
+
+    private static final DbfRowMapper<Integer> ID_MAPPER = new DbfRowMapper<Integer>() {
+        @Override
+        public Integer mapRow(Object[] row) {
+            return ((Number) row[0]).intValue();
+        }
+    };
+
+    @ClassRule
+    public static final TemporaryFolder folder = new TemporaryFolder();
+
+    private static File dbf;
+    private static List<Integer> expectedIds;
+
+    @BeforeClass
+    public static void createFile() throws Exception {
+        DbfBuilder builder = new DbfBuilder().field("ID", 'N', 6);
+        expectedIds = new ArrayList<>();
+        for (int i = 0; i < RECORDS; i++) {
+            if (i % 7 == 3) {
+                builder.deletedRecord(String.valueOf(i));
+            } else {
+                builder.record(String.valueOf(i));
+                expectedIds.add(i);
+            }
+        }
+        dbf = builder.writeTo(folder.newFile("ids.dbf"));
+    }
+
+    @Test
+    public void loadData() {
+        assertEquals(expectedIds, DbfProcessor.loadData(dbf, ID_MAPPER));
+    }
+
+    @Test
+    public void loadDataParallel() {
+        assertEquals(expectedIds, DbfProcessor.loadDataParallel(dbf, ID_MAPPER, true));
+
+        List<Integer> unordered = DbfProcessor.loadDataParallel(dbf, ID_MAPPER, false);
+        Collections.sort(unordered);
+        assertEquals(expectedIds, unordered);
+    }
+
+    @Test
+    public void processDbfParallelOrdered() {
+        final List<Integer> ids = new ArrayList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            DbfProcessor.processDbfParallel(dbf, new DbfRowProcessor() {
+                @Override
+                public void processRow(Object[] row) {
+                    ids.add(ID_MAPPER.mapRow(row));
+                }
+            }, executor, true);
+        } finally {
+            executor.shutdown();
+        }
+        assertEquals(expectedIds, ids);
+    }
+
+    @Test
+    public void processDbfParallelUnordered() {
+        final List<Integer> ids = Collections.synchronizedList(new ArrayList<Integer>());
+        DbfProcessor.processDbfParallel(dbf, new DbfRowProcessor() {
+            @Override
+            public void processRow(Object[] row) {
+                ids.add(ID_MAPPER.mapRow(row));
+            }
+        }, false);
+        Collections.sort(ids);
+        assertEquals(expectedIds, ids);
+    }
+
+    @Test
+    public void failedRangeStopsOtherRanges() throws InterruptedException {
+        final AtomicInteger processed = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            DbfProcessor.processDbfParallel(dbf, new DbfRowProcessor() {
+                @Override
+                public void processRow(Object[] row) {
+                    if (ID_MAPPER.mapRow(row) == 0) {
+                        // fail once the other ranges are being processed
+                        while (processed.get() < 100) {
+                            LockSupport.parkNanos(100000);
+                        }
+                        throw new IllegalStateException("Cannot process row");
+                    }
+                    processed.incrementAndGet();
+                    LockSupport.parkNanos(10000);
+                }
+            }, executor, false);
+            fail("Failure of the row processor is expected");
+        } catch (IllegalStateException e) {
+            // expected
+        } finally {
+            executor.shutdown();
+        }
+
+        int count = processed.get();
+        assertTrue(count < expectedIds.size() - 1);
+        Thread.sleep(100);
+        assertEquals("rows processed after the failure was thrown", count, processed.get());
+    }
+
+    @Test
+    public void processDbfInBatches() {
+        final List<Integer> ids = new ArrayList<>();
+        final List<Integer> sizes = new ArrayList<>();
+        DbfProcessor.processDbfInBatches(dbf, 5000, new DbfBatchProcessor() {
+            @Override
+            public void processBatch(DbfRecordBatch batch) {
+                sizes.add(batch.size());
+                for (Object[] row : batch) {
+                    ids.add(ID_MAPPER.mapRow(row));
+                }
+            }
+        });
+        assertEquals(expectedIds, ids);
+        assertEquals(Arrays.asList(5000, 5000, 5000, expectedIds.size() - 15000), sizes);
+    }
+
+    @Test
+    public void metrics() {
+        DbfReaderMetrics metrics = new DbfReaderMetrics();
+        List<Integer> ids = DbfProcessor.loadDataParallel(dbf, ID_MAPPER, ForkJoinPool.commonPool(), true, metrics);
+        assertEquals(expectedIds, ids);
+        assertEquals(expectedIds.size(), metrics.getRecordsRead());
+        assertEquals(RECORDS - expectedIds.size(), metrics.getDeletedRecordsSkipped());
+        assertEquals(RECORDS * 7L, metrics.getBytesRead());
+        assertEquals(expectedIds.size(), metrics.getDecodeTime(DbfDataType.NUMERIC).getCount());
+    }
+}
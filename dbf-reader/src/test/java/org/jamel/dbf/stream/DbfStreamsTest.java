@@ -0,0 +1,106 @@
+package org.jamel.dbf.stream;
+
+import java.io.File;
+import java.nio.charset.Charset;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import org.jamel.dbf.DbfBuilder;
+import org.jamel.dbf.structure.DbfRow;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertTrue;
+
+public class DbfStreamsTest {
+
+    private static final int RECORDS = 10000;
+
+    @Rule
+    public final TemporaryFolder folder = new TemporaryFolder();
+
+    private File createFile(boolean withDeleted) throws Exception {
+        DbfBuilder builder = new DbfBuilder().field("ID", 'N', 6);
+        for (int i = 0; i < RECORDS; i++) {
+            if (withDeleted && i % 10 == 0) {
+                builder.deletedRecord(String.valueOf(i));
+            } else {
+                builder.record(String.valueOf(i));
+            }
+        }
+        return builder.writeTo(folder.newFile());
+    }
+
+    @Test
+    public void parallelStream() throws Exception {
+        File dbf = createFile(true);
+        List<Integer> expected = IntStream.range(0, RECORDS).filter(i -> i % 10 != 0).boxed()
+                .collect(Collectors.toList());
+
+        try (Stream<Object[]> records = DbfStreams.records(dbf, true)) {
+            assertTrue(records.isParallel());
+            assertEquals(expected, records.map(r -> ((Number) r[0]).intValue()).collect(Collectors.toList()));
+        }
+        try (Stream<DbfRow> rows = DbfStreams.rows(dbf, true)) {
+            assertEquals(expected.stream().mapToLong(i -> i).sum(), rows.mapToLong(r -> r.getLong("ID")).sum());
+        }
+    }
+
+    @Test
+    public void codePageOfHeader() throws Exception {
+        File dbf = new DbfBuilder()
+                .languageDriver(0x26, Charset.forName("cp866"))
+                .field("NAME", 'C', 10)
+                .record("Иванов")
+                .writeTo(folder.newFile());
+
+        try (Stream<DbfRow> rows = DbfStreams.rows(dbf, false)) {
+            assertEquals("Иванов", rows.findFirst().get().getString("NAME"));
+        }
+    }
+
+    @Test
+    public void splitting() throws Exception {
+        try (DbfSpliterator spliterator = new DbfSpliterator(createFile(false), true)) {
+            assertTrue(spliterator.hasCharacteristics(Spliterator.SIZED | Spliterator.SUBSIZED));
+            Spliterator<Object[]> prefix = spliterator.trySplit();
+            assertNotNull(prefix);
+            assertEquals(RECORDS / 2, prefix.estimateSize());
+            assertEquals(RECORDS / 2, spliterator.estimateSize());
+            assertEquals(RECORDS / 2, prefix.getExactSizeIfKnown());
+
+            assertTrue(prefix.tryAdvance(r -> assertEquals(0, ((Number) r[0]).intValue())));
+            assertEquals(RECORDS / 2 - 1, prefix.estimateSize());
+            spliterator.tryAdvance(r -> assertEquals(RECORDS / 2, ((Number) r[0]).intValue()));
+        }
+    }
+
+    @Test
+    public void exactSize() throws Exception {
+        File dbf = createFile(false);
+        try (Stream<Object[]> records = DbfStreams.records(dbf, true)) {
+            assertFalse(records.spliterator().hasCharacteristics(Spliterator.SIZED));
+        }
+        try (Stream<Object[]> records = DbfStreams.records(dbf, true, true)) {
+            assertTrue(records.spliterator().hasCharacteristics(Spliterator.SIZED));
+        }
+        try (Stream<Object[]> records = DbfStreams.records(dbf, true, true)) {
+            assertEquals(RECORDS, records.toArray().length);
+        }
+    }
+
+    @Test
+    public void notSizedWithDeletedRecords() throws Exception {
+        try (DbfSpliterator spliterator = new DbfSpliterator(createFile(true), true)) {
+            assertFalse(spliterator.hasCharacteristics(Spliterator.SIZED));
+            assertEquals(RECORDS, spliterator.estimateSize());
+        }
+    }
+}
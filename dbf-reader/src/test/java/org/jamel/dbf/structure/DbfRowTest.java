@@ -5,7 +5,9 @@ import org.junit.Before;
 import org.junit.Test;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.Date;
+import java.util.GregorianCalendar;
 
 import static java.nio.charset.Charset.defaultCharset;
 import static org.junit.Assert.assertEquals;
@@ -49,6 +51,16 @@ public class DbfRowTest {
         assertEquals(value, dbfRow.getDate(COLUMN_2));
     }
 
+    @Test
+    public void getLocalDate() {
+        LocalDate value = LocalDate.of(2013, 7, 15);
+        assertEquals(value, createRow(value, null).getLocalDate(COLUMN_1));
+        assertEquals(value, createRow((int) value.toEpochDay(), null).getLocalDate(COLUMN_1));
+        assertEquals(value, createRow(new GregorianCalendar(2013, 6, 15).getTime(), null).getLocalDate(COLUMN_1));
+        assertEquals(new GregorianCalendar(2013, 6, 15).getTime(), createRow(value, null).getDate(COLUMN_1));
+        assertNull(createRow(value, null).getLocalDate(COLUMN_2));
+    }
+
     @Test
     public void getString() {
         final String value = "String value";
@@ -0,0 +1,369 @@
+package org.jamel.dbf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Calendar;
+import java.util.Date;
+import java.util.List;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+
+import static java.nio.charset.Charset.defaultCharset;
+
+/**
+ * Dbf writer. Records are encoded into a reused buffer and written to the file
+ * channel in large blocks, the number of records in the header is written on {@link #close()}.
+ * Supported values:
+ * <ul>
+ *     <li>CHAR - {@link String} (encoded with the writer charset) or {@code byte[]}, longer values are truncated</li>
+ *     <li>NUMERIC, FLOAT - any {@link Number}, rounded half up to the decimal count of the field</li>
+ *     <li>DATE - {@link Date} or {@link LocalDate}</li>
+ *     <li>LOGICAL - {@link Boolean}</li>
+ * </ul>
+ * {@code null} is written as blank value ('?' for LOGICAL fields).
+ * This class is not thread safe.
+ *
+ * <pre>
+ * try (DbfWriter writer = new DbfWriter(file, Arrays.asList(
+ *         DbfField.create("NAME", DbfDataType.CHAR, 20),
+ *         DbfField.create("PRICE", DbfDataType.NUMERIC, 10, 2)))) {
+ *     writer.writeRecord("apple", 12.5);
+ * }
+ * </pre>
+ */
+public class DbfWriter implements Closeable {
+    private static final byte DATA_ENDED = 0x1A;
+    private static final int BUFFER_SIZE = 1 << 20;
+
+    private static final double[] DOUBLE_POW10 = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15
+    };
+
+    /** Scaled values below this bound are rounded in double arithmetic unless they are close to a tie */
+    private static final double MAX_FAST_SCALED_VALUE = 1e12;
+    private static final double TIE_MARGIN = 1e-3;
+
+    /** Longer decimal parts are written through BigDecimal */
+    private static final int MAX_FAST_SCALE = 18;
+
+    private final Charset charset;
+    private final boolean asciiCompatible;
+    private final DbfHeader header;
+    private final FileChannel channel;
+    private final ByteBuffer buffer;
+    private final byte[] record;
+    private final byte[] digits = new byte[MAX_FAST_SCALE + 21];
+    private Calendar calendar;
+    private int recordCount;
+    private boolean closed;
+
+    public DbfWriter(File file, List<DbfField> fields) throws DbfException {
+        this(file, defaultCharset(), fields);
+    }
+
+    /**
+     * Creates new dbf file, existing file is truncated.
+     *
+     * @param file Dbf file
+     * @param charset charset of CHAR values
+     * @param fields definitions of the fields, see {@link DbfField#create(String, DbfDataType, int, int)}
+     */
+    public DbfWriter(File file, Charset charset, List<DbfField> fields) throws DbfException {
+        this.charset = charset;
+        this.asciiCompatible = isAsciiCompatible(charset);
+        this.header = DbfHeader.create(fields);
+        this.record = new byte[header.getRecordLength()];
+        this.buffer = ByteBuffer.allocateDirect(Math.max(BUFFER_SIZE, record.length));
+        try {
+            channel = FileChannel.open(file.toPath(), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        } catch (IOException e) {
+            throw new DbfException("Cannot create Dbf file " + file, e);
+        }
+        try {
+            ByteArrayOutputStream headerBytes = new ByteArrayOutputStream(header.getHeaderLength());
+            header.write(new DataOutputStream(headerBytes));
+            buffer.put(headerBytes.toByteArray());
+        } catch (RuntimeException e) {
+            closeQuietly();
+            throw e;
+        }
+    }
+
+    private static boolean isAsciiCompatible(Charset charset) {
+        String sample = "Az09 .-";
+        return Arrays.equals(sample.getBytes(charset), sample.getBytes(StandardCharsets.US_ASCII));
+    }
+
+    /**
+     * @return header of the written file, its number of records is not updated (see {@link #getRecordCount()}).
+     */
+    public DbfHeader getHeader() {
+        return header;
+    }
+
+    /**
+     * @return number of records written so far.
+     */
+    public int getRecordCount() {
+        return recordCount;
+    }
+
+    /**
+     * Writes the record.
+     *
+     * @param values values of all fields in the order of the header
+     * @throws DbfException if the number of values doesn't match the number of fields,
+     *                      a value has unsupported type or a number doesn't fit into its field
+     */
+    public void writeRecord(Object... values) throws DbfException {
+        if (closed) {
+            throw new DbfException("Dbf writer is closed");
+        }
+        if (values.length != header.getFieldsCount()) {
+            throw new DbfException(String.format("Expected %d values, but got %d",
+                    header.getFieldsCount(), values.length));
+        }
+        if (recordCount == Integer.MAX_VALUE) {
+            throw new DbfException("Too many records");
+        }
+
+        Arrays.fill(record, (byte) ' ');
+        for (int i = 0; i < values.length; i++) {
+            writeValue(header.getField(i), values[i]);
+        }
+
+        if (buffer.remaining() < record.length) {
+            flush();
+        }
+        buffer.put(record);
+        recordCount++;
+    }
+
+    private void writeValue(DbfField field, Object value) {
+        if (value == null) {
+            if (field.getDataType() == DbfDataType.LOGICAL) {
+                record[field.getOffset()] = '?';
+            }
+            return;
+        }
+        switch (field.getDataType()) {
+            case CHAR: writeCharacterValue(field, value); break;
+            case NUMERIC:
+            case FLOAT: writeNumericValue(field, value); break;
+            case DATE: writeDateValue(field, value); break;
+            case LOGICAL: writeLogicalValue(field, value); break;
+            default: throw unsupportedValue(field, value);
+        }
+    }
+
+    private void writeCharacterValue(DbfField field, Object value) {
+        int offset = field.getOffset();
+        int length = field.getFieldLength();
+        if (value instanceof byte[]) {
+            byte[] bytes = (byte[]) value;
+            System.arraycopy(bytes, 0, record, offset, Math.min(bytes.length, length));
+        } else if (value instanceof String) {
+            String s = (String) value;
+            int i = 0;
+            int n = asciiCompatible ? Math.min(s.length(), length) : 0;
+            // most values are ASCII, which doesn't need an encoder
+            while (i < n && s.charAt(i) < 0x80) {
+                record[offset + i] = (byte) s.charAt(i);
+                i++;
+            }
+            if (i < s.length() && i < length) {
+                byte[] bytes = s.getBytes(charset);
+                System.arraycopy(bytes, 0, record, offset, Math.min(bytes.length, length));
+            }
+        } else {
+            throw unsupportedValue(field, value);
+        }
+    }
+
+    private void writeNumericValue(DbfField field, Object value) {
+        int scale = field.getDecimalCount();
+        if (value instanceof Long || value instanceof Integer || value instanceof Short || value instanceof Byte) {
+            writeScaledLong(field, ((Number) value).longValue(), 0, scale);
+        } else if (value instanceof Double || value instanceof Float) {
+            double d = ((Number) value).doubleValue();
+            if (Double.isNaN(d) || Double.isInfinite(d)) {
+                throw new DbfException(String.format("Value %s does not fit into field \"%s\"", value, field.getName()));
+            }
+            if (scale < DOUBLE_POW10.length) {
+                double scaled = Math.abs(d) * DOUBLE_POW10[scale];
+                if (scaled < MAX_FAST_SCALED_VALUE && Math.abs(scaled - Math.floor(scaled) - 0.5) > TIE_MARGIN) {
+                    long rounded = (long) (scaled + 0.5);
+                    writeScaledLong(field, d < 0 ? -rounded : rounded, scale, scale);
+                    return;
+                }
+            }
+            // close to a tie or too large for the double arithmetic
+            writeDecimal(field, BigDecimal.valueOf(d));
+        } else if (value instanceof BigDecimal) {
+            writeDecimal(field, (BigDecimal) value);
+        } else if (value instanceof Number) {
+            writeDecimal(field, new BigDecimal(value.toString()));
+        } else {
+            throw unsupportedValue(field, value);
+        }
+    }
+
+    private void writeDecimal(DbfField field, BigDecimal value) {
+        String s = value.setScale(field.getDecimalCount(), RoundingMode.HALF_UP).toPlainString();
+        if (s.length() > field.getFieldLength()) {
+            throw new DbfException(String.format("Value %s does not fit into field \"%s\"", value, field.getName()));
+        }
+        int offset = field.getOffset() + field.getFieldLength() - s.length();
+        for (int i = 0; i < s.length(); i++) {
+            record[offset + i] = (byte) s.charAt(i);
+        }
+    }
+
+    /**
+     * Writes right aligned value {@code unscaled / 10^valueScale} with {@code scale} decimal places.
+     */
+    private void writeScaledLong(DbfField field, long unscaled, int valueScale, int scale) {
+        if (unscaled == Long.MIN_VALUE || scale > MAX_FAST_SCALE) {
+            writeDecimal(field, BigDecimal.valueOf(unscaled, valueScale));
+            return;
+        }
+        boolean negative = unscaled < 0;
+        long abs = Math.abs(unscaled);
+        int pos = digits.length;
+        int fractionDigits = 0;
+        for (int i = valueScale; i < scale; i++) {
+            digits[--pos] = '0';
+            fractionDigits++;
+        }
+        while (fractionDigits < scale) {
+            digits[--pos] = (byte) ('0' + abs % 10);
+            abs /= 10;
+            fractionDigits++;
+        }
+        if (scale > 0) {
+            digits[--pos] = '.';
+        }
+        do {
+            digits[--pos] = (byte) ('0' + abs % 10);
+            abs /= 10;
+        } while (abs > 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+
+        int length = digits.length - pos;
+        if (length > field.getFieldLength()) {
+            throw new DbfException(String.format("Value %s does not fit into field \"%s\"",
+                    BigDecimal.valueOf(unscaled, valueScale), field.getName()));
+        }
+        System.arraycopy(digits, pos, record, field.getOffset() + field.getFieldLength() - length, length);
+    }
+
+    private void writeDateValue(DbfField field, Object value) {
+        int year, month, day;
+        if (value instanceof LocalDate) {
+            LocalDate date = (LocalDate) value;
+            year = date.getYear();
+            month = date.getMonthValue();
+            day = date.getDayOfMonth();
+        } else if (value instanceof Date) {
+            if (calendar == null) {
+                calendar = Calendar.getInstance();
+            }
+            calendar.setTime((Date) value);
+            year = calendar.get(Calendar.YEAR);
+            month = calendar.get(Calendar.MONTH) + 1;
+            day = calendar.get(Calendar.DAY_OF_MONTH);
+        } else {
+            throw unsupportedValue(field, value);
+        }
+        if (year < 0 || year > 9999) {
+            throw new DbfException(String.format("Value %s does not fit into field \"%s\"", value, field.getName()));
+        }
+        int offset = field.getOffset();
+        writeDigits(year, offset, 4);
+        writeDigits(month, offset + 4, 2);
+        writeDigits(day, offset + 6, 2);
+    }
+
+    private void writeDigits(int value, int offset, int count) {
+        for (int i = offset + count - 1; i >= offset; i--, value /= 10) {
+            record[i] = (byte) ('0' + value % 10);
+        }
+    }
+
+    private void writeLogicalValue(DbfField field, Object value) {
+        if (!(value instanceof Boolean)) {
+            throw unsupportedValue(field, value);
+        }
+        record[field.getOffset()] = (Boolean) value ? (byte) 'T' : (byte) 'F';
+    }
+
+    private static DbfException unsupportedValue(DbfField field, Object value) {
+        return new DbfException(String.format("Value of type %s is not supported by field \"%s\" of type %s",
+                value.getClass().getName(), field.getName(), field.getDataType()));
+    }
+
+    private void flush() {
+        buffer.flip();
+        try {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        } catch (IOException e) {
+            throw new DbfException("Cannot write Dbf file", e);
+        }
+        buffer.clear();
+    }
+
+    /**
+     * Writes buffered records and the end of data marker, updates the number of records in the header.
+     */
+    @Override
+    public void close() throws DbfException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            if (!buffer.hasRemaining()) {
+                flush();
+            }
+            buffer.put(DATA_ENDED);
+            flush();
+            ByteBuffer count = ByteBuffer.allocate(4).order(ByteOrder.LITTLE_ENDIAN).putInt(0, recordCount);
+            while (count.hasRemaining()) {
+                channel.write(count, 4 + count.position());
+            }
+        } catch (IOException e) {
+            throw new DbfException("Cannot write Dbf file", e);
+        } finally {
+            closeQuietly();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            channel.close();
+        } catch (IOException e) {
+            // ignore
+        }
+    }
+}
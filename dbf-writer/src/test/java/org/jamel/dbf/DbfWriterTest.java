@@ -0,0 +1,156 @@
+package org.jamel.dbf;
+
+import java.io.File;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.charset.Charset;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.GregorianCalendar;
+import java.util.List;
+
+import org.jamel.dbf.exception.DbfException;
+import org.jamel.dbf.structure.DbfDataType;
+import org.jamel.dbf.structure.DbfField;
+import org.jamel.dbf.structure.DbfHeader;
+import org.jamel.dbf.structure.DbfRow;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+
+public class DbfWriterTest {
+
+    private static final List<DbfField> FIELDS = Arrays.asList(
+            DbfField.create("NAME", DbfDataType.CHAR, 6),
+            DbfField.create("PRICE", DbfDataType.NUMERIC, 8, 2),
+            DbfField.create("RATE", DbfDataType.FLOAT, 5, 1),
+            DbfField.create("ACTIVE", DbfDataType.LOGICAL, 1),
+            DbfField.create("CREATED", DbfDataType.DATE, 8));
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void roundTrip() throws IOException {
+        File file = folder.newFile("test.dbf");
+        try (DbfWriter writer = new DbfWriter(file, FIELDS)) {
+            writer.writeRecord("apple", 12.5, 0.5f, true, new GregorianCalendar(2013, 6, 15).getTime());
+            writer.writeRecord("pineapple", -3L, null, false, LocalDate.of(2014, 1, 1));
+            writer.writeRecord(null, new BigDecimal("1.005"), 99.95, null, null);
+        }
+
+        try (DbfReader reader = new DbfReader(file)) {
+            DbfHeader header = reader.getHeader();
+            assertEquals(3, header.getNumberOfRecords());
+            assertEquals(5, header.getFieldsCount());
+            assertEquals(29, header.getRecordLength());
+            assertEquals("PRICE", header.getField(1).getName());
+            assertEquals(2, header.getField(1).getDecimalCount());
+
+            Object[] record = reader.nextRecord();
+            assertArrayEquals("apple ".getBytes(), (byte[]) record[0]);
+            assertEquals(12.5, record[1]);
+            assertEquals(0.5f, record[2]);
+            assertEquals(Boolean.TRUE, record[3]);
+            assertEquals(new GregorianCalendar(2013, 6, 15).getTime(), record[4]);
+
+            record = reader.nextRecord();
+            assertArrayEquals("pineap".getBytes(), (byte[]) record[0]);
+            assertEquals(-3.0, record[1]);
+            assertNull(record[2]);
+            assertEquals(Boolean.FALSE, record[3]);
+            assertEquals(new GregorianCalendar(2014, 0, 1).getTime(), record[4]);
+
+            record = reader.nextRecord();
+            assertArrayEquals("      ".getBytes(), (byte[]) record[0]);
+            assertEquals(1.01, record[1]);
+            assertEquals(100.0f, record[2]);
+            assertNull(record[4]);
+
+            assertNull(reader.nextRecord());
+        }
+    }
+
+    @Test
+    public void numbersAreRoundedHalfUp() throws IOException {
+        File file = folder.newFile("test.dbf");
+        double[] values = {0.125, -0.125, 2.675, 1.0049999, 123456.785, -0.004};
+        try (DbfWriter writer = new DbfWriter(file, Arrays.asList(DbfField.create("N", DbfDataType.NUMERIC, 12, 2)))) {
+            for (double value : values) {
+                writer.writeRecord(value);
+            }
+        }
+        try (DbfReader reader = new DbfReader(file)) {
+            for (double value : values) {
+                double expected = BigDecimal.valueOf(value).setScale(2, BigDecimal.ROUND_HALF_UP).doubleValue();
+                assertEquals(expected, (Double) reader.nextRecord()[0], 0);
+            }
+        }
+    }
+
+    @Test
+    public void charset() throws IOException {
+        File file = folder.newFile("test.dbf");
+        Charset charset = Charset.forName("cp866");
+        try (DbfWriter writer = new DbfWriter(file, charset, Arrays.asList(DbfField.create("NAME", DbfDataType.CHAR, 10)))) {
+            writer.writeRecord("Привет");
+        }
+        try (DbfReader reader = new DbfReader(file, charset)) {
+            DbfRow row = reader.nextRow();
+            assertEquals("Привет", row.getString("NAME"));
+        }
+    }
+
+    @Test
+    public void manyRecords() throws IOException {
+        File file = folder.newFile("test.dbf");
+        int count = 100000; // several buffer flushes
+        try (DbfWriter writer = new DbfWriter(file, FIELDS)) {
+            for (int i = 0; i < count; i++) {
+                writer.writeRecord("r" + i, i / 100.0, null, i % 2 == 0, null);
+            }
+        }
+        try (DbfReader reader = new DbfReader(file)) {
+            assertEquals(count, reader.getRecordCount());
+            for (int i = 0; i < count; i++) {
+                assertEquals(i / 100.0, (Double) reader.nextRecord()[1], 0);
+            }
+            assertNull(reader.nextRecord());
+        }
+        assertEquals(32 * 6 + 1 + 29L * count + 1, file.length());
+    }
+
+    @Test(expected = DbfException.class)
+    public void valueDoesNotFit() throws IOException {
+        try (DbfWriter writer = new DbfWriter(folder.newFile("test.dbf"), FIELDS)) {
+            writer.writeRecord("apple", 1000000.0, null, null, null);
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void unsupportedValue() throws IOException {
+        try (DbfWriter writer = new DbfWriter(folder.newFile("test.dbf"), FIELDS)) {
+            writer.writeRecord("apple", "12.5", null, null, null);
+        }
+    }
+
+    @Test(expected = DbfException.class)
+    public void duplicateField() {
+        DbfHeader.create(Arrays.asList(
+                DbfField.create("NAME", DbfDataType.CHAR, 6),
+                DbfField.create("NAME", DbfDataType.CHAR, 6)));
+    }
+
+    @Test
+    public void definitionsAreNotModified() {
+        DbfHeader header = DbfHeader.create(FIELDS);
+        assertEquals(15, header.getField("RATE").getOffset());
+        assertEquals(0, FIELDS.get(2).getOffset());
+        assertFalse(header.getField(2) == FIELDS.get(2));
+    }
+}